@@ -0,0 +1,42 @@
+package org.mth.kini.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line options, but unless told
+ * otherwise writes the results as JSON to {@code jmh-result.json} and attaches the GC profiler, so that
+ * allocation rates are part of every run.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                  # everything
+ * java -jar target/benchmarks.jar Load -p size=HUGE # a subset
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cli);
+
+        if (!cli.getResultFormat().hasValue())
+            builder.resultFormat(ResultFormatType.JSON);
+        if (!cli.getResult().hasValue())
+            builder.result("jmh-result.json");
+        if (cli.getProfilers().isEmpty())
+            builder.addProfiler(GCProfiler.class);
+
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,64 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a configuration to {@link Properties}, to text and to a file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"SMALL", "MEDIUM"})
+    public SyntheticIni.Size size;
+
+    private Ini ini;
+
+    private Path target;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] content = SyntheticIni.flat(size.sections, size.keys).getBytes(StandardCharsets.UTF_8);
+        ini = Ini.load(new InputStreamReader(new ByteArrayInputStream(content)));
+        target = Files.createTempFile("kini-bench", ".ini");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public Properties toProperties() {
+        return ini.toProperties();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return ini.toString();
+    }
+
+    @Benchmark
+    public void store() {
+        ini.store(target);
+    }
+
+    @Benchmark
+    public void storeAtomic() {
+        ini.store(target, StandardCharsets.UTF_8, true);
+    }
+}
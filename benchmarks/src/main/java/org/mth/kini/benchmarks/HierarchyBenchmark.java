@@ -0,0 +1,81 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.mth.kini.IniSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Navigation of dotted hierarchies, both of section names and of property keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchyBenchmark {
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int fanOut;
+
+    private Ini ini;
+
+    private IniSection section;
+
+    private String sectionPrefix;
+
+    private String keyPrefix;
+
+    @Setup
+    public void setup() {
+        byte[] content = SyntheticIni.hierarchy(depth, fanOut).getBytes(StandardCharsets.UTF_8);
+        ini = Ini.load(new InputStreamReader(new ByteArrayInputStream(content)));
+
+        StringBuilder prefix = new StringBuilder("n0");
+        for (int i = 2; i < depth; i++) prefix.append(".n0");
+        sectionPrefix = prefix.toString();
+        keyPrefix = sectionPrefix;
+        section = ini.section(sectionPrefix + (depth > 1 ? ".n0" : ""));
+    }
+
+    @Benchmark
+    public Map<String, IniSection> getSectionGroup() {
+        return ini.getSectionGroup(sectionPrefix);
+    }
+
+    @Benchmark
+    public List<String> getSectionNodes() {
+        return ini.getSectionNodes(sectionPrefix);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, IniSection>> groupBySectionRoot() {
+        return ini.groupBySectionRoot();
+    }
+
+    @Benchmark
+    public Map<String, String> getGroup() {
+        return section.getGroup(keyPrefix, true);
+    }
+
+    @Benchmark
+    public Collection<String> getNodes() {
+        return section.getNodes(keyPrefix);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, String>> groupByRoot() {
+        return section.groupByRoot();
+    }
+}
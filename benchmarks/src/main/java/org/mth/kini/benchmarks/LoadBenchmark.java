@@ -0,0 +1,41 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of whole files through {@link Ini#load(Path)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public SyntheticIni.Size size;
+
+    private Path path;
+
+    @Setup
+    public void setup() throws IOException {
+        path = SyntheticIni.write(SyntheticIni.flat(size.sections, size.keys));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Ini load() {
+        return Ini.load(path);
+    }
+}
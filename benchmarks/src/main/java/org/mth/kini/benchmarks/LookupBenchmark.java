@@ -0,0 +1,81 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.mth.kini.IniSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single property lookups, raw and typed, on a medium sized configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int SECTIONS = SyntheticIni.Size.MEDIUM.sections;
+    private static final int KEYS = SyntheticIni.Size.MEDIUM.keys;
+
+    private IniSection[] sections;
+
+    private String[] strings;
+    private String[] ints;
+    private String[] doubles;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Ini ini = new Ini();
+        ini.merge(parse());
+
+        sections = new IniSection[SECTIONS];
+        for (int s = 0; s < SECTIONS; s++)
+            sections[s] = ini.section(SyntheticIni.section(s));
+
+        strings = keys(0);
+        ints = keys(1);
+        doubles = keys(2);
+    }
+
+    private static Ini parse() {
+        return Ini.load(new java.io.InputStreamReader(new java.io.ByteArrayInputStream(
+                SyntheticIni.flat(SECTIONS, KEYS).getBytes(java.nio.charset.StandardCharsets.UTF_8))));
+    }
+
+    private static String[] keys(int remainder) {
+        String[] keys = new String[KEYS / 3];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = SyntheticIni.key(i * 3 + remainder);
+        return keys;
+    }
+
+    private IniSection nextSection() {
+        next = (next + 1) % SECTIONS;
+        return sections[next];
+    }
+
+    @Benchmark
+    public String get() {
+        return nextSection().get(strings[next % strings.length]);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return nextSection().getInt(ints[next % ints.length]);
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return nextSection().getDouble(doubles[next % doubles.length]);
+    }
+
+    @Benchmark
+    public String getMissing() {
+        return nextSection().get("missing", "default");
+    }
+}
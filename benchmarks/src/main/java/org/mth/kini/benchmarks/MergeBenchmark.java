@@ -0,0 +1,46 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging of two configurations overlapping on half of their sections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+    @Param({"SMALL", "MEDIUM"})
+    public SyntheticIni.Size size;
+
+    private Ini base;
+
+    private Ini overlay;
+
+    @Setup
+    public void setup() {
+        base = parse(SyntheticIni.flat(size.sections, size.keys));
+        overlay = parse(SyntheticIni.flat(size.sections / 2, size.keys));
+    }
+
+    private static Ini parse(String content) {
+        return Ini.load(new InputStreamReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Benchmark
+    public Ini merge() {
+        Ini target = new Ini();
+        target.merge(base);
+        target.merge(overlay);
+        return target;
+    }
+}
@@ -0,0 +1,50 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.mth.kini.IniLoadOptions;
+import org.mth.kini.IniParserEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of generated corpora with each {@link IniParserEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserEngineBenchmark {
+
+    @Param({"JFLEX", "FAST"})
+    public IniParserEngine engine;
+
+    @Param({"65536", "4194304"})
+    public long bytes;
+
+    private Path path;
+
+    private IniLoadOptions options;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempFile("kini-engine", ".ini");
+        SyntheticIni.write(path, SyntheticIni.Spec.DEFAULT, bytes);
+        options = new IniLoadOptions(false, null, null, false, false, false, engine);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Ini load() {
+        return Ini.load(path, options);
+    }
+}
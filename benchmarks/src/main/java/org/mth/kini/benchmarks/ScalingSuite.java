@@ -0,0 +1,257 @@
+package org.mth.kini.benchmarks;
+
+import org.mth.kini.Ini;
+import org.mth.kini.IniSection;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Scaling regression suite: loads generated corpora from 1 KB to 1 GB (in steps of 16x) and walks all
+ * their properties through the accessors, measuring throughput and bytes allocated per input byte.
+ * The measures are compared with a stored baseline and the process exits with status 1 if any of them
+ * regresses past the tolerance.
+ *
+ * <pre>
+ * java -Xmx12g -cp target/benchmarks.jar org.mth.kini.benchmarks.ScalingSuite [options]
+ *
+ *   --max SIZE           largest corpus, e.g. 64MB (default 1GB)
+ *   --baseline FILE      baseline to compare with (default baseline/scaling.ini)
+ *   --tolerance RATIO    allowed regression (default 0.25)
+ *   --corpus-dir DIR     where corpora are generated and reused (default target/corpus)
+ *   --update-baseline    write the measures as the new baseline instead of comparing
+ * </pre>
+ *
+ * Throughput depends on the machine, so the baseline is only meaningful on the machine that recorded
+ * it; allocation per byte is portable. Sizes whose parsed form would not fit in the heap are skipped.
+ */
+public final class ScalingSuite {
+
+    private static final long KB = 1024;
+    private static final long MB = KB * 1024;
+    private static final long GB = MB * 1024;
+
+    private static final long[] SIZES = {KB, 16 * KB, 256 * KB, 4 * MB, 64 * MB, GB};
+
+    /**
+     * Minimum amount of input processed by a single measurement, small corpora being loaded repeatedly.
+     */
+    private static final long MEASURED_BYTES = 32 * MB;
+
+    private static final int ROUNDS = 3;
+
+    /**
+     * Allocation regressions smaller than this many bytes per input byte are ignored as noise.
+     */
+    private static final double ALLOCATION_SLACK = 0.05;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Receives the results of the measured operations, so that they cannot be optimized away.
+     */
+    private static volatile Object sink;
+
+    /**
+     * Throughput in MB/s and allocated bytes per input byte of one operation on one corpus.
+     */
+    static final class Measure {
+        final double throughput;
+        final double allocationPerByte;
+
+        Measure(double throughput, double allocationPerByte) {
+            this.throughput = throughput;
+            this.allocationPerByte = allocationPerByte;
+        }
+    }
+
+    private interface Operation {
+        void run(Path corpus, Ini parsed) throws IOException;
+    }
+
+    private ScalingSuite() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long max = GB;
+        Path baselinePath = Path.of("baseline", "scaling.ini");
+        double tolerance = 0.25;
+        Path corpusDir = Path.of("target", "corpus");
+        boolean update = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max":
+                    max = parseSize(args[++i]);
+                    break;
+                case "--baseline":
+                    baselinePath = Path.of(args[++i]);
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                case "--corpus-dir":
+                    corpusDir = Path.of(args[++i]);
+                    break;
+                case "--update-baseline":
+                    update = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Files.createDirectories(corpusDir);
+        Ini baseline = !update && Files.exists(baselinePath) ? Ini.load(baselinePath) : null;
+        Ini results = new Ini();
+        List<String> regressions = new ArrayList<>();
+
+        System.out.printf(Locale.ROOT, "%-8s %-8s %12s %12s %12s %12s%n",
+                "size", "op", "MB/s", "base MB/s", "alloc B/B", "base B/B");
+
+        for (long size : SIZES) {
+            if (size > max) break;
+
+            String name = formatSize(size);
+            // the parsed form takes several times the size of the source
+            if (size * 8 > Runtime.getRuntime().maxMemory()) {
+                System.out.printf(Locale.ROOT, "%-8s skipped: needs a larger heap (-Xmx)%n", name);
+                continue;
+            }
+
+            Path corpus = corpus(corpusDir, size);
+            long bytes = Files.size(corpus);
+            Ini parsed = Ini.load(corpus);
+
+            Measure load = measure(corpus, parsed, bytes, (path, ini) -> sink = Ini.load(path));
+            Measure access = measure(corpus, parsed, bytes, (path, ini) -> sink = accessAll(ini));
+
+            IniSection section = results.section(name);
+            record(section, "load", load);
+            record(section, "access", access);
+
+            IniSection base = baseline == null ? null : baseline.hasSection(name) ? baseline.section(name) : null;
+            report(name, "load", load, base, tolerance, regressions);
+            report(name, "access", access, base, tolerance, regressions);
+        }
+
+        if (update) {
+            Path parent = baselinePath.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            results.store(baselinePath);
+            System.out.println("Baseline written to " + baselinePath);
+        } else if (!regressions.isEmpty()) {
+            System.out.println();
+            regressions.forEach(r -> System.out.println("REGRESSION " + r));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads every property of the configuration, through the typed accessor matching its key.
+     */
+    private static long accessAll(Ini ini) {
+        long sink = 0;
+        for (IniSection section : ini.getSections()) {
+            for (Map.Entry<? extends String, ? extends String> entry : section) {
+                String key = entry.getKey();
+                switch (key.charAt(key.lastIndexOf('.') + 1)) {
+                    case 'i':
+                        sink += section.getInt(key);
+                        break;
+                    case 'd':
+                        sink += (long) section.getDouble(key);
+                        break;
+                    default:
+                        sink += section.get(key).length();
+                }
+            }
+        }
+        return sink;
+    }
+
+    private static Measure measure(Path corpus, Ini parsed, long bytes, Operation operation) throws IOException {
+        long repetitions = Math.max(1, MEASURED_BYTES / bytes);
+        long thread = Thread.currentThread().getId();
+
+        // warm-up, skipped for corpora large enough to dominate the JIT compilation time
+        if (bytes < GB) {
+            for (long r = 0; r < repetitions; r++) operation.run(corpus, parsed);
+        }
+
+        double bestThroughput = 0;
+        double leastAllocation = Double.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (long r = 0; r < repetitions; r++) operation.run(corpus, parsed);
+            long elapsed = System.nanoTime() - start;
+            allocated = THREADS.getThreadAllocatedBytes(thread) - allocated;
+
+            double processed = (double) bytes * repetitions;
+            bestThroughput = Math.max(bestThroughput, processed / MB / (elapsed / 1e9));
+            leastAllocation = Math.min(leastAllocation, allocated / processed);
+        }
+        return new Measure(bestThroughput, leastAllocation);
+    }
+
+    private static void record(IniSection section, String operation, Measure measure) {
+        section.set(operation + ".throughput", String.format(Locale.ROOT, "%.2f", measure.throughput));
+        section.set(operation + ".allocPerByte", String.format(Locale.ROOT, "%.3f", measure.allocationPerByte));
+    }
+
+    private static void report(String size, String operation, Measure measure, IniSection base,
+                               double tolerance, List<String> regressions) {
+        double baseThroughput = base == null ? Double.NaN : base.getDouble(operation + ".throughput", Double.NaN);
+        double baseAllocation = base == null ? Double.NaN : base.getDouble(operation + ".allocPerByte", Double.NaN);
+
+        System.out.printf(Locale.ROOT, "%-8s %-8s %12.2f %12.2f %12.3f %12.3f%n",
+                size, operation, measure.throughput, baseThroughput, measure.allocationPerByte, baseAllocation);
+
+        if (measure.throughput < baseThroughput * (1 - tolerance)) {
+            regressions.add(String.format(Locale.ROOT, "%s %s throughput: %.2f MB/s, baseline %.2f MB/s",
+                    size, operation, measure.throughput, baseThroughput));
+        }
+        if (measure.allocationPerByte > baseAllocation * (1 + tolerance) + ALLOCATION_SLACK) {
+            regressions.add(String.format(Locale.ROOT, "%s %s allocation: %.3f B/B, baseline %.3f B/B",
+                    size, operation, measure.allocationPerByte, baseAllocation));
+        }
+    }
+
+    /**
+     * Returns the corpus of the given size, generating it on first use.
+     */
+    private static Path corpus(Path directory, long size) throws IOException {
+        Path path = directory.resolve("corpus-" + formatSize(size) + ".ini");
+        if (!Files.exists(path)) {
+            SyntheticIni.Spec spec = SyntheticIni.Spec.DEFAULT.withSectionDepth(2).withKeyDepth(2);
+            SyntheticIni.write(path, spec, size);
+        }
+        return path;
+    }
+
+    static long parseSize(String text) {
+        String upper = text.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (upper.endsWith("GB")) unit = GB;
+        else if (upper.endsWith("MB")) unit = MB;
+        else if (upper.endsWith("KB")) unit = KB;
+        String digits = unit == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(digits.trim()) * unit;
+    }
+
+    static String formatSize(long size) {
+        if (size >= GB && size % GB == 0) return size / GB + "GB";
+        if (size >= MB && size % MB == 0) return size / MB + "MB";
+        if (size >= KB && size % KB == 0) return size / KB + "KB";
+        return String.valueOf(size);
+    }
+}
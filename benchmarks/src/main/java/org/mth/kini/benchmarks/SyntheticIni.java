@@ -0,0 +1,308 @@
+package org.mth.kini.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the synthetic INI documents used by the benchmarks. The content only depends on the
+ * arguments, so results are comparable between runs.
+ *
+ * <p>Flat documents are generated from a {@link Spec}, the shape of the document, and a size: either a
+ * number of sections or a target size in bytes. They are written in a streaming fashion, so that
+ * documents far larger than the heap can be generated.</p>
+ *
+ * <p>Keys encode the type of their value in the first letter of their last segment: {@code s} for
+ * strings, {@code i} for integers and {@code d} for doubles, e.g. {@code grp2.grp0.i14}.</p>
+ *
+ * <pre>
+ * SyntheticIni.Spec spec = SyntheticIni.Spec.DEFAULT.withKeyDepth(3).withQuotedRatio(0.5);
+ * SyntheticIni.write(Path.of("corpus.ini"), spec, 64L &lt;&lt; 20);
+ * </pre>
+ */
+public final class SyntheticIni {
+
+    /**
+     * Predefined document sizes.
+     */
+    public enum Size {
+        /** 10 sections of 10 keys, about 2 KB. */
+        SMALL(10, 10),
+        /** 1 000 sections of 20 keys, about 400 KB. */
+        MEDIUM(1_000, 20),
+        /** 20 000 sections of 50 keys, about 20 MB. */
+        HUGE(20_000, 50);
+
+        final int sections;
+        final int keys;
+
+        Size(int sections, int keys) {
+            this.sections = sections;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * The shape of a generated document. Instances are immutable.
+     */
+    public static final class Spec {
+
+        /**
+         * 50 keys per section, flat keys, values of about 16 characters, 10% quoted values, 5% escapes
+         * and a comment every 20 lines.
+         */
+        public static final Spec DEFAULT = new Spec(42, 50, 1, 1, 16, 0.1, 0.05, 0.05);
+
+        final long seed;
+        final int keysPerSection;
+        final int sectionDepth;
+        final int keyDepth;
+        final int valueLength;
+        final double quotedRatio;
+        final double escapeRatio;
+        final double commentDensity;
+
+        private Spec(long seed, int keysPerSection, int sectionDepth, int keyDepth, int valueLength,
+                     double quotedRatio, double escapeRatio, double commentDensity) {
+            if (keysPerSection < 1 || sectionDepth < 1 || keyDepth < 1 || valueLength < 1)
+                throw new IllegalArgumentException("Counts, depths and lengths must be positive");
+            this.seed = seed;
+            this.keysPerSection = keysPerSection;
+            this.sectionDepth = sectionDepth;
+            this.keyDepth = keyDepth;
+            this.valueLength = valueLength;
+            this.quotedRatio = quotedRatio;
+            this.escapeRatio = escapeRatio;
+            this.commentDensity = commentDensity;
+        }
+
+        /** Seed of the pseudo-random sequence. */
+        public Spec withSeed(long seed) {
+            return new Spec(seed, keysPerSection, sectionDepth, keyDepth, valueLength, quotedRatio, escapeRatio, commentDensity);
+        }
+
+        /** Number of keys of each section. */
+        public Spec withKeysPerSection(int keys) {
+            return new Spec(seed, keys, sectionDepth, keyDepth, valueLength, quotedRatio, escapeRatio, commentDensity);
+        }
+
+        /** Number of dotted segments of section names, e.g. 3 for {@code [grp1.grp0.sec42]}. */
+        public Spec withSectionDepth(int depth) {
+            return new Spec(seed, keysPerSection, depth, keyDepth, valueLength, quotedRatio, escapeRatio, commentDensity);
+        }
+
+        /** Number of dotted segments of keys, e.g. 2 for {@code grp3.i7}. */
+        public Spec withKeyDepth(int depth) {
+            return new Spec(seed, keysPerSection, sectionDepth, depth, valueLength, quotedRatio, escapeRatio, commentDensity);
+        }
+
+        /** Average length of string values. */
+        public Spec withValueLength(int length) {
+            return new Spec(seed, keysPerSection, sectionDepth, keyDepth, length, quotedRatio, escapeRatio, commentDensity);
+        }
+
+        /** Fraction of string values enclosed in quotes. */
+        public Spec withQuotedRatio(double ratio) {
+            return new Spec(seed, keysPerSection, sectionDepth, keyDepth, valueLength, ratio, escapeRatio, commentDensity);
+        }
+
+        /** Fraction of quoted values containing escape sequences. */
+        public Spec withEscapeRatio(double ratio) {
+            return new Spec(seed, keysPerSection, sectionDepth, keyDepth, valueLength, quotedRatio, ratio, commentDensity);
+        }
+
+        /** Fraction of lines followed by a comment line or ending with an inline comment. */
+        public Spec withCommentDensity(double density) {
+            return new Spec(seed, keysPerSection, sectionDepth, keyDepth, valueLength, quotedRatio, escapeRatio, density);
+        }
+
+        @Override
+        public String toString() {
+            return "seed=" + seed + ", keys=" + keysPerSection + ", sectionDepth=" + sectionDepth
+                    + ", keyDepth=" + keyDepth + ", valueLength=" + valueLength + ", quoted=" + quotedRatio
+                    + ", escapes=" + escapeRatio + ", comments=" + commentDensity;
+        }
+    }
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_/.";
+
+    private static final String[] ESCAPES = {"\\t", "\\n", "\\\\", "\\;", "\\#"};
+
+    private static final int GROUPS = 4;
+
+    private SyntheticIni() {
+    }
+
+    /**
+     * Name of the {@code k}-th key of a section of a flat document with {@link Spec#DEFAULT} key depth.
+     * Keys cycle through string, integer and double values.
+     */
+    static String key(int k) {
+        return "sid".charAt(k % 3) + String.valueOf(k);
+    }
+
+    /**
+     * Name of the {@code s}-th section of a flat document with {@link Spec#DEFAULT} section depth.
+     */
+    static String section(int s) {
+        return "sec" + s;
+    }
+
+    /**
+     * A flat document of {@code sections} sections of {@code keys} keys, otherwise shaped as
+     * {@link Spec#DEFAULT}.
+     */
+    static String flat(int sections, int keys) {
+        StringWriter writer = new StringWriter(sections * keys * 32);
+        try {
+            write(writer, Spec.DEFAULT.withKeysPerSection(keys), sections, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes a flat document of about {@code targetBytes} bytes to {@code path} (the last section is
+     * always completed).
+     *
+     * @return The number of bytes written.
+     */
+    public static long write(Path path, Spec spec, long targetBytes) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16)) {
+            return write(writer, spec, Integer.MAX_VALUE, targetBytes);
+        }
+    }
+
+    /**
+     * Writes a flat document, all ASCII, to {@code out}, stopping after {@code sections} sections or
+     * once about {@code targetBytes} characters are written, whichever comes first.
+     *
+     * @return The number of characters written.
+     */
+    public static long write(Writer out, Spec spec, int sections, long targetBytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(spec.seed);
+        StringBuilder line = new StringBuilder(256);
+        long written = 0;
+
+        line.append("; synthetic corpus: ").append(spec).append('\n');
+        line.append("corpus.version = 1\n\n");
+        written += flush(out, line);
+
+        for (int s = 0; s < sections && written < targetBytes; s++) {
+            line.append('[');
+            appendPath(line, s, spec.sectionDepth, "sec");
+            line.append("]\n");
+
+            for (int k = 0; k < spec.keysPerSection; k++) {
+                if (random.nextDouble() < spec.commentDensity / 2)
+                    line.append("# comment ").append(s).append('.').append(k).append('\n');
+
+                appendPath(line, k, spec.keyDepth, String.valueOf("sid".charAt(k % 3)));
+                line.append(" = ");
+                appendValue(line, spec, k, random);
+
+                if (random.nextDouble() < spec.commentDensity / 2)
+                    line.append(" ; inline comment");
+                line.append('\n');
+                written += flush(out, line);
+            }
+            line.append('\n');
+            written += flush(out, line);
+        }
+        return written;
+    }
+
+    private static int flush(Writer out, StringBuilder line) throws IOException {
+        int length = line.length();
+        out.append(line);
+        line.setLength(0);
+        return length;
+    }
+
+    /**
+     * Appends a dotted name of {@code depth} segments, the last one being {@code leaf} followed by
+     * {@code index}, e.g. {@code grp2.grp1.sec9}.
+     */
+    private static void appendPath(StringBuilder b, int index, int depth, String leaf) {
+        int group = index;
+        for (int d = 1; d < depth; d++) {
+            b.append("grp").append(group % GROUPS).append('.');
+            group /= GROUPS;
+        }
+        b.append(leaf).append(index);
+    }
+
+    private static void appendValue(StringBuilder b, Spec spec, int k, SplittableRandom random) {
+        switch (k % 3) {
+            case 1:
+                b.append(random.nextInt(-1_000_000, 1_000_000));
+                return;
+            case 2:
+                b.append(random.nextInt(-100_000, 100_000)).append('.').append(random.nextInt(1_000));
+                return;
+            default:
+        }
+
+        int length = Math.max(1, spec.valueLength / 2 + random.nextInt(spec.valueLength + 1));
+        boolean quoted = random.nextDouble() < spec.quotedRatio;
+        boolean escaped = quoted && random.nextDouble() < spec.escapeRatio;
+
+        if (quoted) b.append('"');
+        for (int i = 0; i < length; i++) {
+            if (escaped && i == length / 2)
+                b.append(ESCAPES[random.nextInt(ESCAPES.length)]);
+            else if (quoted && i % 6 == 5)
+                b.append(' ');
+            else
+                b.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        if (quoted) b.append('"');
+    }
+
+    /**
+     * A document whose sections and keys form dotted trees of the given depth and fan-out,
+     * e.g. {@code [n0.n1.n0]} with keys such as {@code n1.n0.leaf}.
+     */
+    static String hierarchy(int depth, int fanOut) {
+        StringBuilder b = new StringBuilder();
+        appendSections(b, "", depth, depth, fanOut);
+        return b.toString();
+    }
+
+    private static void appendSections(StringBuilder b, String prefix, int remaining, int depth, int fanOut) {
+        for (int i = 0; i < fanOut; i++) {
+            String name = prefix.isEmpty() ? "n" + i : prefix + ".n" + i;
+            if (remaining == 1) {
+                b.append('[').append(name).append("]\n");
+                appendKeys(b, "", depth, fanOut);
+                b.append('\n');
+            } else {
+                appendSections(b, name, remaining - 1, depth, fanOut);
+            }
+        }
+    }
+
+    private static void appendKeys(StringBuilder b, String prefix, int depth, int fanOut) {
+        for (int i = 0; i < fanOut; i++) {
+            String name = prefix.isEmpty() ? "n" + i : prefix + ".n" + i;
+            if (depth == 1)
+                b.append(name).append(".leaf = ").append(i).append('\n');
+            else
+                appendKeys(b, name, depth - 1, fanOut);
+        }
+    }
+
+    static Path write(String content) throws IOException {
+        Path path = Files.createTempFile("kini-bench", ".ini");
+        path.toFile().deleteOnExit();
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+}
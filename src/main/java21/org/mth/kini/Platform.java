@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Operations with a faster implementation on recent JVMs. This is the Java 21 version, packaged in
+ * {@code META-INF/versions/21} of the multi-release jar: it must keep the methods and results of the
+ * Java 11 one in {@code src/main/kotlin}.
+ *
+ * <p>Included files are parsed in parallel on virtual threads, which do not hold a carrier thread
+ * while blocked reading a file. When the JVM is started with {@code --add-modules jdk.incubator.vector},
+ * the searches compare a whole vector of chars per step, falling back to a char at a time for the tail
+ * of the range; otherwise they are the same loops as in the Java 11 version.
+ *
+ * <p>The search methods return the index of the first char of {@code chars[from, to)} matching, or
+ * {@code to} if none does.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+final class Platform {
+
+    private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("kini-parser-", 0).factory();
+
+    /**
+     * Whether the Vector API is available. Its module is read explicitly, since the module descriptor
+     * of this library cannot require an incubator module.
+     */
+    private static final boolean VECTORS = ModuleLayer.boot().findModule("jdk.incubator.vector")
+            .map(module -> {
+                Platform.class.getModule().addReads(module);
+                return true;
+            })
+            .orElse(false) && Vectors.LENGTH >= 8;
+
+    private Platform() {
+    }
+
+    /**
+     * Executor of the files parsed in parallel, when {@link IniLoadOptions#getExecutor()} is not set.
+     */
+    static Executor parallelExecutor() {
+        return task -> VIRTUAL_THREADS.newThread(task).start();
+    }
+
+    /**
+     * Searches for {@code c}.
+     */
+    static int indexOf(char[] chars, int from, int to, char c) {
+        int i = VECTORS ? Vectors.indexOf(chars, from, to, c) : from;
+        while (i < to && chars[i] != c) i++;
+        return i;
+    }
+
+    /**
+     * Searches for {@code c1} or {@code c2}.
+     */
+    static int indexOf(char[] chars, int from, int to, char c1, char c2) {
+        int i = VECTORS ? Vectors.indexOf(chars, from, to, c1, c2) : from;
+        while (i < to && chars[i] != c1 && chars[i] != c2) i++;
+        return i;
+    }
+
+    /**
+     * Searches for the end of a run of unquoted value chars: a line break, a comment marker, a blank or
+     * a high surrogate.
+     */
+    static int valueEnd(char[] chars, int from, int to) {
+        int i = VECTORS ? Vectors.valueEnd(chars, from, to) : from;
+        while (i < to) {
+            char c = chars[i];
+            if (c == '\n' || c == '\r' || c == '#' || c == ';' || c == ' ' || c == '\t' || Character.isHighSurrogate(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Searches for the end of a run of quoted value chars: the closing {@code quote}, a backslash, a line
+     * break or a high surrogate.
+     */
+    static int stringEnd(char[] chars, int from, int to, char quote) {
+        int i = VECTORS ? Vectors.stringEnd(chars, from, to, quote) : from;
+        while (i < to) {
+            char c = chars[i];
+            if (c == quote || c == '\\' || c == '\n' || c == '\r' || Character.isHighSurrogate(c)) break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * The vectorized searches, loaded only if the Vector API is available. Each one returns the index of
+     * the first match in the whole vectors of the range or, if there is none, the start of the remaining
+     * tail, to be searched a char at a time.
+     */
+    private static final class Vectors {
+
+        static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+        static final int LENGTH = SPECIES.length();
+
+        static int indexOf(char[] chars, int from, int to, char c) {
+            int i = from;
+            for (int last = to - LENGTH; i <= last; i += LENGTH) {
+                VectorMask<Short> match = ShortVector.fromCharArray(SPECIES, chars, i).eq((short) c);
+                if (match.anyTrue()) return i + match.firstTrue();
+            }
+            return i;
+        }
+
+        static int indexOf(char[] chars, int from, int to, char c1, char c2) {
+            int i = from;
+            for (int last = to - LENGTH; i <= last; i += LENGTH) {
+                ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+                VectorMask<Short> match = v.eq((short) c1).or(v.eq((short) c2));
+                if (match.anyTrue()) return i + match.firstTrue();
+            }
+            return i;
+        }
+
+        static int valueEnd(char[] chars, int from, int to) {
+            int i = from;
+            for (int last = to - LENGTH; i <= last; i += LENGTH) {
+                ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+                VectorMask<Short> match = v.eq((short) '\n').or(v.eq((short) '\r'))
+                        .or(v.eq((short) '#')).or(v.eq((short) ';'))
+                        .or(v.eq((short) ' ')).or(v.eq((short) '\t'))
+                        .or(highSurrogates(v));
+                if (match.anyTrue()) return i + match.firstTrue();
+            }
+            return i;
+        }
+
+        static int stringEnd(char[] chars, int from, int to, char quote) {
+            int i = from;
+            for (int last = to - LENGTH; i <= last; i += LENGTH) {
+                ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+                VectorMask<Short> match = v.eq((short) quote).or(v.eq((short) '\\'))
+                        .or(v.eq((short) '\n')).or(v.eq((short) '\r'))
+                        .or(highSurrogates(v));
+                if (match.anyTrue()) return i + match.firstTrue();
+            }
+            return i;
+        }
+
+        /**
+         * The lanes holding a high surrogate. As signed shorts, U+D800 to U+DBFF are still a contiguous
+         * range.
+         */
+        private static VectorMask<Short> highSurrogates(ShortVector v) {
+            return v.compare(VectorOperators.GE, (short) Character.MIN_HIGH_SURROGATE)
+                    .and(v.compare(VectorOperators.LE, (short) Character.MAX_HIGH_SURROGATE));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 module org.mth.kini {
     requires kotlin.stdlib;
+    requires jdk.jfr;
 
     exports org.mth.kini;
+
+    uses org.mth.kini.IniMetrics;
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+/**
+ * An insertion-ordered map whose [String] keys are compared ignoring the case of ASCII letters, without
+ * ever creating lowercase copies: the hash and the comparison fold each character on the fly.
+ *
+ * A key keeps the spelling it was first inserted with: putting `PORT` after `port` replaces the value
+ * but [keys] still report `port`. Characters outside the ASCII range are compared exactly.
+ *
+ * Entries are stored in insertion-ordered parallel arrays, indexed by an open-addressing table of
+ * entry positions. Removed entries leave a hole, compacted when the table is rebuilt.
+ *
+ * Like [LinkedHashMap], this class is not thread-safe for concurrent writes.
+ */
+internal class CaseInsensitiveMap<V>(expectedSize: Int = 0) : AbstractMutableMap<String, V>() {
+
+    private var keyArray = arrayOfNulls<String>(capacityFor(expectedSize))
+
+    private var valueArray = arrayOfNulls<Any>(keyArray.size)
+
+    private var hashArray = IntArray(keyArray.size)
+
+    /**
+     * Open-addressing table of entry positions plus one, `0` marking a free slot.
+     */
+    private var table = IntArray(keyArray.size * 2)
+
+    /**
+     * Number of used entry positions, removed ones included.
+     */
+    private var used = 0
+
+    private var live = 0
+
+    override val size: Int get() = live
+
+    /**
+     * Returns the spelling under which [key] is stored, or `null` if it is not present.
+     */
+    fun storedKey(key: String): String? {
+        val index = indexOf(key)
+        return if (index < 0) null else keyArray[index]
+    }
+
+    override fun containsKey(key: String): Boolean = indexOf(key) >= 0
+
+    @Suppress("UNCHECKED_CAST")
+    override fun get(key: String): V? {
+        val index = indexOf(key)
+        return if (index < 0) null else valueArray[index] as V
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun put(key: String, value: V): V? {
+        val hash = hash(key)
+        val index = indexOf(key, hash)
+        if (index >= 0) {
+            val previous = valueArray[index] as V
+            valueArray[index] = value
+            return previous
+        }
+
+        if (used == keyArray.size) grow()
+        val position = used++
+        keyArray[position] = key
+        valueArray[position] = value
+        hashArray[position] = hash
+        insert(position, hash)
+        live++
+        return null
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun remove(key: String): V? {
+        val index = indexOf(key)
+        if (index < 0) return null
+        val previous = valueArray[index] as V
+        removeAt(index)
+        return previous
+    }
+
+    override fun clear() {
+        keyArray.fill(null, 0, used)
+        valueArray.fill(null, 0, used)
+        table.fill(0)
+        used = 0
+        live = 0
+    }
+
+    override val entries: MutableSet<MutableMap.MutableEntry<String, V>> = object : AbstractMutableSet<MutableMap.MutableEntry<String, V>>() {
+        override val size: Int get() = live
+
+        override fun add(element: MutableMap.MutableEntry<String, V>): Boolean {
+            val had = containsKey(element.key)
+            put(element.key, element.value)
+            return !had
+        }
+
+        override fun iterator(): MutableIterator<MutableMap.MutableEntry<String, V>> =
+            object : MutableIterator<MutableMap.MutableEntry<String, V>> {
+                private var next = advance(0)
+                private var current = -1
+
+                private fun advance(from: Int): Int {
+                    var i = from
+                    while (i < used && keyArray[i] == null) i++
+                    return i
+                }
+
+                override fun hasNext(): Boolean = next < used
+
+                override fun next(): MutableMap.MutableEntry<String, V> {
+                    if (next >= used) throw NoSuchElementException()
+                    current = next
+                    next = advance(next + 1)
+                    return Entry(current)
+                }
+
+                override fun remove() {
+                    check(current >= 0 && keyArray[current] != null) { "No current entry" }
+                    removeAt(current)
+                }
+            }
+    }
+
+    private inner class Entry(private val index: Int) : MutableMap.MutableEntry<String, V> {
+        override val key: String = keyArray[index]!!
+
+        @Suppress("UNCHECKED_CAST")
+        override val value: V get() = valueArray[index] as V
+
+        @Suppress("UNCHECKED_CAST")
+        override fun setValue(newValue: V): V {
+            val previous = valueArray[index] as V
+            valueArray[index] = newValue
+            return previous
+        }
+
+        override fun equals(other: Any?): Boolean =
+            other is Map.Entry<*, *> && other.key == key && other.value == value
+
+        override fun hashCode(): Int = key.hashCode() xor (value?.hashCode() ?: 0)
+
+        override fun toString(): String = "$key=$value"
+    }
+
+    private fun indexOf(key: String, hash: Int = hash(key)): Int {
+        val mask = table.size - 1
+        var slot = hash and mask
+        while (true) {
+            val position = table[slot] - 1
+            if (position < 0) return -1
+            val candidate = keyArray[position]
+            if (candidate != null && hashArray[position] == hash && equalsIgnoreCase(candidate, key)) return position
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun insert(position: Int, hash: Int) {
+        val mask = table.size - 1
+        var slot = hash and mask
+        while (table[slot] != 0) slot = (slot + 1) and mask
+        table[slot] = position + 1
+    }
+
+    /**
+     * Removes the entry at [index], leaving a hole: its table slot keeps pointing at it so that probe
+     * sequences are not broken, and is reclaimed by the next rebuild.
+     */
+    private fun removeAt(index: Int) {
+        keyArray[index] = null
+        valueArray[index] = null
+        live--
+    }
+
+    /**
+     * Makes room for a new entry, compacting the holes left by removals and doubling the capacity
+     * if more than half of the entries are live.
+     */
+    private fun grow() {
+        val capacity = if (live * 2 > keyArray.size) keyArray.size * 2 else keyArray.size
+        val keys = arrayOfNulls<String>(capacity)
+        val values = arrayOfNulls<Any>(capacity)
+        val hashes = IntArray(capacity)
+
+        var j = 0
+        for (i in 0 until used) {
+            if (keyArray[i] == null) continue
+            keys[j] = keyArray[i]
+            values[j] = valueArray[i]
+            hashes[j] = hashArray[i]
+            j++
+        }
+
+        keyArray = keys
+        valueArray = values
+        hashArray = hashes
+        used = j
+        table = IntArray(capacity * 2)
+        for (i in 0 until used) insert(i, hashArray[i])
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 8
+
+        /**
+         * The power of two holding [expectedSize] entries without growing.
+         */
+        private fun capacityFor(expectedSize: Int): Int =
+            if (expectedSize <= INITIAL_CAPACITY) INITIAL_CAPACITY else Integer.highestOneBit(expectedSize - 1) shl 1
+
+        private fun fold(c: Char): Int = if (c in 'A'..'Z') c.code + 32 else c.code
+
+        /**
+         * The hash of [s] with ASCII letters folded to lowercase.
+         */
+        fun hash(s: String): Int {
+            var h = 0
+            for (i in s.indices) h = 31 * h + fold(s[i])
+            return h xor (h ushr 16)
+        }
+
+        /**
+         * Compares two strings ignoring the case of ASCII letters only.
+         */
+        fun equalsIgnoreCase(a: String, b: String): Boolean {
+            if (a.length != b.length) return false
+            for (i in a.indices) {
+                val x = a[i]
+                val y = b[i]
+                if (x != y && fold(x) != fold(y)) return false
+            }
+            return true
+        }
+
+        /**
+         * Orders strings ignoring the case of ASCII letters, consistently with [equalsIgnoreCase].
+         */
+        val ORDER: Comparator<String> = Comparator { a, b ->
+            val n = minOf(a.length, b.length)
+            for (i in 0 until n) {
+                val d = fold(a[i]) - fold(b[i])
+                if (d != 0) return@Comparator d
+            }
+            a.length - b.length
+        }
+
+        /**
+         * Whether [s] starts with [prefix], ignoring the case of ASCII letters.
+         */
+        fun startsWithIgnoreCase(s: String, prefix: String): Boolean {
+            if (s.length < prefix.length) return false
+            for (i in prefix.indices) {
+                if (s[i] != prefix[i] && fold(s[i]) != fold(prefix[i])) return false
+            }
+            return true
+        }
+    }
+}
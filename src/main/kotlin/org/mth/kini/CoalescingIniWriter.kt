@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.Closeable
+import java.io.IOException
+import java.nio.charset.Charset
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * Persists an [Ini] instance to a file, merging rapid successive store requests into a single write.
+ *
+ * Every call to [requestStore] marks the configuration as dirty; the first request of a burst schedules
+ * a write after [interval], and every further request received in the meantime is absorbed by that
+ * same write. The file is therefore written (and synced, when [atomic] is enabled) at most once per
+ * interval, no matter how often the configuration changes.
+ *
+ * The serialization runs on the scheduler thread while holding the monitor of [ini]: threads mutating
+ * the configuration concurrently should synchronize on the same instance.
+ *
+ * Example:
+ * ```
+ * CoalescingIniWriter(ini, Path.of("runtime.ini"), Duration.ofSeconds(1)).use { writer ->
+ *     ini["threshold"] = "0.75"
+ *     writer.requestStore()
+ * }
+ * ```
+ *
+ * @param ini The [Ini] instance to persist.
+ * @param path The target [Path] of the output file.
+ * @param interval The minimum delay between two consecutive writes.
+ * @param charset The character encoding to use. Defaults to UTF-8.
+ * @param atomic Whether each write replaces the file atomically (see [Ini.store]). Defaults to `true`.
+ * @param scheduler The executor running the writes. If `null`, a private single-thread daemon
+ * scheduler is created and shut down by [close].
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class CoalescingIniWriter @JvmOverloads constructor(
+    val ini: Ini,
+    val path: Path,
+    val interval: Duration,
+    private val charset: Charset = Charsets.UTF_8,
+    private val atomic: Boolean = true,
+    scheduler: ScheduledExecutorService? = null
+) : Closeable {
+
+    private val ownsScheduler = scheduler == null
+
+    private val scheduler: ScheduledExecutorService = scheduler ?: Executors.newSingleThreadScheduledExecutor { r ->
+        Thread(r, "kini-coalescing-writer").apply { isDaemon = true }
+    }
+
+    private val lock = Any()
+
+    private val writeLock = Any()
+
+    private var dirty = false
+
+    private var pending: ScheduledFuture<*>? = null
+
+    private var failure: IOException? = null
+
+    private var closed = false
+
+    /**
+     * The number of writes actually performed on the file.
+     */
+    @Volatile
+    var writeCount = 0L
+        private set
+
+    init {
+        require(!interval.isNegative) { "The coalescing interval cannot be negative" }
+    }
+
+    /**
+     * Requests the configuration to be stored. The write happens asynchronously, within [interval],
+     * together with every other request received in the meantime. A failed write is retried after
+     * [interval], until it succeeds or the writer is closed.
+     *
+     * @throws IOException If a previous asynchronous write failed; the request is scheduled anyway.
+     * @throws IllegalStateException If this writer has been closed.
+     */
+    fun requestStore() {
+        synchronized(lock) {
+            check(!closed) { "The writer is closed" }
+            dirty = true
+            schedule()
+            rethrowFailure()
+        }
+    }
+
+    /**
+     * Schedules a write, unless one is pending already. Must hold [lock].
+     */
+    private fun schedule() {
+        if (pending == null && !closed) {
+            pending = scheduler.schedule({ write() }, interval.toNanos(), TimeUnit.NANOSECONDS)
+        }
+    }
+
+    /**
+     * Immediately writes any pending change on the calling thread.
+     *
+     * @throws IOException If the write failed, or if a previous asynchronous write failed and was not
+     * successfully retried since.
+     */
+    fun flush() {
+        synchronized(lock) {
+            pending?.cancel(false)
+            pending = null
+        }
+        write()
+        synchronized(lock) { rethrowFailure() }
+    }
+
+    /**
+     * Flushes any pending change and releases the scheduler, if owned by this writer.
+     *
+     * @throws IOException If the final write failed.
+     */
+    override fun close() {
+        synchronized(lock) {
+            if (closed) return
+            closed = true
+        }
+
+        try {
+            flush()
+        } finally {
+            if (ownsScheduler) scheduler.shutdown()
+        }
+    }
+
+    private fun write(): Unit = synchronized(writeLock) {
+        synchronized(lock) {
+            pending = null
+            if (!dirty) return
+            dirty = false
+        }
+
+        var stored = false
+        try {
+            synchronized(ini) {
+                Ini.store(ini, path, charset, atomic)
+            }
+            stored = true
+            writeCount++
+            synchronized(lock) { failure = null }
+        } catch (e: IOException) {
+            synchronized(lock) {
+                failure = e
+                schedule()
+            }
+        } finally {
+            // any failure, including one serializing the INI, keeps the change pending
+            if (!stored) synchronized(lock) { dirty = true }
+        }
+    }
+
+    private fun rethrowFailure() {
+        val e = failure ?: return
+        failure = null
+        throw e
+    }
+}
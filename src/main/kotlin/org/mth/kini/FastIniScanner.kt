@@ -0,0 +1,489 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.Reader
+import java.nio.charset.MalformedInputException
+
+/**
+ * Hand-written equivalent of the JFlex [IniScanner], selected by [IniParserEngine.FAST].
+ *
+ * The whole input is read first; each lexical state of the generated DFA then becomes a search for
+ * the characters that end its token (through [Platform], vectorized on recent JVMs), and plain runs
+ * of value characters are appended at once instead of one DFA step at a time. The quirks of the generated scanner are reproduced on purpose,
+ * so that both engines build the same [ini] and [includes], or fail with the same exception:
+ * - leading blanks start a property name, which extends over lines until a `=` or `:` delimiter;
+ * - quotes open a string only after a blank; `\'` does not close a single-quoted string, while `\"`
+ *   closes a double-quoted one;
+ * - of a supplementary character, values keep only the low surrogate;
+ * - a text ending inside a section header or a property name raises a [MalformedInputException]
+ *   carrying the number of lines of the input.
+ *
+ * The only known difference is on input ending with an unpaired high surrogate, which the generated
+ * scanner takes for an early end of input, dropping the last chunk it read: such text cannot come out
+ * of a charset decoder, which replaces malformed input.
+ */
+internal class FastIniScanner(private val reader: Reader) {
+
+    /**
+     * The properties of each section, as `[name, value]` pairs in file order, unless a [sink] is set.
+     */
+    val ini = HashMap<String, MutableList<Array<String?>>>()
+
+    /**
+     * Paths of the included files, in declaration order.
+     */
+    val includes = ArrayList<String>()
+
+    /**
+     * Number of chars read from the input.
+     */
+    var charsRead = 0L
+        private set
+
+    /**
+     * If set, properties are passed to this sink instead of being collected in [ini].
+     */
+    var sink: IniScanner.PropertySink? = null
+
+    /**
+     * Whether the escape sequences of quoted values are decoded, see [IniScanner.decodeEscapes].
+     */
+    var decodeEscapes = false
+
+    /**
+     * If set, the scan only locates the section bodies for it: properties are neither built nor
+     * collected, except for the includes.
+     */
+    var index: SectionIndex? = null
+
+    /**
+     * The input read by [scan], up to [charsRead].
+     */
+    val text: CharArray get() = buf
+
+    private var buf = CharArray(0)
+
+    private var end = 0
+
+    private var currentSection = IniScanner.DEFAULT_SECTION
+
+    private var property = arrayOfNulls<String>(2)
+
+    private var propertyValue: StringBuilder? = null
+
+    private var quotedValue = false
+
+    /**
+     * The 1-based line of the delimiter of the current property, counted only for a [sink].
+     */
+    private var propertyLine = 0
+
+    /**
+     * Position up to which [linesCounted] line terminators have been counted, for [propertyLine].
+     */
+    private var lineCursor = 0
+
+    private var linesCounted = 0
+
+    private var pendingDirective: String? = null
+
+    /**
+     * The value buffer of the properties skipped while indexing.
+     */
+    private val skippedValue = StringBuilder()
+
+    fun scan() {
+        readAll()
+        var p = 0
+        var state = INITIAL
+
+        while (true) {
+            when (state) {
+                INITIAL -> {
+                    if (p == end) return
+                    val c = buf[p]
+                    when {
+                        c == '\n' || c == '\r' -> p++
+                        c == '#' || c == ';' -> {
+                            p++
+                            state = COMMENT
+                        }
+                        c == '[' -> {
+                            p++
+                            state = SECTION
+                        }
+                        c == ' ' || c == '\t' -> {
+                            val q = skipBlanks(p + 1)
+                            if (q < end && (buf[q] == '#' || buf[q] == ';')) {
+                                p = q + 1
+                                state = COMMENT
+                            } else {
+                                state = NAME
+                            }
+                        }
+                        else -> {
+                            // the generated scanner pushes back one char of the code point
+                            if (isPair(p)) p++
+                            state = NAME
+                        }
+                    }
+                }
+
+                COMMENT -> {
+                    p = lineEnd(p)
+                    if (p == end) return
+                    p = skipLineBreak(p)
+                    state = INITIAL
+                }
+
+                SECTION -> {
+                    val q = Platform.indexOf(buf, p, end, ']')
+                    if (q == end) throw MalformedInputException(lineCount())
+                    if (q > p) {
+                        currentSection = javaTrim(String(buf, p, q - p))
+                        index?.section(currentSection, p - 1, q + 1)
+                    }
+                    p = q + 1
+                    state = INITIAL
+                }
+
+                NAME -> {
+                    val q = Platform.indexOf(buf, p, end, '=', ':')
+                    if (q > p) {
+                        val next = directive(p, q)
+                        if (next >= 0) {
+                            p = next
+                            state = INITIAL
+                            continue
+                        }
+                        if (next == NOT_DIRECTIVE) {
+                            if (index != null && !isInclude(p, q)) skipProperty()
+                            else newProperty(String(buf, p, q - p))
+                        }
+                    }
+                    if (q == end) {
+                        val directive = pendingDirective ?: throw MalformedInputException(lineCount())
+                        includes.add(javaTrim(directive.substring(IniScanner.INCLUDE_DIRECTIVE.length)))
+                        pendingDirective = null
+                        return
+                    }
+                    if (pendingDirective != null) {
+                        newProperty(IniScanner.INCLUDE_DIRECTIVE)
+                        pendingDirective = null
+                    }
+                    if (sink != null) {
+                        linesCounted += countLines(lineCursor, q)
+                        lineCursor = q
+                        propertyLine = linesCounted + 1
+                    }
+                    p = q + 1
+                    state = VALUE
+                }
+
+                VALUE -> {
+                    val value = propertyValue
+                    var q = Platform.valueEnd(buf, p, end)
+                    if (q > p) {
+                        value!!.append(buf, p, q - p)
+                        p = q
+                    }
+                    if (p == end) {
+                        addProperty()
+                        return
+                    }
+
+                    when (val c = buf[p]) {
+                        '\n', '\r' -> {
+                            p = skipLineBreak(p)
+                            addProperty()
+                            state = INITIAL
+                        }
+                        '#', ';' -> {
+                            p++
+                            addProperty()
+                            state = COMMENT
+                        }
+                        ' ', '\t' -> {
+                            q = skipBlanks(p + 1)
+                            if (q < end && buf[q] == '"') {
+                                p = q + 1
+                                state = STRING
+                            } else if (q < end && buf[q] == '\'') {
+                                p = q + 1
+                                state = STRING_SINGLE
+                            } else {
+                                value!!.append(buf, p, q - p)
+                                p = q
+                            }
+                        }
+                        else -> p = appendCodePoint(value, p, c)
+                    }
+                }
+
+                else -> {
+                    val quote = if (state == STRING) '"' else '\''
+                    val value = propertyValue
+                    val q = Platform.stringEnd(buf, p, end, quote)
+                    if (q > p) {
+                        value!!.append(buf, p, q - p)
+                        p = q
+                    }
+                    if (p == end) {
+                        malformed(quote)
+                        addProperty()
+                        return
+                    }
+
+                    when (val c = buf[p]) {
+                        quote -> {
+                            p++
+                            quotedValue = true
+                            addProperty()
+                            state = INITIAL
+                        }
+                        '\n', '\r' -> {
+                            p = skipLineBreak(p)
+                            malformed(quote)
+                            addProperty()
+                            state = INITIAL
+                        }
+                        '\\' -> {
+                            // in single quotes, a backslash and the char after it are kept as they are
+                            if (state == STRING_SINGLE && p + 1 < end && buf[p + 1] != '\n' && buf[p + 1] != '\r' &&
+                                !buf[p + 1].isHighSurrogate()
+                            ) {
+                                value!!.append(buf, p, 2)
+                                p += 2
+                            } else {
+                                value!!.append(c)
+                                p++
+                            }
+                        }
+                        else -> p = appendCodePoint(value, p, c)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun readAll() {
+        var chars = CharArray(8192)
+        var length = 0
+        while (true) {
+            if (length == chars.size) chars = chars.copyOf(chars.size * 2)
+            val n = reader.read(chars, length, chars.size - length)
+            if (n < 0) break
+            length += n
+        }
+        buf = chars
+        end = length
+        charsRead = length.toLong()
+    }
+
+    private fun isPair(p: Int): Boolean = buf[p].isHighSurrogate() && p + 1 < end && buf[p + 1].isLowSurrogate()
+
+    /**
+     * Appends the code point at [p], of which the generated scanner keeps only the last char, and returns
+     * the position after it.
+     */
+    private fun appendCodePoint(value: StringBuilder?, p: Int, c: Char): Int {
+        if (isPair(p)) {
+            value!!.append(buf[p + 1])
+            return p + 2
+        }
+        value!!.append(c)
+        return p + 1
+    }
+
+    private fun skipBlanks(from: Int): Int {
+        var q = from
+        while (q < end && (buf[q] == ' ' || buf[q] == '\t')) q++
+        return q
+    }
+
+    private fun lineEnd(from: Int): Int = Platform.indexOf(buf, from, end, '\n', '\r')
+
+    /**
+     * Skips the line break at [p], a CR LF pair counting as one.
+     */
+    private fun skipLineBreak(p: Int): Int =
+        if (buf[p] == '\r' && p + 1 < end && buf[p + 1] == '\n') p + 2 else p + 1
+
+    /**
+     * Mirrors [IniScanner.directive] on the property name `buf[start, end)`: returns the position to
+     * resume scanning from if it begins with a complete `!include` line, [NOT_DIRECTIVE] if it is not
+     * a directive, and [PENDING_DIRECTIVE] if the directive is not terminated by a line break yet (it is
+     * then left in [pendingDirective]).
+     */
+    private fun directive(start: Int, end: Int): Int {
+        var s = start
+        while (s < end && Character.isWhitespace(buf[s])) s++
+
+        if (end - s < IniScanner.INCLUDE_DIRECTIVE.length || buf[s] != '!') return NOT_DIRECTIVE
+
+        val lineEnd = Platform.indexOf(buf, s, end, '\n', '\r')
+
+        val line = String(buf, s, lineEnd - s)
+        val length = IniScanner.INCLUDE_DIRECTIVE.length
+        if (!line.startsWith(IniScanner.INCLUDE_DIRECTIVE) || (line.length > length && !Character.isWhitespace(line[length]))) {
+            return NOT_DIRECTIVE
+        }
+
+        if (lineEnd == end) {
+            pendingDirective = javaTrim(line)
+            return PENDING_DIRECTIVE
+        }
+        includes.add(javaTrim(line.substring(length)))
+        return lineEnd
+    }
+
+    private fun newProperty(name: String) {
+        property = arrayOf<String?>(javaTrim(name), "")
+        propertyValue = StringBuilder()
+    }
+
+    /**
+     * Whether the property name `buf[start, end)` is an include key, which is built even while indexing.
+     */
+    private fun isInclude(start: Int, end: Int): Boolean {
+        var s = start
+        var e = end
+        while (s < e && buf[s] <= ' ') s++
+        while (e > s && buf[e - 1] <= ' ') e--
+        return matches(s, e, IniScanner.INCLUDE_KEY) || matches(s, e, IniScanner.INCLUDE_DIRECTIVE)
+    }
+
+    private fun matches(start: Int, end: Int, s: String): Boolean {
+        if (end - start != s.length) return false
+        for (i in s.indices) if (buf[start + i] != s[i]) return false
+        return true
+    }
+
+    /**
+     * Starts a property that is only counted by the [index], its value going to a reused buffer.
+     */
+    private fun skipProperty() {
+        property = SKIPPED
+        propertyValue = skippedValue.apply { setLength(0) }
+    }
+
+    private fun addProperty() {
+        if (property === SKIPPED) {
+            index!!.property()
+            quotedValue = false
+            return
+        }
+        val text = propertyValue!!.toString()
+        val value = when {
+            !quotedValue -> javaTrim(text)
+            decodeEscapes -> IniScanner.decodeEscapes(stripLeading(text))
+            else -> stripLeading(text)
+        }
+
+        val property = property
+        property[1] = value
+        val name = property[0]
+        if (IniScanner.INCLUDE_KEY == name || IniScanner.INCLUDE_DIRECTIVE == name) {
+            includes.add(value)
+        } else {
+            val sink = sink
+            if (sink != null) sink.property(currentSection, name, value, propertyLine)
+            else ini.getOrPut(currentSection) { ArrayList() }.add(property)
+        }
+        quotedValue = false
+    }
+
+    private fun malformed(c: Char) {
+        val value = propertyValue!!
+        if (value[0] != c) value.insert(0, c)
+    }
+
+    /**
+     * The number of line terminators of the input, as counted by the generated scanner.
+     */
+    private fun lineCount(): Int = countLines(0, end)
+
+    /**
+     * The number of line terminators in `buf[from, to)`, a CR LF pair counting as one.
+     */
+    private fun countLines(from: Int, to: Int): Int {
+        var lines = 0
+        var i = from
+        while (i < to) {
+            when (buf[i]) {
+                '\r' -> {
+                    lines++
+                    if (i + 1 < to && buf[i + 1] == '\n') i++
+                }
+                '\n', '\u000B', '\u000C', '\u0085', '\u2028', '\u2029' -> lines++
+            }
+            i++
+        }
+        return lines
+    }
+
+    private companion object {
+        const val INITIAL = 0
+        const val COMMENT = 1
+        const val SECTION = 2
+        const val NAME = 3
+        const val VALUE = 4
+        const val STRING = 5
+        const val STRING_SINGLE = 6
+
+        const val NOT_DIRECTIVE = -1
+        const val PENDING_DIRECTIVE = -2
+
+        /**
+         * The name and value of the properties skipped while indexing.
+         */
+        val SKIPPED = arrayOfNulls<String>(2)
+
+        /**
+         * [String.trim] of Java, which removes the chars up to U+0020 (unlike Kotlin's `trim`).
+         */
+        fun javaTrim(s: String): String {
+            var start = 0
+            var end = s.length
+            while (start < end && s[start] <= ' ') start++
+            while (end > start && s[end - 1] <= ' ') end--
+            return if (start == 0 && end == s.length) s else s.substring(start, end)
+        }
+
+        /**
+         * [String.stripLeading] of Java 11.
+         */
+        fun stripLeading(s: String): String {
+            var start = 0
+            while (start < s.length) {
+                val codePoint = s.codePointAt(start)
+                if (!Character.isWhitespace(codePoint)) break
+                start += Character.charCount(codePoint)
+            }
+            return s.substring(start)
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Reference [IniMetrics] keeping every measure in an in-memory [Histogram], e.g. to be periodically
+ * exported to a dashboard.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class HistogramIniMetrics : IniMetrics {
+
+    /**
+     * A lock-free histogram of non-negative values, with logarithmic buckets: each power of two is
+     * split in [SUB_BUCKETS] linear buckets, so that percentiles are accurate within 1/[SUB_BUCKETS].
+     */
+    class Histogram {
+        private val buckets = AtomicLongArray(64 * SUB_BUCKETS)
+        private val total = AtomicLong()
+        private val sum = AtomicLong()
+        private val maximum = AtomicLong(Long.MIN_VALUE)
+        private val minimum = AtomicLong(Long.MAX_VALUE)
+
+        /**
+         * The number of recorded values.
+         */
+        val count: Long get() = total.get()
+
+        /**
+         * The largest recorded value, or `0` if none.
+         */
+        val max: Long get() = if (count == 0L) 0 else maximum.get()
+
+        /**
+         * The smallest recorded value, or `0` if none.
+         */
+        val min: Long get() = if (count == 0L) 0 else minimum.get()
+
+        /**
+         * The arithmetic mean of the recorded values, or `0.0` if none.
+         */
+        val mean: Double get() = if (count == 0L) 0.0 else sum.get().toDouble() / count
+
+        /**
+         * Records a value; negative values are recorded as `0`.
+         */
+        fun record(value: Long) {
+            val v = value.coerceAtLeast(0)
+            buckets.incrementAndGet(bucketOf(v))
+            total.incrementAndGet()
+            sum.addAndGet(v)
+            maximum.accumulateAndGet(v, ::maxOf)
+            minimum.accumulateAndGet(v, ::minOf)
+        }
+
+        /**
+         * Returns an upper bound of the value below which the fraction [p] of the recorded values falls,
+         * e.g. `percentile(0.99)`.
+         */
+        fun percentile(p: Double): Long {
+            require(p in 0.0..1.0) { "p must be between 0 and 1" }
+            val n = count
+            if (n == 0L) return 0
+
+            val rank = kotlin.math.ceil(p * n).toLong().coerceAtLeast(1)
+            var seen = 0L
+            for (i in 0 until buckets.length()) {
+                seen += buckets.get(i)
+                if (seen >= rank) return upperBoundOf(i).coerceAtMost(max)
+            }
+            return max
+        }
+
+        /**
+         * Clears all the recorded values.
+         */
+        fun reset() {
+            for (i in 0 until buckets.length()) buckets.set(i, 0)
+            total.set(0)
+            sum.set(0)
+            maximum.set(Long.MIN_VALUE)
+            minimum.set(Long.MAX_VALUE)
+        }
+
+        override fun toString(): String =
+            "count=$count, min=$min, mean=${"%.1f".format(mean)}, p50=${percentile(0.5)}, p99=${percentile(0.99)}, max=$max"
+
+        private companion object {
+            const val SUB_BUCKET_BITS = 3
+            const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+
+            fun bucketOf(value: Long): Int {
+                if (value < SUB_BUCKETS) return value.toInt()
+                val magnitude = 63 - java.lang.Long.numberOfLeadingZeros(value)
+                val sub = (value ushr (magnitude - SUB_BUCKET_BITS)).toInt() and (SUB_BUCKETS - 1)
+                return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub
+            }
+
+            fun upperBoundOf(bucket: Int): Long {
+                if (bucket < SUB_BUCKETS) return bucket.toLong()
+                val magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1
+                val sub = (bucket % SUB_BUCKETS).toLong()
+                val lower = (1L shl magnitude) or (sub shl (magnitude - SUB_BUCKET_BITS))
+                return lower + (1L shl (magnitude - SUB_BUCKET_BITS)) - 1
+            }
+        }
+    }
+
+    /** Parsing times, in nanoseconds. */
+    val loadNanos = Histogram()
+
+    /** Sizes of the parsed files, in bytes (streams excluded). */
+    val loadBytes = Histogram()
+
+    /** Numbers of sections of the parsed files. */
+    val loadSections = Histogram()
+
+    /** Numbers of properties of the parsed files. */
+    val loadProperties = Histogram()
+
+    /** Store times, in nanoseconds. */
+    val storeNanos = Histogram()
+
+    /** Sizes of the stored files, in bytes. */
+    val storeBytes = Histogram()
+
+    /** Merge times, in nanoseconds. */
+    val mergeNanos = Histogram()
+
+    /** Times of the sampled lookups, in nanoseconds. */
+    val lookupNanos = Histogram()
+
+    /** Number of sampled lookups of missing properties. */
+    val lookupMisses = AtomicLong()
+
+    override fun loaded(path: Path?, bytes: Long, chars: Long, sections: Int, properties: Int, nanos: Long) {
+        loadNanos.record(nanos)
+        if (bytes >= 0) loadBytes.record(bytes)
+        loadSections.record(sections.toLong())
+        loadProperties.record(properties.toLong())
+    }
+
+    override fun stored(path: Path, bytes: Long, nanos: Long) {
+        storeNanos.record(nanos)
+        storeBytes.record(bytes)
+    }
+
+    override fun merged(sections: Int, properties: Int, nanos: Long) {
+        mergeNanos.record(nanos)
+    }
+
+    override fun lookedUp(section: String, name: String, found: Boolean, nanos: Long) {
+        lookupNanos.record(nanos)
+        if (!found) lookupMisses.incrementAndGet()
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * Loads an INI file together with the files it includes, recursively.
+ *
+ * The include graph is explored breadth first: the files of each level are parsed in parallel and every
+ * file is parsed once, even when included several times. Once the graph is complete it is checked for
+ * cycles, and the files are merged depth first in declaration order, each file overriding the files it
+ * includes.
+ */
+internal class IncludeResolver(private val options: IniLoadOptions, private val validation: SchemaValidation? = null) {
+
+    private class Node(val ini: Ini, val includes: List<Path>)
+
+    fun load(path: Path): Ini {
+        val root = path.toRealPath()
+        val nodes = HashMap<Path, Node>()
+
+        var level = listOf(root)
+        while (level.isNotEmpty()) {
+            val parsed = if (level.size == 1) {
+                listOf(node(level[0]))
+            } else {
+                val executor = options.executor ?: Platform.parallelExecutor()
+                level.map { file -> CompletableFuture.supplyAsync({ node(file) }, executor) }.map { join(it) }
+            }
+
+            level.forEachIndexed { i, file -> nodes[file] = parsed[i] }
+            level = parsed.flatMap { it.includes }.distinct().filter { it !in nodes }
+        }
+
+        val rootNode = nodes.getValue(root)
+        if (rootNode.includes.isEmpty()) return rootNode.ini
+
+        checkCycles(root, nodes, ArrayList(), HashSet())
+
+        val result = Ini.empty(options)
+        merge(root, nodes, result, HashSet())
+        result.includeDirectives += rootNode.ini.includes
+        return result
+    }
+
+    private fun node(file: Path): Node {
+        val ini = options.cache?.takeIf { options.cacheable }?.loadFile(file) ?: Ini.parse(file, options, validation)
+        val base = file.parent
+        return Node(ini, ini.includes.flatMap { expand(base, it) })
+    }
+
+    private fun merge(file: Path, nodes: Map<Path, Node>, result: Ini, merged: MutableSet<Path>) {
+        if (!merged.add(file)) return
+        val node = nodes.getValue(file)
+        node.includes.forEach { merge(it, nodes, result, merged) }
+        result.merge(node.ini)
+    }
+
+    private fun checkCycles(file: Path, nodes: Map<Path, Node>, path: MutableList<Path>, done: MutableSet<Path>) {
+        if (file in done) return
+
+        val index = path.indexOf(file)
+        if (index >= 0) {
+            val cycle = (path.subList(index, path.size) + listOf(file)).joinToString(" -> ") { it.fileName.toString() }
+            throw IllegalStateException("Include cycle: $cycle")
+        }
+
+        path.add(file)
+        nodes.getValue(file).includes.forEach { checkCycles(it, nodes, path, done) }
+        path.removeAt(path.size - 1)
+        done.add(file)
+    }
+
+    companion object {
+        private const val GLOB_CHARS = "*?[{"
+
+        /**
+         * Resolves an include against the directory of the including file. A glob in the file name
+         * (e.g. `*.ini`) expands to the matching regular files, sorted by name.
+         */
+        fun expand(base: Path, include: String): List<Path> {
+            val slash = maxOf(include.lastIndexOf('/'), include.lastIndexOf('\\'))
+            val name = include.substring(slash + 1)
+
+            if (name.none { it in GLOB_CHARS }) return listOf(base.resolve(include).toRealPath())
+
+            val directory = if (slash < 0) base else base.resolve(include.substring(0, slash))
+            if (!Files.isDirectory(directory)) return emptyList()
+
+            return Files.newDirectoryStream(directory, name).use { stream ->
+                stream.filter { Files.isRegularFile(it) }
+                    .sortedBy { it.fileName.toString() }
+                    .map { it.toRealPath() }
+            }
+        }
+
+        private fun <T> join(future: CompletableFuture<T>): T = try {
+            future.join()
+        } catch (e: CompletionException) {
+            when (val cause = e.cause) {
+                is IOException -> throw cause
+                is RuntimeException -> throw cause
+                else -> throw e
+            }
+        }
+    }
+}
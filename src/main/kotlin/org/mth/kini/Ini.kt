@@ -1,8 +1,16 @@
 package org.mth.kini
 
 import java.io.*
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.Charset
+import java.nio.file.Files
+import java.nio.file.NoSuchFileException
 import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.PosixFileAttributeView
+import java.nio.file.attribute.PosixFileAttributes
 import java.util.*
 import kotlin.io.path.Path
 
@@ -12,26 +20,121 @@ import kotlin.io.path.Path
  * This class extends [IniSection] to inherit management for root/global properties
  * (properties declared outside or before any explicit section).
  *
+ * @param caseInsensitive Whether section and property names are compared ignoring the case of ASCII
+ * letters, e.g. `[Server]` and `[server]` being the same section. Names keep the spelling they were
+ * first defined with, which is the one written by [store] and [toString]. Lookups compare names in
+ * place, without creating lowercase copies. Prefix-based functions such as [getSectionGroup] and
+ * [IniSection.getGroup] remain case-sensitive, while [query] ignores case.
+ * @param arena The off-heap storage of the properties, see [isOffHeap].
+ * @param expectedSections The number of sections this INI is sized for, see [IniBuilder].
+ * @param expectedKeys The number of properties each section is sized for.
+ *
  * @author Mattia Marelli
  * @since 2026
  */
-class Ini : IniSection(ROOT) {
+class Ini internal constructor(
+    caseInsensitive: Boolean,
+    private val arena: OffHeapArena?,
+    expectedSections: Int = 0,
+    private val expectedKeys: Int = 0
+) : IniSection(ROOT, caseInsensitive, arena) {
+
+    @JvmOverloads
+    constructor(caseInsensitive: Boolean = false) : this(caseInsensitive, null)
+
+    /**
+     * Whether the keys and values of this INI are stored outside the Java heap, see
+     * [IniLoadOptions.offHeap]. They are then decoded on every read, and released together with the
+     * [Ini] itself.
+     */
+    val isOffHeap: Boolean get() = arena != null
+
+    /**
+     * The number of bytes of storage allocated outside the Java heap, `0` unless [isOffHeap].
+     */
+    val offHeapBytes: Long get() = arena?.reservedBytes ?: 0
 
     /**
      * Internal backing map that caches sections by their unique name for O(1) lookups.
      */
-    private val sectionsMap: MutableMap<String, IniSection> = mutableMapOf()
+    private val sectionsMap: MutableMap<String, IniSection> = nameMap(caseInsensitive, expectedSections)
+
+    /**
+     * The section names in natural order, built on first use by [IniQuery] and dropped whenever a
+     * section is added or removed.
+     */
+    @Volatile
+    private var sortedSectionNames: Array<String>? = null
+
+    /**
+     * Whether some sections may not be parsed yet, see [IniLoadOptions.lazySections]. Set while loading,
+     * before the INI is published.
+     */
+    internal var lazy = false
 
     /**
      * A read-only collection of all the explicit sections currently contained in this INI object.
      */
-    val sections: Collection<IniSection> get() = sectionsMap.values
+    val sections: Collection<IniSection>
+        get() {
+            parseAllSections()
+            return if (isFrozen) Collections.unmodifiableCollection(sectionsMap.values) else sectionsMap.values
+        }
 
     /**
      * The total number of global (root) properties.
      */
     val globalPropertyCount by this::propertyCount
 
+    /**
+     * Backing list of [includes].
+     */
+    internal val includeDirectives: MutableList<String> = mutableListOf()
+
+    /**
+     * The paths declared by the `@include = path` and `!include path` directives of the parsed file,
+     * in declaration order. Files loaded from a [Path] have their includes already merged in, unless
+     * disabled through [IniLoadOptions.resolveIncludes]. Directives are not written back by [store].
+     */
+    val includes: List<String>
+        get() = if (isFrozen) Collections.unmodifiableList(includeDirectives) else includeDirectives
+
+    /**
+     * The resolver of `${...}` references, present only while [interpolation] is enabled.
+     */
+    internal var interpolator: Interpolator? = null
+        private set
+
+    /**
+     * Whether `${...}` references in property values are resolved when reading them through
+     * [IniSection.get] and the typed accessors. Disabled by default.
+     *
+     * A reference is either `${key}`, `${section.key}` or `${env:NAME}` (an environment variable):
+     * - `${key}` is looked up in the same section first, then among the global properties;
+     * - `${a.b.c}` is looked up as key `a.b.c` of the same section, then as key `c` of section `a.b`,
+     *   then as key `b.c` of section `a`, and finally as global property `a.b.c`;
+     * - `$${` is an escape for a literal `${`.
+     *
+     * Unresolvable references are left as written, while circular references raise an
+     * [IllegalStateException]. Each value is compiled once and its resolution memoized: changing a
+     * property only re-resolves the values depending on it. Raw values are still available through
+     * [IniSection.getRaw], and are the ones written by [store] and [toString].
+     *
+     * It cannot be toggled on a [frozen][isFrozen] INI, whose readers would all observe the change:
+     * enable it on a [copy] instead.
+     */
+    var interpolation: Boolean
+        get() = interpolator != null
+        set(value) {
+            checkNotFrozen()
+            interpolator = if (value) interpolator ?: Interpolator(this) else null
+            if (!value) forgetAllSections()
+        }
+
+    init {
+        owner = this
+    }
+
     /**
      * Returns the total number of explicit sections contained in this INI.
      * This count does not include the global/root section.
@@ -43,11 +146,56 @@ class Ini : IniSection(ROOT) {
     /**
      * Retrieves an existing [IniSection] by its name, or creates a new one if it does not exist.
      *
+     * On a [frozen][isFrozen] INI, missing sections are not created: an empty, frozen and detached
+     * section is returned instead.
+     *
      * @param name The name of the section to retrieve or create.
      * @return The [IniSection] matching the provided name.
      */
     fun section(name: String): IniSection {
-        return sectionsMap.getOrPut(name) { IniSection(name) }
+        if (isFrozen) {
+            return sectionsMap[name]?.apply { ensureParsed() }
+                ?: IniSection(name, isCaseInsensitive).also { it.isFrozen = true }
+        }
+        return unparsedSection(name).apply { ensureParsed() }
+    }
+
+    /**
+     * Returns the section with the given name, creating it if needed, without parsing its
+     * [pending body][IniSection.pendingBody].
+     */
+    internal fun unparsedSection(name: String): IniSection = sectionsMap.getOrPut(name) {
+        sortedSectionNames = null
+        IniSection(name, isCaseInsensitive, arena, expectedKeys).also { it.owner = this }
+    }
+
+    /**
+     * Parses every section not parsed yet, before an operation going through all of them.
+     */
+    private fun parseAllSections() {
+        if (lazy) sectionsMap.values.forEach { it.ensureParsed() }
+    }
+
+    /**
+     * Returns the section names sorted in natural order, for prefix range scans.
+     */
+    internal fun sortedSectionNames(): Array<String> = sortedSectionNames ?: sectionsMap.keys.toTypedArray().also {
+        if (isCaseInsensitive) it.sortWith(CaseInsensitiveMap.ORDER) else it.sort()
+        sortedSectionNames = it
+    }
+
+    /**
+     * Returns the section with the given name without creating it, [ROOT] denoting the global properties.
+     */
+    internal fun sectionOrNull(name: String): IniSection? =
+        if (name == ROOT) this else sectionsMap[name]?.apply { ensureParsed() }
+
+    /**
+     * Drops every memoized value of the global properties and of all the sections.
+     */
+    internal fun forgetAllSections() {
+        forgetAll()
+        sectionsMap.values.forEach { it.forgetAll() }
     }
 
     /**
@@ -68,7 +216,12 @@ class Ini : IniSection(ROOT) {
     /**
      * Clears and removes all explicit sections from this INI object.
      */
-    fun removeAllSections() = sectionsMap.clear()
+    fun removeAllSections() {
+        checkNotFrozen()
+        sectionsMap.clear()
+        sortedSectionNames = null
+        interpolator?.reset()
+    }
 
     /**
      * Removes an explicit section by its name.
@@ -76,7 +229,72 @@ class Ini : IniSection(ROOT) {
      * @param name The name of the section to remove.
      * @return `true` if the section was found and successfully removed, `false` otherwise.
      */
-    fun removeSection(name: String) = sectionsMap.remove(name) != null
+    fun removeSection(name: String): Boolean {
+        checkNotFrozen()
+        val removed = sectionsMap.remove(name) != null
+        if (removed) {
+            sortedSectionNames = null
+            interpolator?.reset()
+        }
+        return removed
+    }
+
+    /**
+     * Resolves a dotted key for [bind]: a global property with that exact name or, failing that, the
+     * property of the longest matching section, e.g. `db.pool.size` is looked up as key `size` of
+     * section `db.pool`, then as key `pool.size` of section `db`.
+     */
+    override fun lookup(key: String): String? {
+        get(key)?.let { return it }
+
+        var dot = key.lastIndexOf('.')
+        while (dot > 0) {
+            sectionOrNull(key.substring(0, dot))?.get(key.substring(dot + 1))?.let { return it }
+            dot = key.lastIndexOf('.', dot - 1)
+        }
+        return null
+    }
+
+    /**
+     * Lazily selects the properties matching a `section/key` glob pattern, e.g. `db.*` (every key of
+     * the sections directly under `db`) or `db.mysql/pool.*`. See [IniQuery] for the syntax.
+     *
+     * @param pattern The glob pattern, compiled once and cached.
+     * @return The matching properties, sorted by section and key.
+     */
+    fun query(pattern: String): Sequence<IniQuery.Match> = IniQuery.compile(pattern).select(this)
+
+    /**
+     * Lazily selects the properties matching a compiled [query].
+     */
+    fun query(query: IniQuery): Sequence<IniQuery.Match> = query.select(this)
+
+    /**
+     * Makes this INI object and all its sections read-only, so that it can be safely shared between
+     * threads and components. Every subsequent mutation throws an [UnsupportedOperationException].
+     *
+     * @return This instance, frozen.
+     */
+    fun freeze(): Ini {
+        isFrozen = true
+        sectionsMap.values.forEach { it.isFrozen = true }
+        return this
+    }
+
+    /**
+     * Creates a mutable deep copy of this INI object, including empty sections.
+     *
+     * @return A new, independent [Ini] instance with the same content.
+     */
+    fun copy(): Ini {
+        parseAllSections()
+        val copy = Ini(isCaseInsensitive, arena?.let { OffHeapArena() })
+        copy.putAll(this)
+        sectionsMap.forEach { (name, section) -> copy.section(name).putAll(section) }
+        copy.includeDirectives += includeDirectives
+        copy.interpolation = interpolation
+        return copy
+    }
 
     /**
      * Extracts the distinct next-level tokens (nodes) that follow a given section [prefix].
@@ -108,6 +326,7 @@ class Ini : IniSection(ROOT) {
      * - `getSectionGroup("modules")` returns a map with keys `{"auth" -> IniSection, "payment" -> IniSection}`
      */
     fun getSectionGroup(prefix: String): Map<String, IniSection> {
+        parseAllSections()
         val fullPrefix = "$prefix."
         return sectionsMap.filter { it.key.startsWith(fullPrefix) }
             .mapKeys { it.key.substring(fullPrefix.length) }
@@ -120,19 +339,22 @@ class Ini : IniSection(ROOT) {
      * Example: `[db.mysql]` and `[server.api]`
      * Returns: `{"db" -> {"mysql" -> IniSection}, "server" -> {"api" -> IniSection}}`
      */
-    fun groupBySectionRoot(): Map<String, Map<String, IniSection>> = sectionsMap.entries
-        .groupBy(
-            keySelector = { entry ->
-                val dotIndex = entry.key.indexOf('.')
-                if (dotIndex < 0) "" else entry.key.substring(0, dotIndex)
-            },
-            valueTransform = { entry ->
-                val dotIndex = entry.key.indexOf('.')
-                val newKey = if (dotIndex < 0) entry.key else entry.key.substring(dotIndex + 1)
-                Pair(newKey, entry.value)
-            }
-        )
-        .mapValues { (_, pairs) -> pairs.toMap() }
+    fun groupBySectionRoot(): Map<String, Map<String, IniSection>> {
+        parseAllSections()
+        return sectionsMap.entries
+            .groupBy(
+                keySelector = { entry ->
+                    val dotIndex = entry.key.indexOf('.')
+                    if (dotIndex < 0) "" else entry.key.substring(0, dotIndex)
+                },
+                valueTransform = { entry ->
+                    val dotIndex = entry.key.indexOf('.')
+                    val newKey = if (dotIndex < 0) entry.key else entry.key.substring(dotIndex + 1)
+                    Pair(newKey, entry.value)
+                }
+            )
+            .mapValues { (_, pairs) -> pairs.toMap() }
+    }
 
     /**
      * Merges all global properties and explicit sections from the given [ini] object into this one.
@@ -143,16 +365,36 @@ class Ini : IniSection(ROOT) {
      * @param ini The source [Ini] object to merge into this instance.
      */
     fun merge(ini: Ini) {
-        ini.globalProperties().forEach { (k, v) -> this[k] = v }
+        checkNotFrozen()
+        val event = IniMergeEvent()
+        event.begin()
+        val start = System.nanoTime()
+        var sections = 0
+        putAll(ini)
+        ini.parseAllSections()
 
         ini.sectionsMap.forEach { (name, srcSection) ->
             if (!srcSection.isEmpty()) {
-                val destSection = this.section(name)
-                srcSection.forEach { (k, v) -> destSection[k] = v }
+                section(name).putAll(srcSection)
+                sections++
             }
         }
+
+        if (MetricsRegistry.enabled) {
+            MetricsRegistry.metrics.merged(sections, ini.totalPropertyCount(), System.nanoTime() - start)
+        }
+        if (event.shouldCommit()) {
+            event.sections = sections
+            event.properties = ini.totalPropertyCount()
+            event.commit()
+        }
     }
 
+    /**
+     * The number of properties of this INI, global ones included.
+     */
+    internal fun totalPropertyCount(): Int = sections.sumOf { it.propertyCount } + propertyCount
+
     /**
      * Converts this INI instance into a standard [Properties] object, using a custom lambda
      * resolver to format property keys originating from explicit sections.
@@ -162,7 +404,7 @@ class Ini : IniSection(ROOT) {
      */
     fun toProperties(sectionResolver: (IniSection, String) -> String): Properties = Properties().apply {
         putAll(globalProperties())
-        sectionsMap.values.forEach { section ->
+        sections.forEach { section ->
             section.forEach { (propName, value) ->
                 setProperty(sectionResolver.invoke(section, propName), value)
             }
@@ -183,11 +425,24 @@ class Ini : IniSection(ROOT) {
      *
      * @param path The filesystem [Path] where the file will be saved.
      * @param charset The character encoding to use when writing the file. Defaults to UTF-8.
+     * @param atomic If `true`, the content is written to a temporary file which is then atomically moved
+     * over [path], so that readers (and crashes) never observe a partially written file.
      * @throws IOException If an I/O error occurs while opening or writing to the file.
      */
     @JvmOverloads
-    fun store(path: Path, charset: Charset = Charsets.UTF_8) {
-        store(this, path, charset)
+    fun store(path: Path, charset: Charset = Charsets.UTF_8, atomic: Boolean = false) {
+        store(this, path, charset, atomic)
+    }
+
+    /**
+     * Writes a compact binary snapshot of this INI object, which can be loaded back through
+     * [loadSnapshot] without any text parsing.
+     *
+     * @param path The filesystem [Path] where the snapshot will be saved.
+     * @throws IOException If an I/O error occurs while writing the snapshot.
+     */
+    fun writeSnapshot(path: Path) {
+        IniSnapshot.write(this, path)
     }
 
     /**
@@ -198,7 +453,7 @@ class Ini : IniSection(ROOT) {
     override fun toString(): String {
         val b = StringBuilder()
 
-        properties.forEach { (k, v) ->
+        forEachValue { k, v ->
             b.append("$k = $v\n")
         }
 
@@ -206,11 +461,11 @@ class Ini : IniSection(ROOT) {
             b.append('\n')
         }
 
-        sectionsMap.values.filter { !it.isEmpty() }
+        sections.filter { !it.isEmpty() }
             .forEach { section ->
                 if (b.isNotEmpty()) b.append('\n')
                 b.append("[${section.sectionName}]\n")
-                section.forEach { (k, v) ->
+                section.forEachValue { k, v ->
                     b.append("$k = $v\n")
                 }
             }
@@ -227,16 +482,103 @@ class Ini : IniSection(ROOT) {
         /**
          * Writes the text-serialized content of an [Ini] instance to a file.
          *
+         * When [atomic] is `true` the content is first written to a temporary file in the same directory
+         * as [path], forced to the storage device, and then moved over the target with
+         * [StandardCopyOption.ATOMIC_MOVE]: the target file always contains either the old or the new
+         * configuration, never a truncated one.
+         *
          * @param ini The [Ini] instance to persist.
          * @param path The target [Path] of the output file.
          * @param charset The character encoding to use. Defaults to UTF-8.
+         * @param atomic Whether to replace the target file atomically. Defaults to `false`.
          * @throws IOException If the file cannot be created, opened, or written to.
+         * @throws java.nio.file.AtomicMoveNotSupportedException If [atomic] is requested but the
+         * file system does not support atomic moves.
          */
         @JvmStatic
-        fun store(ini: Ini, path: Path, charset: Charset = Charsets.UTF_8) {
-            BufferedWriter(FileWriter(path.toFile(), charset)).use { writer ->
-                writer.write(ini.toString())
-                writer.flush()
+        @JvmOverloads
+        fun store(ini: Ini, path: Path, charset: Charset = Charsets.UTF_8, atomic: Boolean = false) {
+            val event = IniStoreEvent()
+            event.begin()
+            val start = System.nanoTime()
+            val content = charset.encode(ini.toString())
+            val bytes = content.remaining().toLong()
+
+            if (atomic) {
+                writeAtomically(path, content)
+            } else {
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                    .use { channel -> while (content.hasRemaining()) channel.write(content) }
+            }
+
+            if (MetricsRegistry.enabled) MetricsRegistry.metrics.stored(path, bytes, System.nanoTime() - start)
+            if (event.shouldCommit()) {
+                event.path = path.toString()
+                event.bytes = bytes
+                event.atomic = atomic
+                event.sections = ini.sectionCount()
+                event.properties = ini.totalPropertyCount()
+                event.commit()
+            }
+        }
+
+        /**
+         * Writes [content] to a temporary sibling of [path], syncs it and atomically renames it to [path].
+         *
+         * The temporary file is created with the default permissions of new files, like a plain [store],
+         * then given the POSIX permissions, owner and group of the file it replaces, if any.
+         */
+        internal fun writeAtomically(path: Path, content: ByteBuffer) {
+            val target = path.toAbsolutePath()
+            val directory = target.parent
+            val temp = directory.resolve(".${target.fileName}.${UUID.randomUUID()}.tmp")
+
+            try {
+                FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).use { channel ->
+                    while (content.hasRemaining()) channel.write(content)
+                    channel.force(true)
+                }
+                copyAttributes(target, temp)
+
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+                syncDirectory(directory)
+            } finally {
+                Files.deleteIfExists(temp)
+            }
+        }
+
+        /**
+         * Gives [temp] the POSIX permissions of [target], and its owner and group where allowed. Nothing
+         * is copied if [target] does not exist or the file system is not POSIX.
+         */
+        private fun copyAttributes(target: Path, temp: Path) {
+            val attributes = try {
+                Files.readAttributes(target, PosixFileAttributes::class.java)
+            } catch (e: NoSuchFileException) {
+                return
+            } catch (e: UnsupportedOperationException) {
+                return
+            }
+
+            Files.setPosixFilePermissions(temp, attributes.permissions())
+            val view = Files.getFileAttributeView(temp, PosixFileAttributeView::class.java)
+            try {
+                if (view.readAttributes().owner() != attributes.owner()) view.setOwner(attributes.owner())
+                if (view.readAttributes().group() != attributes.group()) view.setGroup(attributes.group())
+            } catch (e: IOException) {
+                // changing the owner usually requires privileges: the file then belongs to the writer
+            }
+        }
+
+        /**
+         * Flushes the directory entry of a renamed file. Not every platform allows opening a directory
+         * as a channel (e.g. Windows), so failures are ignored: the rename itself is still atomic.
+         */
+        private fun syncDirectory(directory: Path) {
+            try {
+                FileChannel.open(directory, StandardOpenOption.READ).use { it.force(true) }
+            } catch (e: IOException) {
+                // best effort
             }
         }
 
@@ -261,14 +603,77 @@ class Ini : IniSection(ROOT) {
         fun load(file: File): Ini = load(file.toPath())
 
         /**
-         * Parses an INI configuration from a filesystem [Path].
+         * Parses an INI configuration from a filesystem [Path]. Include directives are listed in
+         * [includes] but not resolved, see [IniLoadOptions.resolveIncludes].
          *
          * @param path The [Path] leading to the target INI file.
          * @return An [Ini] instance populated with the parsed configuration.
          * @throws IOException If an I/O error occurs during reading.
+         * @see load
+         */
+        @JvmStatic
+        fun load(path: Path): Ini = load(path, IniLoadOptions.DEFAULT)
+
+        /**
+         * Parses an INI configuration from a filesystem [Path].
+         *
+         * With [IniLoadOptions.resolveIncludes], files referenced by `@include = path` or `!include path`
+         * directives (relative to the directory of the including file, with globs such as `*.ini` allowed
+         * in the file name) are loaded in parallel and merged in declaration order; the properties of the
+         * including file override the included ones. Each file is parsed once even if included several times, and include
+         * cycles raise an [IllegalStateException].
+         *
+         * @param path The [Path] leading to the target INI file.
+         * @param options The [IniLoadOptions] controlling include resolution and caching.
+         * @return An [Ini] instance populated with the parsed configuration.
+         * @throws IOException If an I/O error occurs while reading the file or one of its includes.
+         * @throws IniValidationException If the configuration breaks the [schema][IniLoadOptions.schema].
          */
         @JvmStatic
-        fun load(path: Path): Ini = FileReader(path.toFile()).use { load(it) }
+        fun load(path: Path, options: IniLoadOptions): Ini {
+            val validation = options.schema?.let { SchemaValidation(it, options.caseInsensitive) }
+            var ini = when {
+                options.resolveIncludes -> IncludeResolver(options, validation).load(path)
+                options.cache != null && options.cacheable -> options.cache.loadFile(path)
+                else -> parse(path, options, validation)
+            }
+            if (options.caseInsensitive && !ini.isCaseInsensitive || options.offHeap && !ini.isOffHeap) {
+                // cached files are parsed with the default options
+                val source = ini
+                ini = empty(options).apply {
+                    merge(source)
+                    includeDirectives += source.includes
+                }
+            }
+            validation?.finish(ini, path)
+            return options.cache?.share(ini) ?: ini
+        }
+
+        /**
+         * Creates an empty [Ini] with the storage requested by [options].
+         */
+        internal fun empty(options: IniLoadOptions): Ini =
+            Ini(options.caseInsensitive, if (options.offHeap) OffHeapArena() else null)
+
+        /**
+         * Parses a single file, leaving its include directives unresolved, and checks its properties
+         * through [validation] if set.
+         */
+        internal fun parse(
+            path: Path,
+            options: IniLoadOptions = IniLoadOptions.DEFAULT,
+            validation: SchemaValidation? = null
+        ): Ini = read(FileReader(path.toFile()), path, options, validation)
+
+        /**
+         * Parses [text] with the engine and escape decoding of [options] only, without reporting it to
+         * [IniMetrics]: used to check how a piece of text is read back.
+         */
+        internal fun parseText(text: String, options: IniLoadOptions): Ini {
+            val ini = Ini()
+            scan(StringReader(text), ini, IniLoadOptions(engine = options.engine, decodeEscapes = options.decodeEscapes), null)
+            return ini
+        }
 
         /**
          * Low-level parsing node that processes an input character stream using an automated JFlex lexer.
@@ -277,21 +682,161 @@ class Ini : IniSection(ROOT) {
          * @return A fully populated [Ini] instance.
          */
         @JvmStatic
-        fun load(inputStreamReader: InputStreamReader): Ini {
-            return BufferedReader(inputStreamReader).use { reader ->
-                val ini = Ini()
+        fun load(inputStreamReader: InputStreamReader): Ini = read(inputStreamReader, null, IniLoadOptions.DEFAULT)
+
+        /**
+         * Parses an input character stream with the given [options]. Include directives are only listed in
+         * [includes], as there is no file to resolve them against, and [IniLoadOptions.cache] is ignored.
+         *
+         * @param inputStreamReader The raw [InputStreamReader] stream containing the INI text content.
+         * @param options The [IniLoadOptions] selecting the parser engine and the storage of the result.
+         * @return A fully populated [Ini] instance.
+         * @throws IniValidationException If the configuration breaks the [schema][IniLoadOptions.schema].
+         */
+        @JvmStatic
+        fun load(inputStreamReader: InputStreamReader, options: IniLoadOptions): Ini {
+            val validation = options.schema?.let { SchemaValidation(it, options.caseInsensitive) }
+            return read(inputStreamReader, null, options, validation).also { validation?.finish(it, null) }
+        }
+
+        /**
+         * Parses [input], the content of the file at [source] if any, and reports it to [IniMetrics]. Only the
+         * engine, escape decoding, case-sensitivity, multi-value, off-heap and lazy-section [options] apply.
+         * Sections are indexed rather than parsed when [IniLoadOptions.lazySections] is honored, see
+         * [SectionIndex]: the reported properties are then the global ones.
+         */
+        private fun read(input: Reader, source: Path?, options: IniLoadOptions, validation: SchemaValidation? = null): Ini {
+            val event = IniLoadEvent()
+            event.begin()
+            val start = System.nanoTime()
+            return BufferedReader(input).use { reader ->
+                val ini = empty(options)
+                val chars = if (options.lazySections && !options.offHeap && validation == null) {
+                    SectionIndex.load(reader, ini, options)
+                } else {
+                    scan(reader, ini, options, validation?.file(source))
+                }
+                val properties = if (ini.lazy) ini.propertyCount else ini.totalPropertyCount()
+
+                if (MetricsRegistry.enabled) {
+                    val bytes = if (source != null) Files.size(source) else -1L
+                    MetricsRegistry.metrics.loaded(
+                        source, bytes, chars, ini.sectionCount(), properties, System.nanoTime() - start
+                    )
+                }
+                if (event.shouldCommit()) {
+                    event.path = source?.toString()
+                    event.bytes = if (source != null) Files.size(source) else -1L
+                    event.chars = chars
+                    event.sections = ini.sectionCount()
+                    event.properties = properties
+                    event.commit()
+                }
+                ini
+            }
+        }
+
+        /**
+         * Parses [reader] into the empty [ini] and returns the number of chars read. Off-heap properties,
+         * and all of them when validated, go from the scanner straight into their sections, without being
+         * collected first; [validator] checks each one as it is stored.
+         */
+        private fun scan(reader: Reader, ini: Ini, options: IniLoadOptions, validator: SchemaValidation.FileValidator?): Long {
+            var sink: IniScanner.PropertySink? = null
+            if (options.offHeap || validator != null) {
+                var sectionName: String? = null
+                var section: IniSection = ini
+                sink = IniScanner.PropertySink { name, key, value, line ->
+                    // the scanner passes the same name instance for all the properties of a section
+                    if (name !== sectionName) {
+                        section = if (name == IniScanner.DEFAULT_SECTION) ini else ini.section(name)
+                        sectionName = name
+                    }
+                    if (options.multiValue) section.add(key, value) else section[key] = value
+                    validator?.check(name, section, key, value, line)
+                }
+            }
+
+            val sections: Map<String, List<Array<out String?>>>
+            val includes: List<String>
+            val chars: Long
+            if (options.engine == IniParserEngine.FAST) {
+                val scanner = FastIniScanner(reader)
+                scanner.sink = sink
+                scanner.decodeEscapes = options.decodeEscapes
+                scanner.scan()
+                sections = scanner.ini
+                includes = scanner.includes
+                chars = scanner.charsRead
+            } else {
                 val lexer = IniScanner(reader)
+                lexer.sink = sink
+                lexer.decodeEscapes = options.decodeEscapes
                 lexer.yylex()
-                lexer.ini.forEach { (section, properties) ->
-                    if (section == IniScanner.DEFAULT_SECTION) {
-                        properties.forEach { ini[it[0]] = it[1] }
-                    } else {
-                        val sec = ini.section(section)
-                        properties.forEach { sec[it[0]] = it[1] }
-                    }
+                sections = lexer.ini
+                includes = lexer.includes
+                chars = lexer.charsRead
+            }
+
+            if (options.multiValue && sink != null) {
+                ini.trimValues()
+                ini.sections.forEach { it.trimValues() }
+            }
+            sections.forEach { (section, properties) ->
+                val sec = if (section == IniScanner.DEFAULT_SECTION) ini else ini.section(section)
+                if (options.multiValue) {
+                    properties.forEach { sec.add(it[0]!!, it[1]!!) }
+                    sec.trimValues()
+                } else {
+                    properties.forEach { sec[it[0]!!] = it[1]!! }
                 }
-                ini
             }
+            ini.includeDirectives += includes
+            return chars
+        }
+
+        /**
+         * Loads an INI configuration from a binary snapshot previously written by [writeSnapshot].
+         * The snapshot is memory-mapped and decoded without going through the lexer.
+         *
+         * @param path The [Path] of the snapshot file.
+         * @return An [Ini] instance populated with the snapshot content.
+         * @throws IOException If the file cannot be read or is not a valid snapshot.
+         */
+        @JvmStatic
+        fun loadSnapshot(path: Path): Ini = IniSnapshot.read(path)
+
+        /**
+         * Parses an INI configuration from a filesystem [Path], using a binary snapshot as a cache.
+         *
+         * If [snapshot] was built from [path] in its current state (same size, modification time and
+         * content hash), the configuration is loaded from the snapshot. Otherwise, the source file is
+         * parsed and the snapshot is (re)written for the next call; failures to write the snapshot,
+         * e.g. in read-only directories, are ignored.
+         *
+         * @param path The [Path] leading to the target INI file.
+         * @param snapshot The [Path] of the snapshot. Defaults to a `.snapshot` file next to [path].
+         * @return An [Ini] instance populated with the parsed configuration.
+         * @throws IOException If the INI source cannot be read.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun loadCached(path: Path, snapshot: Path = IniSnapshot.siblingOf(path)): Ini {
+            val cached = try {
+                if (Files.exists(snapshot)) IniSnapshot.readIfFresh(snapshot, path) else null
+            } catch (e: IOException) {
+                null
+            }
+            if (cached != null) return cached
+
+            val stamp = IniSnapshot.SourceStamp.of(path)
+            val ini = load(path)
+            try {
+                IniSnapshot.write(ini, snapshot, stamp)
+            } catch (e: IOException) {
+                // the snapshot is only an optimization
+            }
+            return ini
         }
 
         /**
@@ -0,0 +1,347 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.reflect.Constructor
+import java.lang.reflect.Modifier
+
+/**
+ * Binds properties to the constructor parameters of a target type, e.g. a Kotlin data class or a Java
+ * record.
+ *
+ * The binding plan of a type (constructor, property keys and converters) is computed once, through
+ * reflection, and cached: every subsequent binding is a straight sequence of lookups and primitive
+ * parses followed by a single [MethodHandle] invocation of the constructor.
+ *
+ * Parameter names are taken from, in order of precedence:
+ * 1. the [IniKey] annotation of the parameter;
+ * 2. the record components, for Java records;
+ * 3. the names compiled in the class file (`-parameters` / `-java-parameters`);
+ * 4. for Kotlin classes, the backing fields of the primary constructor properties.
+ *
+ * Parameters whose type is not a scalar (strings, primitives and their wrappers, enums, string arrays
+ * and lists) are bound as nested objects, from the properties sharing the dotted prefix given by the
+ * parameter name, with the same semantics of [IniSection.getGroup].
+ *
+ * Missing properties are handled as follows: if the Kotlin parameter declares a default value, the
+ * default value is used; otherwise, missing primitives and non-null references are reported as errors,
+ * all at once, and missing nullable references are bound to `null`. Defaults and nullability are read
+ * from the Kotlin metadata of the class (see [KotlinMetadata]); when it cannot be read, no parameter is
+ * considered to have a default. For Java classes, a reference is non-null when its parameter carries a
+ * `NonNull`, `Nonnull` or `NotNull` annotation, from any package.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+internal class IniBinder<T> private constructor(private val type: Class<T>, private val root: Node) {
+
+    /**
+     * Binds the properties returned by [lookup] (which maps a full dotted key to its value) to a new
+     * instance of the target type.
+     *
+     * @throws IniBindingException If any property is missing or cannot be converted.
+     */
+    fun bind(lookup: (String) -> String?): T {
+        val errors = ArrayList<String>(0)
+        val instance = root.bind(lookup, errors)
+
+        if (errors.isNotEmpty()) throw IniBindingException(type, errors)
+        if (instance === MISSING) throw IniBindingException(type, listOf("no property found"))
+        return type.cast(instance)
+    }
+
+    private enum class Kind { STRING, BOOLEAN, CHAR, BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, ENUM, ARRAY, LIST, NESTED }
+
+    private class Slot(val key: String, val kind: Kind, val type: Class<*>, val nested: Node?, val required: Boolean) {
+
+        /**
+         * The value passed to the constructor when the property is missing.
+         */
+        val zero: Any? = when (type) {
+            Boolean::class.javaPrimitiveType -> false
+            Char::class.javaPrimitiveType -> 0.toChar()
+            Byte::class.javaPrimitiveType -> 0.toByte()
+            Short::class.javaPrimitiveType -> 0.toShort()
+            Int::class.javaPrimitiveType -> 0
+            Long::class.javaPrimitiveType -> 0L
+            Float::class.javaPrimitiveType -> 0f
+            Double::class.javaPrimitiveType -> 0.0
+            else -> null
+        }
+
+        fun read(lookup: (String) -> String?, errors: MutableList<String>): Any? {
+            if (kind == Kind.NESTED) return nested!!.bind(lookup, errors)
+
+            val value = lookup(key) ?: return MISSING
+
+            return try {
+                when (kind) {
+                    Kind.STRING -> value
+                    Kind.BOOLEAN -> when {
+                        value.equals("true", ignoreCase = true) -> true
+                        value.equals("false", ignoreCase = true) -> false
+                        else -> throw IllegalArgumentException()
+                    }
+                    Kind.CHAR -> if (value.length == 1) value[0] else throw IllegalArgumentException()
+                    Kind.BYTE -> NumberParser.parseByte(value, 0, value.length)
+                    Kind.SHORT -> NumberParser.parseShort(value, 0, value.length)
+                    Kind.INT -> NumberParser.parseInt(value, 0, value.length)
+                    Kind.LONG -> NumberParser.parseLong(value, 0, value.length, longSuffix = true)
+                    Kind.FLOAT -> NumberParser.parseFloat(value, 0, value.length)
+                    Kind.DOUBLE -> NumberParser.parseDouble(value, 0, value.length)
+                    Kind.ENUM -> enumValue(value)
+                    Kind.ARRAY -> IniSection.splitArray(value, ",") ?: throw IllegalArgumentException()
+                    Kind.LIST -> IniSection.splitArray(value, ",")?.asList() ?: throw IllegalArgumentException()
+                    Kind.NESTED -> throw IllegalStateException()
+                }
+            } catch (e: IllegalArgumentException) {
+                errors.add("$key: cannot convert '$value' to ${type.simpleName}")
+                null
+            }
+        }
+
+        private fun enumValue(value: String): Any {
+            val constants = type.enumConstants
+            return constants.firstOrNull { (it as Enum<*>).name == value }
+                ?: constants.firstOrNull { (it as Enum<*>).name.equals(value, ignoreCase = true) }
+                ?: throw IllegalArgumentException()
+        }
+    }
+
+    private class Node(
+        val type: Class<*>,
+        val path: String,
+        val factory: MethodHandle,
+        val slots: Array<Slot>,
+        val arity: Int,
+        val defaults: BooleanArray?
+    ) {
+        /**
+         * Binds this node, returning [MISSING] if none of its properties is defined.
+         */
+        fun bind(lookup: (String) -> String?, errors: MutableList<String>): Any? {
+            val args = arrayOfNulls<Any>(arity)
+            val errorCount = errors.size
+            var found = false
+            var missing: MutableList<String>? = null
+
+            for (i in slots.indices) {
+                val slot = slots[i]
+                val value = slot.read(lookup, errors)
+
+                if (value !== MISSING) {
+                    found = true
+                    args[i] = value
+                } else if (defaults != null && defaults[i]) {
+                    args[slots.size + i / 32] = (args[slots.size + i / 32] as Int? ?: 0) or (1 shl (i % 32))
+                    args[i] = slot.zero
+                } else if (slot.zero != null || slot.required) {
+                    // reported only if the object is defined at all: otherwise it is missing as a whole
+                    (missing ?: ArrayList<String>().also { missing = it }).add("${slot.key}: missing property")
+                    args[i] = slot.zero
+                }
+            }
+
+            if (!found && errors.size == errorCount) return MISSING
+            missing?.let { errors.addAll(it) }
+            if (errors.size > errorCount) return null
+
+            if (defaults != null) {
+                for (m in slots.size until arity - 1) if (args[m] == null) args[m] = 0
+            }
+
+            return try {
+                factory.invoke(args)
+            } catch (e: NullPointerException) {
+                errors.add("${path.ifEmpty { type.simpleName }}: ${e.message ?: "missing property"}")
+                null
+            } catch (e: IllegalArgumentException) {
+                errors.add("${path.ifEmpty { type.simpleName }}: ${e.message}")
+                null
+            } catch (e: IllegalStateException) {
+                errors.add("${path.ifEmpty { type.simpleName }}: ${e.message}")
+                null
+            }
+        }
+    }
+
+    companion object {
+
+        /**
+         * Marker returned for properties (or nested objects) that are not defined at all.
+         */
+        private val MISSING = Any()
+
+        private val cache = object : ClassValue<IniBinder<*>>() {
+            override fun computeValue(type: Class<*>): IniBinder<*> = IniBinder(type, node(type, "", mutableSetOf()))
+        }
+
+        /**
+         * Simple names of the nullability annotations that mark a Java parameter as non-null.
+         */
+        private val NON_NULL = setOf("NonNull", "Nonnull", "NotNull")
+
+        private val defaultConstructorMarker: Class<*>? = try {
+            Class.forName("kotlin.jvm.internal.DefaultConstructorMarker")
+        } catch (e: ClassNotFoundException) {
+            null
+        }
+
+        /**
+         * Returns the (cached) binder of the given type.
+         *
+         * @throws IniBindingException If the type cannot be bound, e.g. it has no suitable constructor.
+         */
+        @Suppress("UNCHECKED_CAST")
+        fun <T> of(type: Class<T>): IniBinder<T> = cache.get(type) as IniBinder<T>
+
+        private fun node(type: Class<*>, prefix: String, visiting: MutableSet<Class<*>>): Node {
+            if (!visiting.add(type)) {
+                throw IniBindingException(type, listOf("$prefix: recursive type"))
+            }
+
+            val (constructor, names) = constructorOf(type)
+                ?: throw IniBindingException(type, listOf("no constructor with resolvable parameter names"))
+
+            // null for Java classes, and for Kotlin classes whose metadata cannot be read
+            val declared = if (type.isAnnotationPresent(Metadata::class.java)) KotlinMetadata.parametersOf(constructor) else null
+
+            val errors = ArrayList<String>()
+            val slots = constructor.parameters.mapIndexed { i, parameter ->
+                val name = parameter.getAnnotation(IniKey::class.java)?.value ?: names[i]
+                val key = if (prefix.isEmpty()) name else "$prefix.$name"
+                val kind = kindOf(parameter.type)
+                val required = !parameter.type.isPrimitive && when {
+                    declared != null -> !declared[i].isNullable && !declared[i].declaresDefault
+                    else -> (parameter.annotations + parameter.annotatedType.annotations)
+                        .any { it.annotationClass.java.simpleName in NON_NULL }
+                }
+
+                when {
+                    kind == null -> {
+                        errors.add("$key: unsupported type ${parameter.type.name}")
+                        Slot(key, Kind.STRING, parameter.type, null, required)
+                    }
+                    kind == Kind.NESTED -> Slot(key, kind, parameter.type, node(parameter.type, key, visiting), required)
+                    else -> Slot(key, kind, parameter.type, null, required)
+                }
+            }.toTypedArray()
+
+            if (errors.isNotEmpty()) throw IniBindingException(type, errors)
+            visiting.remove(type)
+
+            // without the metadata, no parameter is known to declare a default
+            val defaults = declared?.map { it.declaresDefault }?.toBooleanArray()?.takeIf { true in it }
+            val synthetic = defaults?.let { defaultsConstructorOf(type, constructor) }
+            val target = synthetic ?: constructor
+            if (!target.trySetAccessible()) {
+                throw IniBindingException(type, listOf("constructor ${target.toGenericString()} is not accessible"))
+            }
+
+            val handle = MethodHandles.lookup().unreflectConstructor(target)
+            val factory = handle.asType(handle.type().changeReturnType(Any::class.java))
+                .asSpreader(Array<Any?>::class.java, target.parameterCount)
+
+            return Node(type, prefix, factory, slots, target.parameterCount, if (synthetic != null) defaults else null)
+        }
+
+        private fun kindOf(type: Class<*>): Kind? = when {
+            type == String::class.java || type == CharSequence::class.java -> Kind.STRING
+            type == Boolean::class.javaPrimitiveType || type == Boolean::class.javaObjectType -> Kind.BOOLEAN
+            type == Char::class.javaPrimitiveType || type == Char::class.javaObjectType -> Kind.CHAR
+            type == Byte::class.javaPrimitiveType || type == Byte::class.javaObjectType -> Kind.BYTE
+            type == Short::class.javaPrimitiveType || type == Short::class.javaObjectType -> Kind.SHORT
+            type == Int::class.javaPrimitiveType || type == Int::class.javaObjectType -> Kind.INT
+            type == Long::class.javaPrimitiveType || type == Long::class.javaObjectType -> Kind.LONG
+            type == Float::class.javaPrimitiveType || type == Float::class.javaObjectType -> Kind.FLOAT
+            type == Double::class.javaPrimitiveType || type == Double::class.javaObjectType -> Kind.DOUBLE
+            type.isEnum -> Kind.ENUM
+            type == Array<String>::class.java -> Kind.ARRAY
+            type == List::class.java || type == Collection::class.java || type == Iterable::class.java -> Kind.LIST
+            type.isPrimitive || type.isArray || type.isInterface || Modifier.isAbstract(type.modifiers) -> null
+            type.name.startsWith("java.") || type.name.startsWith("kotlin.") -> null
+            else -> Kind.NESTED
+        }
+
+        /**
+         * Finds the constructor to bind and the names of its parameters.
+         */
+        private fun constructorOf(type: Class<*>): Pair<Constructor<*>, List<String>>? {
+            recordConstructorOf(type)?.let { return it }
+
+            val constructors = type.declaredConstructors.filter { !it.isSynthetic && it.parameterCount > 0 }
+
+            constructors.filter { c -> c.parameters.all { it.isNamePresent || it.isAnnotationPresent(IniKey::class.java) } }
+                .maxByOrNull { it.parameterCount }
+                ?.let { c -> return c to c.parameters.map { it.name } }
+
+            if (type.isAnnotationPresent(Metadata::class.java)) {
+                // Kotlin primary constructor properties are the first declared instance fields
+                val fields = type.declaredFields.filter { !Modifier.isStatic(it.modifiers) && !it.isSynthetic }
+                return constructors
+                    .filter { c ->
+                        c.parameterCount <= fields.size &&
+                                c.parameterTypes.withIndex().all { (i, t) -> fields[i].type == t }
+                    }
+                    .maxByOrNull { it.parameterCount }
+                    ?.let { c -> c to fields.take(c.parameterCount).map { it.name } }
+            }
+
+            return null
+        }
+
+        private fun recordConstructorOf(type: Class<*>): Pair<Constructor<*>, List<String>>? {
+            // records are only available from Java 16: access them reflectively
+            val isRecord = try {
+                Class::class.java.getMethod("isRecord").invoke(type) as Boolean
+            } catch (e: NoSuchMethodException) {
+                false
+            }
+            if (!isRecord) return null
+
+            @Suppress("UNCHECKED_CAST")
+            val components = Class::class.java.getMethod("getRecordComponents").invoke(type) as Array<Any>
+            val componentClass = components.firstOrNull()?.javaClass ?: return null
+            val names = components.map { componentClass.getMethod("getName").invoke(it) as String }
+            val types = components.map { componentClass.getMethod("getType").invoke(it) as Class<*> }
+
+            return type.getDeclaredConstructor(*types.toTypedArray()) to names
+        }
+
+        /**
+         * Finds the synthetic constructor generated by Kotlin for default arguments, with signature
+         * `(params..., mask: Int..., marker: DefaultConstructorMarker)`.
+         */
+        private fun defaultsConstructorOf(type: Class<*>, constructor: Constructor<*>): Constructor<*>? {
+            val marker = defaultConstructorMarker ?: return null
+            val masks = (constructor.parameterCount + 31) / 32
+            val signature = constructor.parameterTypes.toList() + List(masks) { Int::class.javaPrimitiveType } + marker
+
+            return type.declaredConstructors.firstOrNull { it.isSynthetic && it.parameterTypes.toList() == signature }
+        }
+    }
+}
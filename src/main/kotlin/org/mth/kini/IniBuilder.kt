@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+/**
+ * Builds [Ini] instances in bulk, e.g. in templating pipelines generating many documents.
+ *
+ * Unlike the [ini] DSL, the builder writes every property straight into its final section: nested
+ * prefixes (`pool.size`) are composed in a reused buffer instead of a temporary section copied into
+ * its parent, and the maps of the INI and of its sections are created with the expected number of
+ * entries, so that they do not grow while filled. Properties are stored without the bookkeeping of
+ * changes to an existing configuration.
+ *
+ * Example:
+ * ```
+ * val builder = IniBuilder(expectedSections = 2, expectedKeys = 4)
+ * val ini = builder.section("db")
+ *     .put("host", "localhost")
+ *     .put("port", 5432)
+ *     .beginPrefix("pool").put("size", 8).endPrefix()
+ *     .build(frozen = true)
+ * ```
+ * or, with the Kotlin DSL:
+ * ```
+ * val ini = buildIni(expectedSections = 2, expectedKeys = 4) {
+ *     "name" to "app"
+ *     "db" {
+ *         "host" to "localhost"
+ *         "pool" {
+ *             "size" to 8
+ *         }
+ *     }
+ * }
+ * ```
+ *
+ * A builder is not thread-safe, and can be reused: [build] starts a new INI with the same hints.
+ *
+ * @param expectedSections The number of explicit sections the INI is sized for.
+ * @param expectedKeys The number of properties each explicit section is sized for.
+ * @param caseInsensitive Whether the built INI ignores the case of names, see [Ini.isCaseInsensitive].
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class IniBuilder @JvmOverloads constructor(
+    val expectedSections: Int = 0,
+    val expectedKeys: Int = 0,
+    val caseInsensitive: Boolean = false
+) {
+
+    private var ini = Ini(caseInsensitive, null, expectedSections, expectedKeys)
+
+    /**
+     * The section properties are written to, the INI itself for the global properties.
+     */
+    private var section: IniSection = ini
+
+    /**
+     * The current prefix, each level followed by a dot.
+     */
+    private val prefix = StringBuilder()
+
+    /**
+     * The length of [prefix] before each [beginPrefix], as a stack.
+     */
+    private var prefixLengths = IntArray(4)
+
+    private var depth = 0
+
+    init {
+        require(expectedSections >= 0 && expectedKeys >= 0) { "Capacity hints cannot be negative" }
+    }
+
+    /**
+     * Directs the next properties to the section [name], created if needed, and clears the prefix.
+     */
+    fun section(name: String): IniBuilder {
+        section = ini.unparsedSection(name)
+        clearPrefix()
+        return this
+    }
+
+    /**
+     * Directs the next properties to the global ones, and clears the prefix.
+     */
+    fun global(): IniBuilder {
+        section = ini
+        clearPrefix()
+        return this
+    }
+
+    /**
+     * Prepends `name.` to the keys of the next properties, after the current prefix, until the
+     * matching [endPrefix].
+     */
+    fun beginPrefix(name: String): IniBuilder {
+        if (depth == prefixLengths.size) prefixLengths = prefixLengths.copyOf(depth * 2)
+        prefixLengths[depth++] = prefix.length
+        prefix.append(name).append('.')
+        return this
+    }
+
+    /**
+     * Restores the prefix in use before the last [beginPrefix].
+     */
+    fun endPrefix(): IniBuilder {
+        check(depth > 0) { "No prefix to end" }
+        prefix.setLength(prefixLengths[--depth])
+        return this
+    }
+
+    fun put(key: String, value: String): IniBuilder {
+        val name = if (depth == 0) {
+            key
+        } else {
+            val length = prefix.length
+            val composed = prefix.append(key).toString()
+            prefix.setLength(length)
+            composed
+        }
+        section.load(name, value, false)
+        return this
+    }
+
+    fun put(key: String, value: Int): IniBuilder = put(key, value.toString())
+
+    fun put(key: String, value: Long): IniBuilder = put(key, value.toString())
+
+    fun put(key: String, value: Double): IniBuilder = put(key, value.toString())
+
+    fun put(key: String, value: Boolean): IniBuilder = put(key, value.toString())
+
+    fun put(key: String, value: Any): IniBuilder = put(key, value.toString())
+
+    /**
+     * Returns the INI built so far, [frozen][Ini.freeze] if requested, and starts a new one with the
+     * same hints.
+     */
+    @JvmOverloads
+    fun build(frozen: Boolean = false): Ini {
+        val result = ini
+        if (frozen) result.freeze()
+        ini = Ini(caseInsensitive, null, expectedSections, expectedKeys)
+        section = ini
+        clearPrefix()
+        return result
+    }
+
+    private fun clearPrefix() {
+        prefix.setLength(0)
+        depth = 0
+    }
+
+    /**
+     * Whether properties currently go to the global ones, without prefix.
+     */
+    @PublishedApi
+    internal val atRoot: Boolean get() = section === ini && depth == 0
+
+    /**
+     * Writes the properties of [block] to the section [name], then returns to the global properties.
+     */
+    inline fun section(name: String, block: IniBuilder.() -> Unit): IniBuilder {
+        section(name)
+        block()
+        return global()
+    }
+
+    /**
+     * Sets a property, e.g. `"port" to 8080`.
+     */
+    infix fun String.to(value: Any) {
+        put(this, value.toString())
+    }
+
+    /**
+     * Opens a section block at the top level, or a prefix block within a section, as the [ini] DSL:
+     * ```
+     * "database" {
+     *     "pool" {
+     *         "size" to 8 // database/pool.size
+     *     }
+     * }
+     * ```
+     */
+    inline operator fun String.invoke(block: IniBuilder.() -> Unit) {
+        if (atRoot) {
+            section(this, block)
+        } else {
+            beginPrefix(this)
+            block()
+            endPrefix()
+        }
+    }
+}
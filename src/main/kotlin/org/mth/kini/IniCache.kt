@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.lang.ref.SoftReference
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * An opt-in, process-wide cache of parsed INI files, letting independent components share the result of
+ * [Ini.load] instead of re-parsing the same files.
+ *
+ * Entries are keyed by canonical path and validated against the size and modification time of the file
+ * (and optionally its content hash) on every lookup: a modified file is transparently re-parsed.
+ * The cache is bounded both by number of entries and by total weight, the weight of an entry being
+ * the size in bytes of its source file; least recently used entries are evicted first.
+ *
+ * Cached instances are [frozen][Ini.freeze] and shared by all callers, unless [copyOnLoad] is enabled,
+ * in which case every lookup returns a private mutable [copy][Ini.copy] of the cached configuration.
+ *
+ * When loading with `IniLoadOptions(resolveIncludes = true, cache = cache)`, included files are cached
+ * individually: editing an included file only re-parses that file, the configuration being merged again
+ * from the cached parts of the others.
+ *
+ * Example:
+ * ```
+ * val cache = IniCache(maxEntries = 32)
+ * val ini = cache.load(Path.of("app.ini"))   // parsed
+ * val same = cache.load(Path.of("./app.ini")) // shared
+ * ```
+ *
+ * This class is thread-safe.
+ *
+ * @param maxEntries The maximum number of cached files.
+ * @param maxWeight The maximum total size, in bytes, of the cached source files.
+ * @param softValues If `true`, parsed configurations are only softly referenced, so that the garbage
+ * collector can reclaim them under memory pressure.
+ * @param verifyContentHash If `true`, a cache hit also requires the content hash of the file to match,
+ * detecting modifications that preserve size and modification time.
+ * @param copyOnLoad If `true`, lookups return mutable copies instead of the shared frozen instance.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class IniCache @JvmOverloads constructor(
+    val maxEntries: Int = 64,
+    val maxWeight: Long = Long.MAX_VALUE,
+    val softValues: Boolean = false,
+    val verifyContentHash: Boolean = false,
+    val copyOnLoad: Boolean = false
+) {
+
+    /**
+     * Snapshot of the cache usage counters.
+     */
+    data class Stats(val hitCount: Long, val missCount: Long, val evictionCount: Long) {
+        /**
+         * The ratio of lookups served from the cache, or `1.0` if no lookup happened yet.
+         */
+        val hitRate: Double
+            get() = if (hitCount + missCount == 0L) 1.0 else hitCount.toDouble() / (hitCount + missCount)
+    }
+
+    private class Entry(val size: Long, val lastModified: Long, val hash: Long, value: Ini, soft: Boolean) {
+        private val strong: Ini? = if (soft) null else value
+        private val soft: SoftReference<Ini>? = if (soft) SoftReference(value) else null
+
+        val value: Ini? get() = strong ?: soft?.get()
+    }
+
+    private val entries = LinkedHashMap<Path, Entry>(16, 0.75f, true)
+
+    private var weight = 0L
+
+    private var hits = 0L
+
+    private var misses = 0L
+
+    private var evictions = 0L
+
+    init {
+        require(maxEntries > 0) { "maxEntries must be positive" }
+        require(maxWeight > 0) { "maxWeight must be positive" }
+    }
+
+    /**
+     * The number of files currently cached.
+     */
+    val size: Int get() = synchronized(entries) { entries.size }
+
+    /**
+     * The total size, in bytes, of the currently cached source files.
+     */
+    val totalWeight: Long get() = synchronized(entries) { weight }
+
+    /**
+     * Returns the parsed configuration of the file at [path], parsing it only if it is not cached yet
+     * or if it has been modified since it was cached. As with [Ini.load], include directives are not
+     * resolved, see [IniLoadOptions.resolveIncludes].
+     *
+     * @param path The [Path] leading to the target INI file.
+     * @return The cached [Ini] instance (frozen), or a copy of it if [copyOnLoad] is enabled.
+     * @throws java.io.IOException If the file does not exist or cannot be read.
+     */
+    fun load(path: Path): Ini = Ini.load(path, IniLoadOptions(cache = this))
+
+    /**
+     * Returns the cached, frozen parse of the single file at [path], its includes left unresolved.
+     */
+    internal fun loadFile(path: Path): Ini {
+        val key = path.toRealPath()
+        val size = Files.size(key)
+        val lastModified = Files.getLastModifiedTime(key).toMillis()
+        val hash = if (verifyContentHash) contentHash(key) else 0L
+
+        var stale = false
+        val cached = synchronized(entries) {
+            val entry = entries[key]
+            val value = entry?.value
+
+            if (value != null && entry.size == size && entry.lastModified == lastModified && entry.hash == hash) {
+                hits++
+                value
+            } else {
+                misses++
+                stale = entry != null
+                if (entry != null) remove(key)
+                null
+            }
+        }
+        if (cached != null) return cached
+
+        // parsing happens outside the lock: concurrent misses on the same file may parse it twice
+        val event = IniReloadEvent()
+        event.begin()
+        val ini = Ini.parse(key).freeze()
+
+        if (stale && event.shouldCommit()) {
+            event.path = key.toString()
+            event.bytes = size
+            event.sections = ini.sectionCount()
+            event.properties = ini.totalPropertyCount()
+            event.commit()
+        }
+
+        synchronized(entries) {
+            remove(key)
+            if (size <= maxWeight) {
+                entries[key] = Entry(size, lastModified, hash, ini, softValues)
+                weight += size
+                evict()
+            }
+        }
+        return ini
+    }
+
+    /**
+     * Removes the entry of the file at [path], if cached.
+     */
+    fun invalidate(path: Path) {
+        val key = try {
+            path.toRealPath()
+        } catch (e: java.io.IOException) {
+            path.toAbsolutePath().normalize()
+        }
+        synchronized(entries) { remove(key) }
+    }
+
+    /**
+     * Removes all the entries from the cache. The statistics are preserved.
+     */
+    fun invalidateAll() = synchronized(entries) {
+        entries.clear()
+        weight = 0
+    }
+
+    /**
+     * Returns a snapshot of the usage counters of this cache.
+     */
+    fun stats(): Stats = synchronized(entries) { Stats(hits, misses, evictions) }
+
+    /**
+     * Applies the sharing policy to a loaded configuration: cached instances are copied if [copyOnLoad]
+     * is enabled, while configurations merged from several files are frozen unless it is.
+     */
+    internal fun share(ini: Ini): Ini = when {
+        ini.isFrozen -> if (copyOnLoad) ini.copy() else ini
+        copyOnLoad -> ini
+        else -> ini.freeze()
+    }
+
+    private fun remove(key: Path) {
+        val entry = entries.remove(key) ?: return
+        weight -= entry.size
+    }
+
+    private fun evict() {
+        val iterator = entries.values.iterator()
+        while ((entries.size > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+            val eldest = iterator.next()
+            iterator.remove()
+            weight -= eldest.size
+            evictions++
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import jdk.jfr.Category
+import jdk.jfr.Configuration
+import jdk.jfr.DataAmount
+import jdk.jfr.Description
+import jdk.jfr.Enabled
+import jdk.jfr.Event
+import jdk.jfr.Label
+import jdk.jfr.Name
+import jdk.jfr.StackTrace
+import java.io.InputStreamReader
+
+/**
+ * Emitted when a file or stream is parsed by [Ini.load].
+ */
+@Name("org.mth.kini.Load")
+@Label("INI Load")
+@Category("K-Ini")
+@Description("Parsing of an INI file")
+@Enabled(false)
+@StackTrace(false)
+class IniLoadEvent : Event() {
+    @field:Label("Path")
+    @field:Description("The parsed file, null for streams")
+    @JvmField
+    var path: String? = null
+
+    @field:Label("Bytes")
+    @field:DataAmount(DataAmount.BYTES)
+    @field:Description("The size of the parsed file, -1 for streams")
+    @JvmField
+    var bytes: Long = 0
+
+    @field:Label("Chars")
+    @JvmField
+    var chars: Long = 0
+
+    @field:Label("Sections")
+    @JvmField
+    var sections: Int = 0
+
+    @field:Label("Properties")
+    @JvmField
+    var properties: Int = 0
+}
+
+/**
+ * Emitted when an [IniCache] parses again a file modified since it was cached.
+ */
+@Name("org.mth.kini.Reload")
+@Label("INI Reload")
+@Category("K-Ini")
+@Description("Parsing of a cached INI file modified on disk")
+@Enabled(false)
+@StackTrace(false)
+class IniReloadEvent : Event() {
+    @field:Label("Path")
+    @JvmField
+    var path: String? = null
+
+    @field:Label("Bytes")
+    @field:DataAmount(DataAmount.BYTES)
+    @JvmField
+    var bytes: Long = 0
+
+    @field:Label("Sections")
+    @JvmField
+    var sections: Int = 0
+
+    @field:Label("Properties")
+    @JvmField
+    var properties: Int = 0
+}
+
+/**
+ * Emitted when an [Ini] is written by [Ini.store].
+ */
+@Name("org.mth.kini.Store")
+@Label("INI Store")
+@Category("K-Ini")
+@Description("Serialization of an INI object to a file")
+@Enabled(false)
+@StackTrace(false)
+class IniStoreEvent : Event() {
+    @field:Label("Path")
+    @JvmField
+    var path: String? = null
+
+    @field:Label("Bytes")
+    @field:DataAmount(DataAmount.BYTES)
+    @JvmField
+    var bytes: Long = 0
+
+    @field:Label("Atomic")
+    @JvmField
+    var atomic: Boolean = false
+
+    @field:Label("Sections")
+    @JvmField
+    var sections: Int = 0
+
+    @field:Label("Properties")
+    @JvmField
+    var properties: Int = 0
+}
+
+/**
+ * Emitted by [Ini.merge].
+ */
+@Name("org.mth.kini.Merge")
+@Label("INI Merge")
+@Category("K-Ini")
+@Description("Merge of an INI object into another")
+@Enabled(false)
+@StackTrace(false)
+class IniMergeEvent : Event() {
+    @field:Label("Sections")
+    @field:Description("The number of non-empty sections merged")
+    @JvmField
+    var sections: Int = 0
+
+    @field:Label("Properties")
+    @JvmField
+    var properties: Int = 0
+}
+
+/**
+ * Access to the JFR settings of the library events.
+ *
+ * All the events are disabled by default, and cost nothing until enabled, either through the
+ * settings returned by [configuration] or by enabling them in a custom `.jfc` file, e.g.
+ * `-XX:StartFlightRecording:settings=default,settings=kini.jfc`.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+object IniEvents {
+
+    /**
+     * Returns the settings enabling all the K-Ini events, without any threshold.
+     *
+     * Example:
+     * ```
+     * Recording(IniEvents.configuration()).use { recording -> recording.start(); ... }
+     * ```
+     */
+    @JvmStatic
+    fun configuration(): Configuration {
+        val stream = IniEvents::class.java.getResourceAsStream("kini.jfc")
+            ?: throw IllegalStateException("kini.jfc not found")
+        return InputStreamReader(stream, Charsets.UTF_8).use { Configuration.create(it) }
+    }
+}
@@ -0,0 +1,574 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.Closeable
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.zip.CRC32C
+
+/**
+ * Journaled persistence of an INI file: every change is appended to a log next to the file, so that it
+ * costs a write proportional to the change rather than to the whole configuration.
+ *
+ * Opening a journal loads the file, if it exists, and replays the log over it. Changes made through
+ * [set], [removeProperty] and [removeSection] are appended to the log, then applied to [ini]: a change
+ * that cannot be logged is not applied, and one that cannot be applied is removed from the log. When the
+ * log grows past [compactionThreshold] bytes, a background compaction writes the whole configuration
+ * to the file atomically (see [Ini.store]) and drops the records it contains from the log. Changes
+ * appended meanwhile are kept, and replaying records already compacted is harmless, as each record
+ * sets or removes a value: a crash between the two steps loses nothing.
+ *
+ * Compaction writes values so that they are read back unchanged, quoting them if needed. A value that
+ * cannot be written in any form, e.g. a multi-line value unless [IniLoadOptions.decodeEscapes] is set,
+ * is left out of the file and kept in the log instead. Files with include directives are not supported,
+ * as compaction would either drop the directives or inline the included files.
+ *
+ * Log layout (big-endian):
+ * ```
+ * header  magic:int  version:short  reserved:short
+ * record  length:int  crc:int  op:byte  section:string  [key:string  [value:string]]  (op: set, remove
+ *         property, remove section, or add, which appends a value to a multi-valued property)
+ * string  length:int  utf8:byte[length]
+ * ```
+ * where `length` counts the bytes from `op` on, and `crc` is their CRC32C. Replay stops at the first
+ * incomplete or corrupt record, the tail of a write interrupted by a crash, which is then truncated.
+ *
+ * Changes must go through the journal to be persisted. Its operations synchronize on [ini], as
+ * compactions do while serializing it: threads reading the configuration concurrently should
+ * synchronize on the same instance.
+ *
+ * Example:
+ * ```
+ * IniJournal(Path.of("runtime.ini")).use { journal ->
+ *     journal.set("limits", "threshold", "0.75")
+ * }
+ * ```
+ *
+ * @param path The INI file, created by the first compaction if it does not exist.
+ * @param options The [IniLoadOptions] the file is loaded with; includes are never resolved, and the
+ * [cache][IniLoadOptions.cache] is not used, since its instances are frozen and shared.
+ * @param compactionThreshold The size of the log, in bytes, beyond which a compaction is started.
+ * @param sync Whether every record is forced to the storage device before the change is applied.
+ * Defaults to `false`, leaving the flush of the log to the operating system.
+ * @param executor The executor running the compactions. If `null`, a private single-thread daemon
+ * executor is created and shut down by [close].
+ * @throws IOException If the file or the log cannot be read, the log is not a journal, or the file has
+ * include directives.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class IniJournal @JvmOverloads constructor(
+    val path: Path,
+    options: IniLoadOptions = IniLoadOptions.DEFAULT,
+    val compactionThreshold: Long = DEFAULT_COMPACTION_THRESHOLD,
+    private val sync: Boolean = false,
+    executor: ExecutorService? = null
+) : Closeable {
+
+    /**
+     * The log of the changes not compacted into [path] yet, a sibling file with the [SUFFIX] appended
+     * to its name.
+     */
+    val log: Path = path.resolveSibling("${path.fileName}$SUFFIX")
+
+    /**
+     * The configuration, with the logged changes applied.
+     */
+    val ini: Ini = if (Files.exists(path)) Ini.load(path, options.copy(resolveIncludes = false, cache = null)) else Ini.empty(options)
+
+    /**
+     * The options compacted values are checked against, see [encode].
+     */
+    private val textOptions = options
+
+    private val ownsExecutor = executor == null
+
+    private val executor: ExecutorService = executor ?: Executors.newSingleThreadExecutor { r ->
+        Thread(r, "kini-journal-compaction").apply { isDaemon = true }
+    }
+
+    private val compactionLock = Any()
+
+    private var channel: FileChannel
+
+    /**
+     * The size of the log, up to its last complete record.
+     */
+    private var size = 0L
+
+    /**
+     * The size of the log right after the last compaction: the header and the records kept because their
+     * values cannot be written to the file.
+     */
+    private var compactedSize = HEADER_SIZE.toLong()
+
+    private var compacting = false
+
+    private var failure: IOException? = null
+
+    private var closed = false
+
+    /**
+     * The number of compactions performed.
+     */
+    @Volatile
+    var compactionCount = 0L
+        private set
+
+    /**
+     * The current size of the log in bytes.
+     */
+    val logBytes: Long get() = synchronized(ini) { size }
+
+    init {
+        require(compactionThreshold > HEADER_SIZE) { "The compaction threshold must exceed $HEADER_SIZE bytes" }
+        if (ini.includes.isNotEmpty()) throw IOException("$path has include directives, which a journal cannot keep")
+        channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        try {
+            replay()
+        } catch (e: Exception) {
+            channel.close()
+            if (ownsExecutor) this.executor.shutdown()
+            throw e
+        }
+    }
+
+    /**
+     * Sets the property [key] of [section], [Ini.ROOT] denoting the global properties.
+     *
+     * @throws IllegalArgumentException If the section name or the key cannot be written to an INI file:
+     * empty, padded with blanks or containing a line break; keys also must not contain `=` or `:`, start
+     * with `[`, `;` or `#`, or be an include directive, and section names must not contain `]`.
+     * @throws IOException If the record cannot be appended, or a background compaction failed.
+     * @throws IllegalStateException If this journal has been closed.
+     */
+    fun set(section: String, key: String, value: String) {
+        require(section == Ini.ROOT || isWritableSection(section)) { "Section name '$section' cannot be written to an INI file" }
+        require(isWritableKey(key)) { "Key '$key' cannot be written to an INI file" }
+        synchronized(ini) {
+            logged(SET, section, key, value) { (if (section == Ini.ROOT) ini else ini.section(section))[key] = value }
+        }
+    }
+
+    /**
+     * Sets the global property [key].
+     */
+    fun set(key: String, value: String) = set(Ini.ROOT, key, value)
+
+    /**
+     * Removes the property [key] of [section], [Ini.ROOT] denoting the global properties. Nothing is
+     * logged if the property does not exist.
+     *
+     * @return The removed value, or `null` if the property did not exist.
+     * @throws IOException If the record cannot be appended, or a background compaction failed.
+     * @throws IllegalStateException If this journal has been closed.
+     */
+    fun removeProperty(section: String, key: String): String? {
+        synchronized(ini) {
+            val target = ini.sectionOrNull(section)
+            if (target == null || !target.hasProperty(key)) return null
+            return logged(REMOVE_PROPERTY, section, key, null) { target.removeProperty(key) }
+        }
+    }
+
+    /**
+     * Removes the explicit section [name]. Nothing is logged if the section does not exist.
+     *
+     * @return `true` if the section was found and removed.
+     * @throws IOException If the record cannot be appended, or a background compaction failed.
+     * @throws IllegalStateException If this journal has been closed.
+     */
+    fun removeSection(name: String): Boolean {
+        synchronized(ini) {
+            if (!ini.hasSection(name)) return false
+            return logged(REMOVE_SECTION, name, null, null) { ini.removeSection(name) }
+        }
+    }
+
+    /**
+     * Writes the configuration to [path] and drops the compacted records from the log, on the calling
+     * thread.
+     *
+     * @throws IOException If the file or the log cannot be written, or a background compaction failed.
+     * @throws IllegalStateException If this journal has been closed.
+     */
+    fun compact() {
+        synchronized(ini) {
+            check(!closed) { "The journal is closed" }
+            rethrowFailure()
+        }
+        compactNow()
+    }
+
+    /**
+     * Closes the log and releases the executor, if owned by this journal. The logged changes are kept
+     * for the next opening; a compaction in progress completes without dropping them.
+     */
+    override fun close() {
+        synchronized(ini) {
+            if (closed) return
+            closed = true
+            channel.close()
+        }
+        if (ownsExecutor) executor.shutdown()
+    }
+
+    /**
+     * Appends the record of a change, then applies it through [change]. If the change fails, e.g. because
+     * [ini] has been frozen, its record is removed from the log before rethrowing.
+     */
+    private inline fun <R> logged(op: Byte, section: String, key: String?, value: String?, change: () -> R): R {
+        check(!closed) { "The journal is closed" }
+        rethrowFailure()
+        if (ini.isFrozen) throw UnsupportedOperationException("The configuration of the journal is frozen")
+
+        val start = size
+        append(record(op, section, key, value))
+        val result = try {
+            change()
+        } catch (e: Throwable) {
+            try {
+                channel.truncate(start)
+                size = start
+            } catch (t: IOException) {
+                e.addSuppressed(t)
+            }
+            throw e
+        }
+
+        // the records kept by the last compaction do not count
+        if (size - compactedSize + HEADER_SIZE > compactionThreshold && !compacting) {
+            compacting = true
+            executor.execute { compactInBackground() }
+        }
+        return result
+    }
+
+    private fun append(record: ByteBuffer) {
+        val length = record.remaining()
+        channel.position(size)
+        while (record.hasRemaining()) channel.write(record)
+        if (sync) channel.force(false)
+        size += length
+    }
+
+    private fun compactInBackground() {
+        try {
+            compactNow()
+        } catch (e: IOException) {
+            synchronized(ini) { failure = e }
+        } finally {
+            synchronized(ini) { compacting = false }
+        }
+    }
+
+    private fun compactNow(): Unit = synchronized(compactionLock) {
+        val content: ByteBuffer
+        val retained = ArrayList<ByteBuffer>()
+        val mark: Long
+        synchronized(ini) {
+            if (closed || size == compactedSize) return
+            content = Charsets.UTF_8.encode(serialize(retained))
+            mark = size
+        }
+
+        Ini.writeAtomically(path, content)
+
+        synchronized(ini) {
+            if (closed) return
+            dropRecords(mark, retained)
+            compactionCount++
+        }
+    }
+
+    /**
+     * Writes the configuration in the INI format, like [Ini.toString] but with empty sections and
+     * with values quoted as needed. The properties with a value that cannot be written are left out,
+     * their records being added to [retained] instead.
+     */
+    private fun serialize(retained: MutableList<ByteBuffer>): String {
+        val b = StringBuilder()
+        serialize(ini, Ini.ROOT, b, retained)
+        ini.sections.forEach { section ->
+            if (b.isNotEmpty()) b.append('\n')
+            b.append('[').append(section.sectionName).append("]\n")
+            serialize(section, section.sectionName, b, retained)
+        }
+        if (b.endsWith('\n')) b.setLength(b.length - 1)
+        return b.toString()
+    }
+
+    private fun serialize(section: IniSection, name: String, b: StringBuilder, retained: MutableList<ByteBuffer>) {
+        section.keys.forEach { key ->
+            val values = section.getAll(key)
+            val encoded = values.map { encode(it) }
+            if (encoded.all { it != null }) {
+                encoded.forEach { b.append(key).append(" = ").append(it).append('\n') }
+            } else {
+                values.forEachIndexed { i, value -> retained += record(if (i == 0) SET else ADD, name, key, value) }
+            }
+        }
+    }
+
+    /**
+     * Returns the form of [value] which the parser reads back unchanged: as is if it has no special
+     * character, otherwise the first quoted form that the parser, with the [textOptions], reads back
+     * unchanged; `null` if there is none.
+     */
+    private fun encode(value: String): String? {
+        if (value.isEmpty() || isPlain(value)) return value
+
+        val forms = ArrayList<String>(3)
+        if ('"' !in value) forms += "\"$value\""
+        if ('\'' !in value) forms += "'$value'"
+        if (textOptions.decodeEscapes) forms += escape(value)
+        return forms.firstOrNull { readsBack(it, value) }
+    }
+
+    private fun readsBack(form: String, value: String): Boolean {
+        val parsed = try {
+            Ini.parseText("k = $form\nz = 1\n", textOptions)
+        } catch (e: IOException) {
+            return false
+        } catch (e: RuntimeException) {
+            return false
+        }
+        return parsed.globalPropertyCount == 2 && parsed.sectionCount() == 0 &&
+                parsed.getRaw("k") == value && parsed.getRaw("z") == "1"
+    }
+
+    /**
+     * Removes the records before [mark] from the log, keeping the [retained] ones and the ones appended
+     * after [mark]. The log is replaced atomically, and the current channel is only closed once the new
+     * log is in place.
+     */
+    private fun dropRecords(mark: Long, retained: List<ByteBuffer>) {
+        if (size == mark && retained.isEmpty()) {
+            channel.truncate(HEADER_SIZE.toLong())
+            channel.force(false)
+            size = HEADER_SIZE.toLong()
+            compactedSize = size
+            return
+        }
+
+        val retainedBytes = retained.sumOf { it.remaining() }
+        val content = ByteBuffer.allocate(Math.toIntExact(HEADER_SIZE + retainedBytes + size - mark))
+        content.put(header())
+        retained.forEach { content.put(it.duplicate()) }
+        while (content.hasRemaining()) {
+            if (channel.read(content, mark + content.position() - HEADER_SIZE - retainedBytes) < 0) {
+                throw IOException("$log was truncated")
+            }
+        }
+        content.flip()
+
+        Ini.writeAtomically(log, content)
+        val reopened = FileChannel.open(log, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        try {
+            channel.close()
+        } catch (e: IOException) {
+            // the old log has been replaced already
+        }
+        channel = reopened
+        size = reopened.size()
+        compactedSize = (HEADER_SIZE + retainedBytes).toLong()
+    }
+
+    private fun record(op: Byte, section: String, key: String?, value: String?): ByteBuffer {
+        val strings = listOfNotNull(section, key, value).map { it.toByteArray(Charsets.UTF_8) }
+        val length = 1 + strings.sumOf { 4 + it.size }
+        val record = ByteBuffer.allocate(8 + length)
+        record.putInt(length).putInt(0).put(op)
+        strings.forEach { record.putInt(it.size).put(it) }
+
+        val crc = CRC32C()
+        crc.update(record.array(), 8, length)
+        record.putInt(4, crc.value.toInt())
+        return record.flip()
+    }
+
+    /**
+     * Applies the records of the log to [ini], and truncates an incomplete last record.
+     */
+    private fun replay() {
+        val length = channel.size()
+        if (length == 0L) {
+            val header = header()
+            while (header.hasRemaining()) channel.write(header)
+            size = HEADER_SIZE.toLong()
+            return
+        }
+
+        if (length > Int.MAX_VALUE) throw IOException("$log is too large")
+        val buffer = ByteBuffer.allocate(length.toInt())
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position().toLong()) < 0) break
+        }
+        buffer.flip()
+
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) throw IOException("$log is not an INI journal")
+        val version = buffer.getShort()
+        if (version != VERSION) throw IOException("Unsupported journal version $version")
+        buffer.getShort()
+
+        val crc = CRC32C()
+        while (buffer.remaining() >= 8) {
+            val start = buffer.position()
+            val recordLength = buffer.getInt()
+            val expected = buffer.getInt()
+            if (recordLength < 1 || recordLength > buffer.remaining()) {
+                buffer.position(start)
+                break
+            }
+            crc.reset()
+            crc.update(buffer.array(), start + 8, recordLength)
+            if (crc.value.toInt() != expected) {
+                buffer.position(start)
+                break
+            }
+            apply(buffer)
+        }
+
+        size = buffer.position().toLong()
+        if (size < length) {
+            channel.truncate(size)
+            channel.force(false)
+        }
+    }
+
+    private fun apply(record: ByteBuffer) {
+        val op = record.get()
+        val section = string(record)
+        when (op) {
+            SET -> {
+                val key = string(record)
+                (if (section == Ini.ROOT) ini else ini.section(section))[key] = string(record)
+            }
+            REMOVE_PROPERTY -> ini.sectionOrNull(section)?.removeProperty(string(record))
+            REMOVE_SECTION -> ini.removeSection(section)
+            ADD -> {
+                val key = string(record)
+                (if (section == Ini.ROOT) ini else ini.section(section)).add(key, string(record))
+            }
+            else -> throw IOException("Unknown journal record $op in $log")
+        }
+    }
+
+    private fun string(buffer: ByteBuffer): String {
+        val length = buffer.getInt()
+        val s = String(buffer.array(), buffer.position(), length, Charsets.UTF_8)
+        buffer.position(buffer.position() + length)
+        return s
+    }
+
+    private fun rethrowFailure() {
+        val e = failure ?: return
+        failure = null
+        throw e
+    }
+
+    companion object {
+        /**
+         * The file name suffix of the logs.
+         */
+        const val SUFFIX = ".journal"
+
+        /**
+         * The default [compactionThreshold], 1 MiB.
+         */
+        const val DEFAULT_COMPACTION_THRESHOLD = 1L shl 20
+
+        private const val MAGIC = 0x4B494E4A // "KINJ"
+
+        private const val VERSION: Short = 1
+
+        private const val HEADER_SIZE = 8
+
+        private const val SET: Byte = 1
+
+        private const val REMOVE_PROPERTY: Byte = 2
+
+        private const val REMOVE_SECTION: Byte = 3
+
+        private const val ADD: Byte = 4
+
+        /**
+         * The line terminators of the scanner besides the control characters.
+         */
+        private const val LINE_TERMINATORS = "\u0085\u2028\u2029"
+
+        /**
+         * Characters that make a value go through [encode]: comment starts, quotes and escapes.
+         */
+        private const val SPECIAL = ";#\"'\\$LINE_TERMINATORS"
+
+        private fun isPlain(value: String): Boolean =
+            !value.first().isWhitespace() && !value.last().isWhitespace() && value.none { it < ' ' || it in SPECIAL }
+
+        /**
+         * Whether [key] is read back as a key: [IniSection.set] accepts any string, the INI format does not.
+         */
+        private fun isWritableKey(key: String): Boolean =
+            key.isNotEmpty() && !key.first().isWhitespace() && !key.last().isWhitespace() &&
+                    key.first() !in "[;#" && key.none { it == '=' || it == ':' || it < ' ' && it != '\t' || it in LINE_TERMINATORS } &&
+                    key != IniScanner.INCLUDE_KEY && !(key.startsWith(IniScanner.INCLUDE_DIRECTIVE) &&
+                    (key.length == IniScanner.INCLUDE_DIRECTIVE.length || key[IniScanner.INCLUDE_DIRECTIVE.length].isWhitespace()))
+
+        private fun isWritableSection(name: String): Boolean =
+            name.isNotEmpty() && !name.first().isWhitespace() && !name.last().isWhitespace() &&
+                    name.none { it == ']' || it < ' ' || it in LINE_TERMINATORS }
+
+        /**
+         * Writes [value] as a double-quoted string with escape sequences, for [IniLoadOptions.decodeEscapes].
+         * Leading blanks are escaped too, as the parser trims quoted values on the left.
+         */
+        private fun escape(value: String): String {
+            val b = StringBuilder(value.length + 8).append('"')
+            var leading = true
+            value.forEach { c ->
+                leading = leading && c.isWhitespace()
+                when {
+                    c == '\\' -> b.append("\\\\")
+                    c == '\n' -> b.append("\\n")
+                    c == '\r' -> b.append("\\r")
+                    c == '\t' && !leading -> b.append("\\t")
+                    c == '"' || c < ' ' || leading || c in LINE_TERMINATORS -> b.append("\\u").append(String.format("%04x", c.code))
+                    else -> b.append(c)
+                }
+            }
+            return b.append('"').toString()
+        }
+
+        private fun header(): ByteBuffer = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putShort(0).flip()
+    }
+}
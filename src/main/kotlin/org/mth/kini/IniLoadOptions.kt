@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.util.concurrent.ExecutorService
+
+/**
+ * Options controlling how [Ini.load] reads an INI file from the filesystem.
+ *
+ * Example:
+ * ```
+ * val cache = IniCache()
+ * val ini = Ini.load(Path.of("app.ini"), IniLoadOptions(cache = cache))
+ * ```
+ *
+ * @param resolveIncludes Whether the files referenced by `@include` / `!include` directives are loaded and
+ * merged into the result. Off by default, since it reads further files from disk: the directives are
+ * then only listed in [Ini.includes].
+ * @param cache An optional [IniCache] through which every file (the included ones too) is parsed, so that
+ * only modified files are parsed again.
+ * @param executor The executor used to parse included files in parallel. Defaults to the common
+ * fork-join pool, or to a virtual thread per file on Java 21 and later.
+ * @param caseInsensitive Whether the loaded [Ini] compares section and property names ignoring the case
+ * of ASCII letters, see [Ini.isCaseInsensitive].
+ * @param multiValue Whether keys repeated within a section keep all their values, read through
+ * [IniSection.getAll], instead of the last one only. Files are then parsed without going through [cache],
+ * which holds single-valued parses.
+ * @param offHeap Whether keys and values are stored outside the Java heap, in direct byte buffers indexed
+ * by off-heap hash tables, and decoded only when read. Meant for configurations with millions of
+ * properties, it trades slower lookups for a heap (and garbage collection work) independent of the
+ * number of properties. The off-heap size is bounded by `-XX:MaxDirectMemorySize`. The sections share
+ * the off-heap storage, which is thread-safe: different sections can still be written concurrently.
+ * @param engine The scanner parsing the text, see [IniParserEngine].
+ * @param decodeEscapes Whether the escape sequences of quoted values (`\\`, `\'`, `\"`, `\t`, `\n`, `\r`,
+ * `\b`, `\f`, `\0` and `\uXXXX`) are decoded; otherwise they are kept as written. A double quote still
+ * closes a double-quoted value, so it is written `\u0022` there. Files are then parsed without going
+ * through [cache], which holds parses with the default options.
+ * @param schema If set, the configuration is validated against it while parsed, see [IniSchema]; an
+ * [IniValidationException] reports the violations. Files are then parsed without going through [cache].
+ * @param lazySections Whether the sections are parsed on first use rather than at load time. Loading then
+ * only locates the section headers, in a pass that builds no property, and parses the global properties;
+ * each other section is parsed once, by the first call reaching it ([Ini.section], [Ini.sections] or any
+ * function going through all of them), even from several threads. Meant for large files of which each
+ * process reads a few sections, at the cost of keeping the text in memory until every section is parsed.
+ * Ignored with [offHeap] or a [schema], and for files loaded through [cache] or merged with their includes.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+data class IniLoadOptions @JvmOverloads constructor(
+    val resolveIncludes: Boolean = false,
+    val cache: IniCache? = null,
+    val executor: ExecutorService? = null,
+    val caseInsensitive: Boolean = false,
+    val multiValue: Boolean = false,
+    val offHeap: Boolean = false,
+    val engine: IniParserEngine = IniParserEngine.JFLEX,
+    val decodeEscapes: Boolean = false,
+    val schema: IniSchema? = null,
+    val lazySections: Boolean = false
+) {
+    /**
+     * Whether files can be parsed through [cache], which holds parses with the default options.
+     */
+    internal val cacheable: Boolean
+        get() = !multiValue && !decodeEscapes && schema == null
+
+    companion object {
+        /**
+         * The options used by [Ini.load] when none are given.
+         */
+        @JvmField
+        val DEFAULT = IniLoadOptions()
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.nio.file.Path
+import java.util.ServiceConfigurationError
+import java.util.ServiceLoader
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Listener notified of the work done by the library: parsing, storing, merging and, optionally, a sample
+ * of the property lookups. All methods have an empty default implementation.
+ *
+ * A single listener is active in the process. It is either [installed][install] explicitly, or the
+ * first implementation registered as a [ServiceLoader] provider, or otherwise [NOOP], which is also
+ * used when a provider cannot be loaded. Listeners are called synchronously on the thread doing the
+ * work, so they should be fast and thread-safe.
+ *
+ * Example:
+ * ```
+ * val metrics = HistogramIniMetrics()
+ * IniMetrics.install(metrics, lookupSampleRate = 1000)
+ * ...
+ * println(metrics.loadNanos.percentile(0.99))
+ * ```
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+interface IniMetrics {
+
+    /**
+     * Called after a file or stream has been parsed. Files loaded with their includes are reported
+     * one by one.
+     *
+     * @param path The parsed file, or `null` for streams.
+     * @param bytes The size of the parsed file in bytes, or `-1` for streams.
+     * @param chars The number of chars scanned.
+     * @param sections The number of explicit sections parsed.
+     * @param properties The number of properties parsed, global ones included.
+     * @param nanos The parsing time in nanoseconds.
+     */
+    fun loaded(path: Path?, bytes: Long, chars: Long, sections: Int, properties: Int, nanos: Long) {}
+
+    /**
+     * Called after an [Ini] has been written to a file.
+     *
+     * @param path The written file.
+     * @param bytes The number of bytes written.
+     * @param nanos The time spent serializing and writing, in nanoseconds.
+     */
+    fun stored(path: Path, bytes: Long, nanos: Long) {}
+
+    /**
+     * Called after [Ini.merge].
+     *
+     * @param sections The number of non-empty sections merged.
+     * @param properties The number of properties merged, global ones included.
+     * @param nanos The merge time in nanoseconds.
+     */
+    fun merged(sections: Int, properties: Int, nanos: Long) {}
+
+    /**
+     * Called for a sample of the [IniSection.get] calls, see [install].
+     *
+     * @param section The name of the section looked up.
+     * @param name The property name.
+     * @param found Whether the property exists.
+     * @param nanos The lookup time in nanoseconds.
+     */
+    fun lookedUp(section: String, name: String, found: Boolean, nanos: Long) {}
+
+    companion object {
+        /**
+         * The listener ignoring every notification, active when no other is installed.
+         */
+        @JvmField
+        val NOOP: IniMetrics = object : IniMetrics {}
+
+        /**
+         * Returns the currently active listener.
+         */
+        @JvmStatic
+        fun installed(): IniMetrics = MetricsRegistry.metrics
+
+        /**
+         * Replaces the active listener.
+         *
+         * @param metrics The new listener, [NOOP] to disable the notifications.
+         * @param lookupSampleRate Notify one [IniSection.get] call out of this many, on average;
+         * `0` (the default) disables lookup notifications, `1` notifies every lookup.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun install(metrics: IniMetrics, lookupSampleRate: Int = 0) {
+            require(lookupSampleRate >= 0) { "lookupSampleRate must not be negative" }
+            MetricsRegistry.metrics = metrics
+            MetricsRegistry.sampleRate = if (metrics === NOOP) 0 else lookupSampleRate
+        }
+    }
+}
+
+/**
+ * Holder of the active [IniMetrics], read on every instrumented call.
+ */
+internal object MetricsRegistry {
+
+    @JvmField
+    @Volatile
+    var metrics: IniMetrics = try {
+        ServiceLoader.load(IniMetrics::class.java).findFirst().orElse(IniMetrics.NOOP)
+    } catch (e: ServiceConfigurationError) {
+        // a broken provider must not make every INI operation fail with an ExceptionInInitializerError
+        IniMetrics.NOOP
+    }
+
+    @JvmField
+    @Volatile
+    var sampleRate: Int = 0
+
+    val enabled: Boolean get() = metrics !== IniMetrics.NOOP
+
+    fun sampled(): Boolean {
+        val rate = sampleRate
+        return rate != 0 && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0)
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+/**
+ * The scanner used to parse INI text, see [IniLoadOptions.engine]. Both engines produce the same
+ * result, errors included, on any input that does not end with an unpaired high surrogate: [JFLEX]
+ * then drops the last chunk it read, while [FAST] keeps it. Text decoded from bytes never ends that way,
+ * as charset decoders replace malformed input; only a [java.io.Reader] over arbitrary `char`s can.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+enum class IniParserEngine {
+    /**
+     * The table-driven scanner generated by JFlex, [IniScanner], which reads the input incrementally.
+     */
+    JFLEX,
+
+    /**
+     * A hand-written scanner which reads the whole input first, then finds the delimiters of each
+     * token with tight search loops and copies plain runs of characters at once.
+     */
+    FAST
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * A compiled selection of properties by section and key patterns, e.g. `db.*` + `pool.*`.
+ *
+ * Glob patterns are written as `section/key`:
+ * - `*` matches any run of characters within a dotted segment, `**` any run across segments, and
+ *   `?` a single character other than a dot; any other character matches itself;
+ * - a pattern without `/` selects all the keys of the matching sections;
+ * - an empty section part selects the global properties, e.g. `/timeout*`.
+ *
+ * Candidates are pruned through the literal prefix of each part (the characters before the first
+ * wildcard), looked up in sorted indexes of section names and keys, so that only the names sharing that
+ * prefix are tested against the pattern. Regex queries, built by [regex], cannot be pruned and test
+ * every name.
+ *
+ * Compiled queries are immutable and can be reused across [Ini] instances and threads; [compile] keeps
+ * a cache of recently compiled glob patterns.
+ *
+ * Example:
+ * ```
+ * ini.query("db.mysql/pool.*").forEach { println("${it.path} = ${it.value}") }
+ * val replicas = IniQuery.compile("db.**")   // all the keys of the sections under db
+ * ```
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class IniQuery private constructor(
+    /**
+     * The source of this query.
+     */
+    val pattern: String,
+    private val sectionPart: Part?,
+    private val keyPart: Part
+) {
+
+    /**
+     * A property selected by a query. The value is read when requested.
+     */
+    class Match internal constructor(
+        /**
+         * The section containing the property, the [Ini] itself for global properties.
+         */
+        val section: IniSection,
+        /**
+         * The property name.
+         */
+        val key: String
+    ) {
+        /**
+         * The current value of the property.
+         */
+        val value: String? get() = section[key]
+
+        /**
+         * The dotted path of the property, `section.key`, or only `key` for global properties.
+         */
+        val path: String get() = if (section is Ini) key else "${section.sectionName}.$key"
+
+        override fun toString(): String = "$path=$value"
+    }
+
+    /**
+     * One side of the query: a literal prefix, and the pattern the full name must match (`null` if the
+     * name must be equal to the prefix). Names of case-insensitive INIs are matched ignoring the case of
+     * ASCII letters.
+     */
+    private class Part(val prefix: String, val regex: Regex?) {
+        private val foldedRegex: Regex? by lazy {
+            regex?.let { Regex(it.pattern, it.options + RegexOption.IGNORE_CASE) }
+        }
+
+        fun matches(name: String, ignoreCase: Boolean): Boolean = when {
+            !ignoreCase -> if (regex == null) name == prefix else name.startsWith(prefix) && regex.matches(name)
+            regex == null -> CaseInsensitiveMap.equalsIgnoreCase(name, prefix)
+            else -> CaseInsensitiveMap.startsWithIgnoreCase(name, prefix) && foldedRegex!!.matches(name)
+        }
+
+        /**
+         * Returns the candidates among [sorted] names: the range sharing [prefix]. The names are sorted by
+         * [CaseInsensitiveMap.ORDER] if [ignoreCase].
+         */
+        fun candidates(sorted: Array<String>, ignoreCase: Boolean): Sequence<String> {
+            if (prefix.isEmpty()) return sorted.asSequence()
+
+            var from = if (ignoreCase) sorted.binarySearch(prefix, CaseInsensitiveMap.ORDER) else sorted.binarySearch(prefix)
+            if (from < 0) from = -from - 1
+            if (regex == null) {
+                return if (from < sorted.size && matches(sorted[from], ignoreCase)) sequenceOf(sorted[from]) else emptySequence()
+            }
+
+            return generateSequence(from) { it + 1 }
+                .takeWhile {
+                    it < sorted.size &&
+                        if (ignoreCase) CaseInsensitiveMap.startsWithIgnoreCase(sorted[it], prefix) else sorted[it].startsWith(prefix)
+                }
+                .map { sorted[it] }
+        }
+    }
+
+    /**
+     * Lazily selects the matching properties of [ini], sections in natural order and, within each
+     * section, keys in natural order. Modifying [ini] while iterating leads to undefined results.
+     */
+    fun select(ini: Ini): Sequence<Match> {
+        val sections: Sequence<IniSection> = if (sectionPart == null) {
+            sequenceOf(ini)
+        } else {
+            val ignoreCase = ini.isCaseInsensitive
+            sectionPart.candidates(ini.sortedSectionNames(), ignoreCase)
+                .filter { sectionPart.matches(it, ignoreCase) }
+                .mapNotNull { ini.sectionOrNull(it) }
+        }
+
+        return sections.flatMap { section ->
+            val ignoreCase = section.isCaseInsensitive
+            keyPart.candidates(section.sortedKeys(), ignoreCase)
+                .filter { keyPart.matches(it, ignoreCase) }
+                .map { Match(section, it) }
+        }
+    }
+
+    override fun toString(): String = pattern
+
+    companion object {
+        private const val CACHE_SIZE = 256
+
+        private val cache = ConcurrentHashMap<String, IniQuery>()
+
+        private val ANY = Part("", Regex(".*", RegexOption.DOT_MATCHES_ALL))
+
+        /**
+         * Compiles a `section/key` glob pattern, or returns the cached compilation of the same pattern.
+         *
+         * @throws IllegalArgumentException If the pattern contains more than one `/`.
+         */
+        @JvmStatic
+        fun compile(pattern: String): IniQuery {
+            cache[pattern]?.let { return it }
+
+            val slash = pattern.indexOf('/')
+            require(slash < 0 || pattern.indexOf('/', slash + 1) < 0) { "Invalid query '$pattern': more than one '/'" }
+
+            val query = if (slash < 0) {
+                IniQuery(pattern, glob(pattern), ANY)
+            } else {
+                val section = pattern.substring(0, slash)
+                IniQuery(pattern, if (section.isEmpty()) null else glob(section), glob(pattern.substring(slash + 1)))
+            }
+
+            // a plain bound, queries being cheap to compile again
+            if (cache.size >= CACHE_SIZE) cache.clear()
+            cache[pattern] = query
+            return query
+        }
+
+        /**
+         * Creates a query matching section names against [section] (or the global properties if `null`)
+         * and keys against [key]. Both expressions must match the entire name.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun regex(section: Regex?, key: Regex = ANY.regex!!): IniQuery =
+            IniQuery("${section?.pattern ?: ""}/${key.pattern}", section?.let { Part("", it) }, Part("", key))
+
+        /**
+         * Translates a glob into a [Part], taking the characters before the first wildcard as prefix.
+         */
+        private fun glob(glob: String): Part {
+            val wildcard = glob.indexOfFirst { it == '*' || it == '?' }
+            if (wildcard < 0) return Part(glob, null)
+
+            val regex = StringBuilder()
+            var literal = 0
+            var i = 0
+            while (i < glob.length) {
+                val c = glob[i]
+                if (c == '*' || c == '?') {
+                    if (literal < i) regex.append(Regex.escape(glob.substring(literal, i)))
+                    if (c == '?') {
+                        regex.append("[^.]")
+                    } else if (i + 1 < glob.length && glob[i + 1] == '*') {
+                        regex.append(".*")
+                        i++
+                    } else {
+                        regex.append("[^.]*")
+                    }
+                    literal = i + 1
+                }
+                i++
+            }
+            if (literal < glob.length) regex.append(Regex.escape(glob.substring(literal)))
+            return Part(glob.substring(0, wildcard), Regex(regex.toString(), RegexOption.DOT_MATCHES_ALL))
+        }
+    }
+}
@@ -63,161 +63,69 @@ public class IniScanner {
             0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7
     };
 
-    /**
-     * Top-level table for translating characters to character classes
+    /*
+     * The tables below are the ones generated by JFlex, unpacked ahead of time: as literals, they cost
+     * a few array stores on class initialization instead of decoding packed strings, and the two-level
+     * character map (4352 + 512 entries) collapses into one ASCII table, as every other character falls
+     * into class 0.
      */
-    private static final int[] ZZ_CMAP_TOP = zzUnpackcmap_top();
-
-    private static final String ZZ_CMAP_TOP_PACKED_0 =
-            "\1\0\u10ff\u0100";
-
-    private static int[] zzUnpackcmap_top() {
-        int[] result = new int[4352];
-        int offset = 0;
-        offset = zzUnpackcmap_top(ZZ_CMAP_TOP_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpackcmap_top(String packed, int offset, int[] result) {
-        int i = 0;       /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length();
-        while (i < l) {
-            int count = packed.charAt(i++);
-            int value = packed.charAt(i++);
-            do result[j++] = value; while (--count > 0);
-        }
-        return j;
-    }
-
 
     /**
-     * Second-level tables for translating characters to character classes
+     * Translates ASCII characters to character classes; all the other characters are in class 0.
      */
-    private static final int[] ZZ_CMAP_BLOCKS = zzUnpackcmap_blocks();
-
-    private static final String ZZ_CMAP_BLOCKS_PACKED_0 =
-            "\11\0\1\1\1\2\2\0\1\3\22\0\1\1\1\0" +
-                    "\1\4\1\5\3\0\1\6\10\0\1\7\11\0\1\10" +
-                    "\1\5\1\0\1\10\35\0\1\11\1\12\1\13\10\0" +
-                    "\1\7\7\0\1\7\3\0\1\7\1\0\1\7\u018b\0";
-
-    private static int[] zzUnpackcmap_blocks() {
-        int[] result = new int[512];
-        int offset = 0;
-        offset = zzUnpackcmap_blocks(ZZ_CMAP_BLOCKS_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpackcmap_blocks(String packed, int offset, int[] result) {
-        int i = 0;       /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length();
-        while (i < l) {
-            int count = packed.charAt(i++);
-            int value = packed.charAt(i++);
-            do result[j++] = value; while (--count > 0);
-        }
-        return j;
-    }
+    private static final int[] ZZ_CMAP = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 2, 0, 0, 3, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 0, 4, 5, 0, 0, 0, 6, 0, 0, 0, 0, 0, 0, 0, 0,
+            7, 0, 0, 0, 0, 0, 0, 0, 0, 0, 8, 5, 0, 8, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 9, 10, 11, 0, 0,
+            0, 0, 0, 0, 0, 0, 7, 0, 0, 0, 0, 0, 0, 0, 7, 0,
+            0, 0, 7, 0, 7, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
 
     /**
      * Translates DFA states to action switch labels.
      */
-    private static final int[] ZZ_ACTION = zzUnpackAction();
-
-    private static final String ZZ_ACTION_PACKED_0 =
-            "\10\0\2\1\2\2\1\3\1\4\1\5\1\6\1\7" +
-                    "\1\10\2\11\2\12\1\13\1\2\1\6\2\14\1\15" +
-                    "\1\11\2\16\2\0\1\17\1\20\1\21";
-
-    private static int[] zzUnpackAction() {
-        int[] result = new int[36];
-        int offset = 0;
-        offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpackAction(String packed, int offset, int[] result) {
-        int i = 0;       /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length();
-        while (i < l) {
-            int count = packed.charAt(i++);
-            int value = packed.charAt(i++);
-            do result[j++] = value; while (--count > 0);
-        }
-        return j;
-    }
-
+    private static final int[] ZZ_ACTION = {
+            0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 2, 2, 3, 4, 5, 6,
+            7, 8, 9, 9, 10, 10, 11, 2, 6, 12, 12, 13, 9, 14, 14, 0,
+            0, 15, 16, 17
+    };
 
     /**
      * Translates a state to a row index in the transition table
      */
-    private static final int[] ZZ_ROWMAP = zzUnpackRowMap();
-
-    private static final String ZZ_ROWMAP_PACKED_0 =
-            "\0\0\0\14\0\30\0\44\0\60\0\74\0\110\0\124" +
-                    "\0\14\0\140\0\14\0\154\0\14\0\14\0\170\0\14" +
-                    "\0\204\0\14\0\14\0\220\0\14\0\234\0\14\0\250" +
-                    "\0\264\0\14\0\300\0\14\0\314\0\14\0\330\0\140" +
-                    "\0\220\0\14\0\14\0\14";
-
-    private static int[] zzUnpackRowMap() {
-        int[] result = new int[36];
-        int offset = 0;
-        offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpackRowMap(String packed, int offset, int[] result) {
-        int i = 0;  /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length() - 1;
-        while (i < l) {
-            int high = packed.charAt(i++) << 16;
-            result[j++] = high | packed.charAt(i++);
-        }
-        return j;
-    }
+    private static final int[] ZZ_ROWMAP = {
+            0, 12, 24, 36, 48, 60, 72, 84, 12, 96, 12, 108, 12, 12, 120, 12,
+            132, 12, 12, 144, 12, 156, 12, 168, 180, 12, 192, 12, 204, 12, 216, 96,
+            144, 12, 12, 12
+    };
 
     /**
      * The transition table of the DFA
      */
-    private static final int[] ZZ_TRANS = zzUnpacktrans();
-
-    private static final String ZZ_TRANS_PACKED_0 =
-            "\1\11\1\12\1\13\1\14\1\11\1\15\3\11\1\16" +
-                    "\2\11\14\0\13\17\1\20\10\21\1\22\3\21\1\23" +
-                    "\1\24\1\25\1\26\1\23\1\27\6\23\2\30\1\20" +
-                    "\1\31\10\30\2\23\1\32\1\33\1\34\5\23\1\35" +
-                    "\3\23\1\36\1\37\2\23\1\34\3\23\1\35\1\23" +
-                    "\1\0\1\40\3\0\1\15\10\0\1\13\11\0\13\17" +
-                    "\1\0\10\21\1\0\3\21\1\0\1\41\2\0\1\42" +
-                    "\1\0\1\43\7\0\1\25\11\0\2\30\2\0\10\30" +
-                    "\2\0\1\20\13\0\1\32\16\0\3\44\2\0\1\44" +
-                    "\3\0\1\36\11\0";
-
-    private static int[] zzUnpacktrans() {
-        int[] result = new int[228];
-        int offset = 0;
-        offset = zzUnpacktrans(ZZ_TRANS_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpacktrans(String packed, int offset, int[] result) {
-        int i = 0;       /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length();
-        while (i < l) {
-            int count = packed.charAt(i++);
-            int value = packed.charAt(i++);
-            value--;
-            do result[j++] = value; while (--count > 0);
-        }
-        return j;
-    }
-
+    private static final int[] ZZ_TRANS = {
+            8, 9, 10, 11, 8, 12, 8, 8, 8, 13, 8, 8,
+            -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            14, 14, 14, 14, 14, 14, 14, 14, 14, 14, 14, 15,
+            16, 16, 16, 16, 16, 16, 16, 16, 17, 16, 16, 16,
+            18, 19, 20, 21, 18, 22, 18, 18, 18, 18, 18, 18,
+            23, 23, 15, 24, 23, 23, 23, 23, 23, 23, 23, 23,
+            18, 18, 25, 26, 27, 18, 18, 18, 18, 18, 28, 18,
+            18, 18, 29, 30, 18, 18, 27, 18, 18, 18, 28, 18,
+            -1, 31, -1, -1, -1, 12, -1, -1, -1, -1, -1, -1,
+            -1, -1, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            14, 14, 14, 14, 14, 14, 14, 14, 14, 14, 14, -1,
+            16, 16, 16, 16, 16, 16, 16, 16, -1, 16, 16, 16,
+            -1, 32, -1, -1, 33, -1, 34, -1, -1, -1, -1, -1,
+            -1, -1, 20, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            23, 23, -1, -1, 23, 23, 23, 23, 23, 23, 23, 23,
+            -1, -1, 15, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            -1, -1, 25, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+            -1, -1, -1, -1, -1, 35, 35, 35, -1, -1, 35, -1,
+            -1, -1, 29, -1, -1, -1, -1, -1, -1, -1, -1, -1
+    };
 
     /**
      * Error code for "Unknown internal scanner error".
@@ -245,32 +153,11 @@ public class IniScanner {
     /**
      * ZZ_ATTRIBUTE[aState] contains the attributes of state {@code aState}
      */
-    private static final int[] ZZ_ATTRIBUTE = zzUnpackAttribute();
-
-    private static final String ZZ_ATTRIBUTE_PACKED_0 =
-            "\1\0\1\10\6\0\1\11\1\1\1\11\1\1\2\11" +
-                    "\1\1\1\11\1\1\2\11\1\1\1\11\1\1\1\11" +
-                    "\2\1\1\11\1\1\1\11\1\1\1\11\1\1\2\0" +
-                    "\3\11";
-
-    private static int[] zzUnpackAttribute() {
-        int[] result = new int[36];
-        int offset = 0;
-        offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
-        return result;
-    }
-
-    private static int zzUnpackAttribute(String packed, int offset, int[] result) {
-        int i = 0;       /* index in packed string  */
-        int j = offset;  /* index in unpacked array */
-        int l = packed.length();
-        while (i < l) {
-            int count = packed.charAt(i++);
-            int value = packed.charAt(i++);
-            do result[j++] = value; while (--count > 0);
-        }
-        return j;
-    }
+    private static final int[] ZZ_ATTRIBUTE = {
+            0, 8, 0, 0, 0, 0, 0, 0, 9, 1, 9, 1, 9, 9, 1, 9,
+            1, 9, 9, 1, 9, 1, 9, 1, 1, 9, 1, 9, 1, 9, 1, 0,
+            0, 9, 9, 9
+    };
 
     /**
      * Input device.
@@ -358,11 +245,52 @@ public class IniScanner {
     /* user code: */
     public static final String DEFAULT_SECTION = "§§§§§";
 
+    /**
+     * Keys of the properties interpreted as include directives ({@code @include = path}).
+     */
+    public static final String INCLUDE_KEY = "@include";
+
+    /**
+     * Prefix of the line-level include directives ({@code !include path}).
+     */
+    public static final String INCLUDE_DIRECTIVE = "!include";
+
+    /**
+     * Receives the properties as they are scanned, in file order, with the 1-based line of their delimiter.
+     */
+    public interface PropertySink {
+        void property(String section, String name, String value, int line);
+    }
+
     public Map<String, List<String[]>> ini = new HashMap<>();
+    /**
+     * If set, properties are passed to this sink instead of being collected in {@link #ini}.
+     */
+    public PropertySink sink;
+    /**
+     * Paths of the included files, in declaration order.
+     */
+    public List<String> includes = new ArrayList<>();
     String currentSection = DEFAULT_SECTION;
     String[] property = new String[2];
     StringBuilder propertyValue;
+    /**
+     * The 1-based line of the delimiter of the current property.
+     */
+    int propertyLine;
     boolean quotedValue = false;
+    /**
+     * Whether the escape sequences of quoted values are decoded, see {@link #decodeEscapes(String)}.
+     */
+    boolean decodeEscapes;
+    /**
+     * A {@code !include} directive not terminated by a line break yet.
+     */
+    String pendingDirective;
+    /**
+     * Number of chars read from the input so far.
+     */
+    public long charsRead;
 
     List<String[]> section(String name) {
         if (!ini.containsKey(name)) {
@@ -382,21 +310,157 @@ public class IniScanner {
     void addProperty() {
         String value;
 
-        if (quotedValue)
+        if (quotedValue) {
             value = propertyValue.toString().stripLeading();
-        else
+            if (decodeEscapes) value = decodeEscapes(value);
+        } else
             value = propertyValue.toString().trim();
 
         property[1] = value;
-        section(currentSection).add(property);
+        if (INCLUDE_KEY.equals(property[0]) || INCLUDE_DIRECTIVE.equals(property[0]))
+            includes.add(value);
+        else if (sink != null)
+            sink.property(currentSection, property[0], value, propertyLine);
+        else
+            section(currentSection).add(property);
         quotedValue = false;
     }
 
+    /**
+     * Checks whether the property name just matched starts with a {@code !include} directive. If so, the
+     * directive is recorded and the rest of the match (which spans the following lines, as the property
+     * name rule stops only at a delimiter) is pushed back to be scanned again.
+     *
+     * @return {@code true} if the match was a directive.
+     */
+    boolean directive() {
+        int length = yylength();
+        int start = 0;
+        while (start < length && Character.isWhitespace(yycharat(start))) start++;
+
+        if (length - start < INCLUDE_DIRECTIVE.length() || yycharat(start) != '!')
+            return false;
+
+        int lineEnd = start;
+        while (lineEnd < length && yycharat(lineEnd) != '\n' && yycharat(lineEnd) != '\r') lineEnd++;
+
+        String line = new String(zzBuffer, zzStartRead + start, lineEnd - start);
+        if (!line.startsWith(INCLUDE_DIRECTIVE)
+                || (line.length() > INCLUDE_DIRECTIVE.length() && !Character.isWhitespace(line.charAt(INCLUDE_DIRECTIVE.length()))))
+            return false;
+
+        if (lineEnd == length) {
+            // followed by a delimiter (!include = path) or by the end of file
+            pendingDirective = line.trim();
+        } else {
+            includes.add(line.substring(INCLUDE_DIRECTIVE.length()).trim());
+            yypushback(length - lineEnd);
+            yybegin(YYINITIAL);
+        }
+        return true;
+    }
+
     void malformed(char c) {
         if (propertyValue.charAt(0) != c)
             propertyValue.insert(0, c);
     }
 
+    /**
+     * Called after the opening {@code quote} of a value. If the closing quote is already in the buffer, with
+     * no backslash, line break or surrogate before it, the string is appended to the value as one slice and
+     * closed, as the DFA would do one match at a time. Otherwise the DFA goes on scanning the string.
+     */
+    void quotedString(char quote) {
+        int end = zzMarkedPos;
+        while (end < zzEndRead) {
+            char c = zzBuffer[end];
+            if (c == quote) break;
+            if (c == '\\' || c == '\n' || c == '\r' || Character.isSurrogate(c)) return;
+            end++;
+        }
+        if (end == zzEndRead) return;
+
+        propertyValue.append(zzBuffer, zzMarkedPos, end - zzMarkedPos);
+        zzMarkedPos = end + 1;
+        quotedValue = true;
+        addProperty();
+        yybegin(YYINITIAL);
+    }
+
+    /**
+     * Decodes the escape sequences of a quoted value: {@code \\}, {@code \'}, {@code \"}, {@code \t},
+     * {@code \n}, {@code \r}, {@code \b}, {@code \f}, {@code \0} and {@code \}{@code uXXXX}. Any other
+     * backslash is kept, as is a {@code \}{@code u} not followed by four hex digits.
+     *
+     * @return {@code text} itself if it contains no backslash.
+     */
+    static String decodeEscapes(String text) {
+        int backslash = text.indexOf('\\');
+        if (backslash < 0) return text;
+
+        StringBuilder decoded = new StringBuilder(text.length());
+        int from = 0;
+        while (backslash >= 0 && backslash + 1 < text.length()) {
+            decoded.append(text, from, backslash);
+            char c = text.charAt(backslash + 1);
+            int next = backslash + 2;
+            switch (c) {
+                case '\\':
+                case '\'':
+                case '"':
+                    decoded.append(c);
+                    break;
+                case 't':
+                    decoded.append('\t');
+                    break;
+                case 'n':
+                    decoded.append('\n');
+                    break;
+                case 'r':
+                    decoded.append('\r');
+                    break;
+                case 'b':
+                    decoded.append('\b');
+                    break;
+                case 'f':
+                    decoded.append('\f');
+                    break;
+                case '0':
+                    decoded.append('\0');
+                    break;
+                case 'u': {
+                    int code = next + 4 <= text.length() ? hex(text, next) : -1;
+                    if (code >= 0) {
+                        decoded.append((char) code);
+                        next += 4;
+                    } else {
+                        decoded.append('\\').append(c);
+                    }
+                    break;
+                }
+                default:
+                    decoded.append('\\').append(c);
+            }
+            from = next;
+            backslash = text.indexOf('\\', from);
+        }
+        return decoded.append(text, from, text.length()).toString();
+    }
+
+    /**
+     * The value of the four hex digits at {@code start}, or -1 if they are not all hex digits.
+     */
+    private static int hex(String text, int start) {
+        int code = 0;
+        for (int i = start; i < start + 4; i++) {
+            char c = text.charAt(i);
+            int digit = c < 128 ? Character.digit(c, 16) : -1;
+            if (digit < 0) return -1;
+            code = code << 4 | digit;
+        }
+        return code;
+    }
+
 
     /**
      * Creates a new scanner
@@ -426,8 +490,7 @@ public class IniScanner {
      * Translates raw input code points to DFA table row
      */
     private static int zzCMap(int input) {
-        int offset = input & 255;
-        return offset == input ? ZZ_CMAP_BLOCKS[offset] : ZZ_CMAP_BLOCKS[ZZ_CMAP_TOP[input >> 8] | offset];
+        return input < ZZ_CMAP.length ? ZZ_CMAP[input] : 0;
     }
 
     /**
@@ -477,6 +540,7 @@ public class IniScanner {
             }
         }
         if (numRead > 0) {
+            charsRead += numRead;
             zzEndRead += numRead;
             if (Character.isHighSurrogate(zzBuffer[zzEndRead - 1])) {
                 if (numRead == requested) { // We requested too few chars to encode a full Unicode character
@@ -487,6 +551,7 @@ public class IniScanner {
                     if (c == -1) {
                         return true;
                     } else {
+                        charsRead++;
                         zzBuffer[zzEndRead++] = (char) c;
                     }
                 }
@@ -734,6 +799,11 @@ public class IniScanner {
                     case 38:
                         break;
                     case PROPERTY_NAME: {
+                        if (pendingDirective != null) {
+                            includes.add(pendingDirective.substring(INCLUDE_DIRECTIVE.length()).trim());
+                            pendingDirective = null;
+                            return 0;
+                        }
                         throw new MalformedInputException(yyline);
                     }  // fall though
                     case 39:
@@ -805,12 +875,18 @@ public class IniScanner {
                     case 23:
                         break;
                     case 7: {
-                        newProperty(yytext());
+                        if (!directive())
+                            newProperty(yytext());
                     }
                     // fall through
                     case 24:
                         break;
                     case 8: {
+                        if (pendingDirective != null) {
+                            newProperty(INCLUDE_DIRECTIVE);
+                            pendingDirective = null;
+                        }
+                        propertyLine = yyline + 1;
                         yybegin(PROPERTY_VALUE);
                     }
                     // fall through
@@ -862,18 +938,20 @@ public class IniScanner {
                         break;
                     case 15: {
                         yybegin(STRING);
+                        quotedString('"');
                     }
                     // fall through
                     case 32:
                         break;
                     case 16: {
                         yybegin(STRING_SINGLE);
+                        quotedString('\'');
                     }
                     // fall through
                     case 33:
                         break;
                     case 17: {
-                        propertyValue.append(yytext());
+                        propertyValue.append(zzBuffer, zzStartRead, zzMarkedPos - zzStartRead);
                     }
                     // fall through
                     case 34:
@@ -0,0 +1,293 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.nio.file.Path
+
+/**
+ * Rules that a configuration must follow: required sections and keys, value types, numeric ranges,
+ * allowed values and patterns.
+ *
+ * A schema passed as [IniLoadOptions.schema] is checked while the file is parsed: each property is
+ * validated as the scanner emits it, with the line of its delimiter, and the required sections and keys
+ * are looked up once the configuration (includes merged) is complete. All the violations are then
+ * reported together by an [IniValidationException]. Values of `INT`, `LONG` and `DOUBLE` keys are kept in
+ * parsed form, so that [IniSection.getInt], [IniSection.getLong] and [IniSection.getDouble] do not parse
+ * them again.
+ *
+ * Patterns are compiled and rules indexed once, when the schema is created; a schema is immutable and
+ * can be shared across loads and threads.
+ *
+ * Example:
+ * ```
+ * val schema = IniSchema(
+ *     listOf(
+ *         IniSchema.Section("server", required = true, keys = listOf(
+ *             IniSchema.Key("port", IniSchema.Type.INT, required = true, min = 1.0, max = 65535.0),
+ *             IniSchema.Key("mode", values = setOf("dev", "prod")),
+ *             IniSchema.Key("host", pattern = "[a-z0-9.-]+")
+ *         ))
+ *     )
+ * )
+ * val ini = Ini.load(Path.of("app.ini"), IniLoadOptions(schema = schema))
+ * ```
+ *
+ * @param sections The rules of each section; a section named `""` holds the rules of the global
+ * properties.
+ * @param allowUnknownSections Whether sections without rules are accepted.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+class IniSchema @JvmOverloads constructor(
+    val sections: List<Section>,
+    val allowUnknownSections: Boolean = true
+) {
+
+    /**
+     * The type of a value, checked with the syntax of the corresponding typed accessor of [IniSection].
+     */
+    enum class Type {
+        STRING,
+        INT,
+        LONG,
+        DOUBLE,
+
+        /**
+         * `true` or `false`, ignoring case.
+         */
+        BOOLEAN
+    }
+
+    /**
+     * The rules of a section.
+     *
+     * @param name The section name, `""` for the global properties.
+     * @param keys The rules of the keys of the section.
+     * @param required Whether the configuration must contain the section.
+     * @param allowUnknownKeys Whether keys without rules are accepted.
+     */
+    data class Section @JvmOverloads constructor(
+        val name: String,
+        val keys: List<Key> = emptyList(),
+        val required: Boolean = false,
+        val allowUnknownKeys: Boolean = true
+    )
+
+    /**
+     * The rules of a key. The constraints other than [type] are only checked on values of the right type.
+     *
+     * @param name The key name.
+     * @param type The type of the value.
+     * @param required Whether the section must contain the key. It is only checked if the section exists.
+     * @param min The minimum of a numeric value, or the minimum length of a `STRING` one.
+     * @param max The maximum of a numeric value, or the maximum length of a `STRING` one.
+     * @param values If set, the only values allowed.
+     * @param pattern If set, a regular expression the whole value must match.
+     */
+    data class Key @JvmOverloads constructor(
+        val name: String,
+        val type: Type = Type.STRING,
+        val required: Boolean = false,
+        val min: Double? = null,
+        val max: Double? = null,
+        val values: Set<String>? = null,
+        val pattern: String? = null
+    )
+
+    /**
+     * A property, section or key breaking the schema.
+     *
+     * @param source The file containing the property, `null` if not loaded from a file.
+     * @param line The 1-based line of the property, 0 for a missing section or key.
+     * @param section The section name, `""` for the global properties.
+     * @param key The key, `null` for a violation concerning a whole section.
+     * @param message The description of the violation.
+     */
+    data class Violation(
+        val source: Path?,
+        val line: Int,
+        val section: String,
+        val key: String?,
+        val message: String
+    ) {
+        override fun toString(): String = buildString {
+            if (source != null) append(source).append(':')
+            if (line > 0) append(line).append(':')
+            if (isNotEmpty()) append(' ')
+            if (section.isNotEmpty()) append('[').append(section).append("] ")
+            if (key != null) append(key).append(": ")
+            append(message)
+        }
+    }
+
+    internal class KeyRule(val key: Key) {
+        private val regex = key.pattern?.let(::Regex)
+
+        /**
+         * Checks [value], passing each violation to [report], and returns the parsed number, if any.
+         */
+        fun check(value: String, report: (String) -> Unit): Any? {
+            val parsed: Any? = try {
+                when (key.type) {
+                    Type.STRING -> null
+                    Type.INT -> NumberParser.parseInt(value, 0, value.length)
+                    Type.LONG -> NumberParser.parseLong(value, 0, value.length, longSuffix = true)
+                    Type.DOUBLE -> NumberParser.parseDouble(value, 0, value.length)
+                    Type.BOOLEAN -> {
+                        if (!value.equals("true", true) && !value.equals("false", true)) {
+                            report("expected a BOOLEAN: '$value'")
+                            return null
+                        }
+                        null
+                    }
+                }
+            } catch (e: NumberFormatException) {
+                report("expected ${if (key.type == Type.INT) "an" else "a"} ${key.type}: '$value'")
+                return null
+            }
+
+            val measure = if (parsed is Number) parsed.toDouble() else value.length.toDouble()
+            val what = if (parsed is Number) value else "length ${value.length}"
+            if (key.min != null && measure < key.min) report("$what is below the minimum ${display(key.min)}")
+            if (key.max != null && measure > key.max) report("$what is above the maximum ${display(key.max)}")
+            if (key.values != null && value !in key.values) report("'$value' is not one of ${key.values}")
+            if (regex != null && !regex.matches(value)) report("'$value' does not match ${key.pattern}")
+            return parsed
+        }
+
+        private fun display(bound: Double): String =
+            if (bound == Math.rint(bound) && Math.abs(bound) < 1e15) bound.toLong().toString() else bound.toString()
+    }
+
+    internal class SectionRule(val section: Section, ignoreCase: Boolean) {
+        val keys: Map<String, KeyRule> = newMap<KeyRule>(ignoreCase).also { map ->
+            section.keys.forEach { map[it.name] = KeyRule(it) }
+        }
+    }
+
+    private val index by lazy { index(false) }
+
+    private val foldedIndex by lazy { index(true) }
+
+    init {
+        // compiles the patterns
+        index
+    }
+
+    private fun index(ignoreCase: Boolean): Map<String, SectionRule> =
+        newMap<SectionRule>(ignoreCase).also { map ->
+            sections.forEach { map[it.name] = SectionRule(it, ignoreCase) }
+        }
+
+    /**
+     * The rules of the section [name], matched ignoring the case of ASCII letters if [ignoreCase].
+     */
+    internal fun rule(name: String, ignoreCase: Boolean): SectionRule? =
+        if (ignoreCase) foldedIndex[name] else index[name]
+
+    private companion object {
+        fun <V> newMap(ignoreCase: Boolean): MutableMap<String, V> =
+            if (ignoreCase) CaseInsensitiveMap() else HashMap()
+    }
+}
+
+/**
+ * The violations of an [IniSchema] found by one load, collected from all the parsed files.
+ */
+internal class SchemaValidation(private val schema: IniSchema, private val ignoreCase: Boolean) {
+
+    private val violations = ArrayList<IniSchema.Violation>()
+
+    /**
+     * Checks the properties of the file [source] as they are parsed.
+     */
+    inner class FileValidator(private val source: Path?) {
+        private val unknownSections = HashSet<String>()
+
+        /**
+         * Checks the property [key] of the section named [sectionName] by the scanner, just stored in
+         * [target], and keeps its parsed value there.
+         */
+        fun check(sectionName: String, target: IniSection, key: String, value: String, line: Int) {
+            val section = if (sectionName == IniScanner.DEFAULT_SECTION) "" else sectionName
+            val rule = schema.rule(section, ignoreCase)
+            if (rule == null) {
+                if (schema.allowUnknownSections) return
+                if (section.isEmpty()) report(source, line, section, key, "unknown key")
+                else if (unknownSections.add(section)) report(source, line, section, null, "unknown section")
+                return
+            }
+
+            val keyRule = rule.keys[key]
+            if (keyRule == null) {
+                if (!rule.section.allowUnknownKeys) report(source, line, section, key, "unknown key")
+                return
+            }
+
+            val parsed = keyRule.check(value) { report(source, line, section, key, it) }
+            // values referencing others may resolve differently once interpolated
+            if (parsed != null && !value.contains("\${")) target.keepParsed(key, parsed)
+        }
+    }
+
+    fun file(source: Path?) = FileValidator(source)
+
+    /**
+     * Checks the required sections and keys of the complete configuration [ini], loaded from [source],
+     * then throws an [IniValidationException] if any violation has been found.
+     */
+    fun finish(ini: Ini, source: Path?) {
+        for (section in schema.sections) {
+            val target = when {
+                section.name.isEmpty() -> ini
+                ini.hasSection(section.name) -> ini.section(section.name)
+                else -> null
+            }
+            if (target == null) {
+                if (section.required) report(source, 0, section.name, null, "missing required section")
+                continue
+            }
+            section.keys.forEach {
+                if (it.required && !target.hasProperty(it.name)) {
+                    report(source, 0, section.name, it.name, "missing required key")
+                }
+            }
+        }
+
+        val found = synchronized(violations) { violations.toList() }
+        if (found.isNotEmpty()) {
+            throw IniValidationException(
+                found.sortedWith(
+                    compareBy({ it.source?.toString() ?: "" }, { if (it.line == 0) Int.MAX_VALUE else it.line })
+                )
+            )
+        }
+    }
+
+    private fun report(source: Path?, line: Int, section: String, key: String?, message: String) {
+        synchronized(violations) { violations.add(IniSchema.Violation(source, line, section, key, message)) }
+    }
+}
@@ -24,42 +24,350 @@
 
 package org.mth.kini
 
+import java.time.Duration
+import java.util.Collections
+
+/**
+ * A named group of properties.
+ *
+ * @param sectionName The name of the section.
+ * @param isCaseInsensitive Whether property names are compared ignoring the case of ASCII letters,
+ * see [Ini.isCaseInsensitive].
+ * @param arena The off-heap storage of the properties, if any, see [Ini.isOffHeap].
+ * @param expectedKeys The number of properties the section is sized for, see [IniBuilder].
+ */
 @Suppress("unused")
-open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, String>> {
+open class IniSection internal constructor(
+    sectionName: String,
+    val isCaseInsensitive: Boolean,
+    arena: OffHeapArena?,
+    expectedKeys: Int = 0
+) : Iterable<Map.Entry<String, String>> {
+
+    @JvmOverloads
+    constructor(sectionName: String, isCaseInsensitive: Boolean = false) : this(sectionName, isCaseInsensitive, null)
 
-    protected val properties: MutableMap<String, String> = mutableMapOf()
+    /**
+     * The name of the section. It cannot be changed once the section is [frozen][isFrozen].
+     */
+    var sectionName: String = sectionName
+        set(value) {
+            checkNotFrozen()
+            field = value
+        }
+
+    protected val properties: MutableMap<String, String> =
+        if (arena != null) OffHeapMap(arena, isCaseInsensitive) else nameMap(isCaseInsensitive, expectedKeys)
+
+    /**
+     * Values already parsed by the typed accessors, by property name. Entries are dropped as soon as the
+     * corresponding property changes. Created on first use.
+     */
+    @Volatile
+    private var parsedCache: MutableMap<String, Any>? = null
+
+    /**
+     * The [Ini] this section belongs to, if any.
+     */
+    internal var owner: Ini? = null
+
+    /**
+     * Memoized interpolated values, by property name, maintained by the [Interpolator] of the owner.
+     */
+    @Volatile
+    internal var resolvedValues: MutableMap<String, String>? = null
+
+    /**
+     * The property names in natural order, built on first use by [IniQuery] and dropped whenever a
+     * property is added or removed.
+     */
+    @Volatile
+    private var sortedKeys: Array<String>? = null
+
+    /**
+     * All the values of the properties given more than once through [add], by stored property name; the
+     * last value is also the one in [properties]. Created on first use, so that sections whose properties
+     * have a single value pay nothing for multi-value support.
+     */
+    private var multiValues: MutableMap<String, Values>? = null
+
+    /**
+     * The declarations of this section still to be parsed, for sections loaded with
+     * [IniLoadOptions.lazySections]; see [ensureParsed].
+     */
+    @Volatile
+    internal var pendingBody: SectionIndex.Body? = null
+
+    /**
+     * The values of a multi-valued property, packed in an array grown by doubling and trimmed by [trim].
+     */
+    private class Values(first: String, second: String) {
+        var items: Array<String?> = arrayOf(first, second)
+        var size = 2
+
+        operator fun get(index: Int): String = items[index]!!
+
+        fun add(value: String) {
+            if (size == items.size) items = items.copyOf(size * 2)
+            items[size++] = value
+        }
+
+        fun trim() {
+            if (size < items.size) items = items.copyOf(size)
+        }
+    }
 
     /**
      * Get the number of properties in this section
      */
     val propertyCount by properties::size
 
+    /**
+     * Whether this section is read-only: every mutating call throws an [UnsupportedOperationException].
+     * Sections are frozen together with their owning [Ini], see [Ini.freeze].
+     */
+    var isFrozen: Boolean = false
+        internal set
+
+    protected fun checkNotFrozen() {
+        if (isFrozen) throw UnsupportedOperationException("Section '$sectionName' is frozen")
+    }
+
     fun setProperty(name: String, value: Any) {
-        properties[name] = value.toString()
+        checkNotFrozen()
+        if (properties.put(name, value.toString()) == null) sortedKeys = null
+        else dropValues(name)
+        changed(name)
+    }
+
+    /**
+     * Adds a value to the property [name], keeping the values it already has; see [getAll]. Lookups
+     * through [get] and the typed accessors return the last value added.
+     */
+    fun add(name: String, value: String) {
+        checkNotFrozen()
+        addValue(name, value)
+        changed(name)
+    }
+
+    private fun addValue(name: String, value: String) {
+        val previous = properties.put(name, value)
+        if (previous == null) {
+            sortedKeys = null
+        } else {
+            val key = if (isCaseInsensitive) canonicalKey(name)!! else name
+            val values = multiValues ?: HashMap<String, Values>().also { multiValues = it }
+            val all = values[key]
+            if (all == null) values[key] = Values(previous, value) else all.add(value)
+        }
+    }
+
+    private fun putValue(name: String, value: String) {
+        if (properties.put(name, value) == null) sortedKeys = null
+        else dropValues(name)
+    }
+
+    /**
+     * Stores a property read by a lazy parse, or written by an [IniBuilder]. It is not a change: the
+     * property was part of the section all along, so it is stored even if the section is frozen, and no
+     * derived value is dropped.
+     */
+    internal fun load(name: String, value: String, multiValue: Boolean) {
+        if (multiValue) addValue(name, value) else putValue(name, value)
+    }
+
+    /**
+     * Parses the [pendingBody] of this section, once. The owning [Ini] calls it before handing the
+     * section out, so that threads reading the same unparsed section wait for a single parse.
+     */
+    internal fun ensureParsed() {
+        if (pendingBody == null) return
+        synchronized(this) {
+            val body = pendingBody ?: return
+            body.parseInto(this)
+            pendingBody = null
+        }
+    }
+
+    /**
+     * Returns all the values of the property [name] in the order they were added, as written; an empty
+     * list if the property does not exist. Values are collected by [add], which is used for repeated
+     * keys when loading with [IniLoadOptions.multiValue]; [set] replaces all of them.
+     */
+    fun getAll(name: String): List<String> {
+        val key = (if (isCaseInsensitive) canonicalKey(name) else name) ?: return emptyList()
+        val all = multiValues?.get(key) ?: return properties[key]?.let { listOf(it) } ?: emptyList()
+        return List(all.size) { all[it] }
+    }
+
+    /**
+     * Calls [action] on every value of every property, multi-valued properties giving one call per value.
+     */
+    internal fun forEachValue(action: (String, String) -> Unit) {
+        val multiValues = multiValues
+        for ((name, value) in properties) {
+            val all = multiValues?.get(name)
+            if (all == null) action(name, value) else for (i in 0 until all.size) action(name, all[i])
+        }
+    }
+
+    /**
+     * Sets the properties of [source] in this section, multi-valued properties replacing the existing
+     * ones with all their values.
+     */
+    internal fun putAll(source: IniSection) {
+        val multiValues = source.multiValues
+        for ((name, value) in source.properties) {
+            val all = multiValues?.get(name)
+            if (all == null) {
+                this[name] = value
+            } else {
+                this[name] = all[0]
+                for (i in 1 until all.size) add(name, all[i])
+            }
+        }
+        source.parsedCache?.forEach { (name, parsed) -> if (parsed is Number) keepParsed(name, parsed) }
+    }
+
+    /**
+     * Trims the value arrays of multi-valued properties to their size, once loading is complete.
+     */
+    internal fun trimValues() {
+        multiValues?.values?.forEach { it.trim() }
+    }
+
+    private fun dropValues(name: String) {
+        val values = multiValues ?: return
+        values.remove(if (isCaseInsensitive) canonicalKey(name) ?: return else name)
+    }
+
+    /**
+     * Drops every value derived from the property [name], after it has been set or removed.
+     */
+    private fun changed(name: String) {
+        val key = if (isCaseInsensitive) canonicalKey(name) ?: name else name
+        parsedCache?.remove(key)
+        resolvedValues?.remove(key)
+        owner?.interpolator?.invalidate(sectionName, key)
+    }
+
+    /**
+     * Drops the parsed and interpolated values of the property [name].
+     */
+    internal fun forget(name: String) {
+        val key = if (isCaseInsensitive) canonicalKey(name) ?: name else name
+        resolvedValues?.remove(key)
+        parsedCache?.remove(key)
+    }
+
+    /**
+     * Returns the name under which the property [name] is stored, or `null` if it does not exist. In
+     * case-insensitive sections the stored spelling may differ from [name]; it is the one keying the
+     * caches of parsed and interpolated values.
+     */
+    internal fun canonicalKey(name: String): String? {
+        val map = properties
+        if (map is CaseInsensitiveMap) return map.storedKey(name)
+        if (map is OffHeapMap) return map.storedKey(name)
+        return if (map.containsKey(name)) name else null
+    }
+
+    /**
+     * Keeps [value], parsed from the property [name] (e.g. by an [IniSchema]), to be returned by the typed
+     * accessors until the property changes.
+     */
+    internal fun keepParsed(name: String, value: Any) {
+        val key = if (isCaseInsensitive) canonicalKey(name) ?: return else name
+        val map = parsedCache ?: java.util.concurrent.ConcurrentHashMap<String, Any>().also { parsedCache = it }
+        map[key] = value
+    }
+
+    /**
+     * The value kept for the property [name] by [keepParsed] or a cached array, if any.
+     */
+    private fun parsedValue(name: String): Any? {
+        val cache = parsedCache ?: return null
+        return cache[if (isCaseInsensitive) canonicalKey(name) ?: return null else name]
+    }
+
+    /**
+     * Drops all the parsed and interpolated values of this section.
+     */
+    internal fun forgetAll() {
+        resolvedValues = null
+        parsedCache = null
+    }
+
+    /**
+     * Returns the property names sorted in natural order, for prefix range scans.
+     */
+    internal fun sortedKeys(): Array<String> = sortedKeys ?: properties.keys.toTypedArray().also {
+        if (isCaseInsensitive) it.sortWith(CaseInsensitiveMap.ORDER) else it.sort()
+        sortedKeys = it
     }
 
     /**
      * Returns a read-only [Set] of all property keys configured in this section.
      */
-    val keys: Set<String> get() = properties.keys
+    val keys: Set<String> get() = if (isFrozen) Collections.unmodifiableSet(properties.keys) else properties.keys
 
     /**
      * Returns a read-only [Collection] of all property string values configured in this section.
      */
-    val values: Collection<String> get() = properties.values
+    val values: Collection<String>
+        get() = if (isFrozen) Collections.unmodifiableCollection(properties.values) else properties.values
 
-    fun properties(): Map<String, String> = properties
+    /**
+     * Returns the properties of this section. Once the section is [frozen][isFrozen], the map cannot be
+     * modified through casts either.
+     */
+    fun properties(): Map<String, String> = if (isFrozen) Collections.unmodifiableMap(properties) else properties
 
-    operator fun get(name: String): String? = properties[name]
+    /**
+     * Returns the value of a property. If [interpolation][Ini.interpolation] is enabled on the owning
+     * [Ini], `${...}` references are resolved; use [getRaw] to read the value as written.
+     */
+    operator fun get(name: String): String? {
+        if (MetricsRegistry.sampleRate != 0 && MetricsRegistry.sampled()) return sampledGet(name)
+        val interpolator = owner?.interpolator ?: return properties[name]
+        return interpolator.resolve(this, if (isCaseInsensitive) canonicalKey(name) ?: return null else name)
+    }
+
+    private fun sampledGet(name: String): String? {
+        val start = System.nanoTime()
+        val interpolator = owner?.interpolator
+        val value = when {
+            interpolator == null -> properties[name]
+            isCaseInsensitive -> canonicalKey(name)?.let { interpolator.resolve(this, it) }
+            else -> interpolator.resolve(this, name)
+        }
+        MetricsRegistry.metrics.lookedUp(sectionName, name, value != null, System.nanoTime() - start)
+        return value
+    }
+
+    /**
+     * Returns the value of a property as written, without resolving any interpolation reference.
+     */
+    fun getRaw(name: String): String? = properties[name]
 
     operator fun set(name: String, value: String) {
-        properties[name] = value
+        checkNotFrozen()
+        putValue(name, value)
+        changed(name)
     }
 
     /**
      * Remove all the properties in this section
      */
-    fun clear() = properties.clear()
+    fun clear() {
+        checkNotFrozen()
+        val names = if (owner?.interpolator != null) properties.keys.toList() else emptyList()
+        properties.clear()
+        multiValues = null
+        sortedKeys = null
+        parsedCache = null
+        names.forEach { changed(it) }
+    }
 
     fun isEmpty(): Boolean = properties.isEmpty()
 
@@ -69,66 +377,122 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
      */
     fun hasProperty(name: String): Boolean = properties.containsKey(name)
 
-    fun get(name: String, defaultValue: String): String =
-        if (properties.containsKey(name)) get(name)!! else defaultValue
+    fun get(name: String, defaultValue: String): String = get(name) ?: defaultValue
 
-    fun getBoolean(name: String): Boolean = properties[name].toBoolean()
+    fun getBoolean(name: String): Boolean = get(name).toBoolean()
 
-    fun getBoolean(name: String, defaultValue: Boolean): Boolean =
-        if (properties.containsKey(name)) getBoolean(name) else defaultValue
+    fun getBoolean(name: String, defaultValue: Boolean): Boolean = get(name)?.toBoolean() ?: defaultValue
 
-    fun getInt(name: String): Int = Integer.valueOf(properties[name])
+    /**
+     * Parses the specified property as an [Int]. Besides plain decimals, the radix prefixes `0x`, `0o`
+     * and `0b` and underscores between digits (`1_000`) are accepted.
+     *
+     * @throws NumberFormatException If the property is missing or is not a valid [Int].
+     */
+    fun getInt(name: String): Int {
+        (parsedValue(name) as? Int)?.let { return it }
+        val value = numberValue(name)
+        return NumberParser.parseInt(value, 0, value.length)
+    }
 
-    fun getInt(name: String, defaultValue: Int): Int = if (properties.containsKey(name)) getInt(name) else defaultValue
+    fun getInt(name: String, defaultValue: Int): Int {
+        (parsedValue(name) as? Int)?.let { return it }
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseInt(value, 0, value.length)
+    }
 
+    /**
+     * Parses the specified property as a [Long], with the same syntax of [getInt] plus an optional
+     * `L` suffix (`100L`).
+     *
+     * @throws NumberFormatException If the property is missing or is not a valid [Long].
+     */
     fun getLong(name: String): Long {
-        val value = properties[name] ?: throw NumberFormatException("Property '$name' is null")
+        (parsedValue(name) as? Long)?.let { return it }
+        val value = numberValue(name)
         if (value.isEmpty()) throw NumberFormatException("Property '$name' is empty")
-
-        return if (value.last().lowercase() == "l") {
-            value.substring(0, value.length - 1).toLong()
-        } else {
-            value.toLong()
-        }
+        return NumberParser.parseLong(value, 0, value.length, longSuffix = true)
     }
 
     fun getLong(name: String, defaultValue: Long): Long {
-        val value = properties[name] ?: return defaultValue
-        if (value.isEmpty()) return defaultValue
-        return try {
-            if (value.last().lowercase() == "l") {
-                value.substring(0, value.length - 1).toLong()
-            } else {
-                value.toLong()
-            }
-        } catch (e: NumberFormatException) {
-            defaultValue
-        }
+        (parsedValue(name) as? Long)?.let { return it }
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseLongOrDefault(value, 0, value.length, true, defaultValue)
     }
 
     /**
      * Parses the specified property string value as a [Short].
      */
     fun getShort(name: String): Short {
-        val value = properties[name] ?: throw NumberFormatException("Property '$name' is null")
-        return value.toShort()
+        val value = numberValue(name)
+        return NumberParser.parseShort(value, 0, value.length)
     }
 
     /**
      * Parses a property value as a [Short], returning a fallback default if the key is missing.
      */
-    fun getShort(name: String, defaultValue: Short): Short =
-        properties[name]?.toShortOrNull() ?: defaultValue
+    fun getShort(name: String, defaultValue: Short): Short {
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseShortOrDefault(value, 0, value.length, defaultValue)
+    }
 
-    fun getDouble(name: String): Double = java.lang.Double.valueOf(properties[name])
+    fun getDouble(name: String): Double {
+        (parsedValue(name) as? Double)?.let { return it }
+        val value = numberValue(name)
+        return NumberParser.parseDouble(value, 0, value.length)
+    }
 
-    fun getDouble(name: String, defaultValue: Double): Double =
-        if (properties.containsKey(name)) getDouble(name) else defaultValue
+    fun getDouble(name: String, defaultValue: Double): Double {
+        (parsedValue(name) as? Double)?.let { return it }
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseDouble(value, 0, value.length)
+    }
 
-    fun getFloat(name: String): Float = java.lang.Float.valueOf(properties[name])
+    fun getFloat(name: String): Float {
+        val value = numberValue(name)
+        return NumberParser.parseFloat(value, 0, value.length)
+    }
 
-    fun getFloat(name: String, defaultValue: Float): Float =
-        if (properties.containsKey(name)) getFloat(name) else defaultValue
+    fun getFloat(name: String, defaultValue: Float): Float {
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseFloat(value, 0, value.length)
+    }
+
+    /**
+     * Parses the specified property as a size in bytes: an integer optionally followed by a binary unit,
+     * e.g. `512`, `64k`, `16MB` or `2 GiB`. After a hexadecimal integer, the `b` unit must follow a blank
+     * (`0x10 b`), since `0x10b` is the hexadecimal number 267.
+     *
+     * @throws NumberFormatException If the property is missing or is not a valid size.
+     */
+    fun getSize(name: String): Long {
+        val value = numberValue(name)
+        return NumberParser.parseSize(value, 0, value.length)
+    }
+
+    fun getSize(name: String, defaultValue: Long): Long {
+        val value = get(name) ?: return defaultValue
+        return NumberParser.parseSize(value, 0, value.length)
+    }
+
+    /**
+     * Parses the specified property as a [Duration]: an integer optionally followed by a unit among
+     * `ns`, `us`, `ms`, `s`, `m`, `h` and `d`, e.g. `30s` or `250ms`. Values without unit are milliseconds.
+     *
+     * @throws NumberFormatException If the property is missing or is not a valid duration.
+     */
+    fun getDuration(name: String): Duration {
+        val value = numberValue(name)
+        return Duration.ofNanos(NumberParser.parseDurationNanos(value, 0, value.length))
+    }
+
+    fun getDuration(name: String, defaultValue: Duration): Duration {
+        val value = get(name) ?: return defaultValue
+        return Duration.ofNanos(NumberParser.parseDurationNanos(value, 0, value.length))
+    }
+
+    private fun numberValue(name: String): String =
+        get(name) ?: throw NumberFormatException("Property '$name' is null")
 
     /**
      * Parses a bracket-enclosed list property string (e.g., `[val1, val2, val3]`) into a flat array of string elements.
@@ -137,16 +501,10 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
      * @throws UnsupportedOperationException If the formatted string layout is not wrapped inside brackets.
      */
     fun getArray(name: String, separator: String = ","): Array<String> {
-        val value = properties[name]?.trim() ?: throw IllegalArgumentException("No property $name found")
+        val value = get(name) ?: throw IllegalArgumentException("No property $name found")
 
-        if (value.startsWith("[") && value.endsWith("]")) {
-            return value.substring(1, value.length - 1)
-                .split(separator)
-                .map { it.trim() }
-                .toTypedArray()
-        } else {
-            throw UnsupportedOperationException("Property '$name' is not formatted as an array [x, y, z]")
-        }
+        return splitArray(value, separator)
+            ?: throw UnsupportedOperationException("Property '$name' is not formatted as an array [x, y, z]")
     }
 
     /**
@@ -156,16 +514,16 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
      * @throws UnsupportedOperationException If the text layout is unbracketed or the class type context is unsupported.
      */
     fun <T : Number> getNumberArray(name: String, clazz: Class<T>, separator: String = ","): Array<out Number> {
-        val value = properties[name]?.trim() ?: throw IllegalArgumentException("No property $name found")
+        val value = get(name)?.trim() ?: throw IllegalArgumentException("No property $name found")
 
         if (value.startsWith("[") && value.endsWith("]")) {
             val converter: (String) -> Number = when (clazz) {
-                Int::class.java, Integer::class.java -> { s -> s.toInt() }
-                Float::class.java, java.lang.Float::class.java -> { s -> s.toFloat() }
-                Double::class.java, java.lang.Double::class.java -> { s -> s.toDouble() }
-                Long::class.java, java.lang.Long::class.java -> { s -> s.toLong() }
-                Short::class.java, java.lang.Short::class.java -> { s -> s.toShort() }
-                Byte::class.java, java.lang.Byte::class.java -> { s -> s.toByte() }
+                Int::class.java, Integer::class.java -> { s -> NumberParser.parseInt(s, 0, s.length) }
+                Float::class.java, java.lang.Float::class.java -> { s -> NumberParser.parseFloat(s, 0, s.length) }
+                Double::class.java, java.lang.Double::class.java -> { s -> NumberParser.parseDouble(s, 0, s.length) }
+                Long::class.java, java.lang.Long::class.java -> { s -> NumberParser.parseLong(s, 0, s.length, true) }
+                Short::class.java, java.lang.Short::class.java -> { s -> NumberParser.parseShort(s, 0, s.length) }
+                Byte::class.java, java.lang.Byte::class.java -> { s -> NumberParser.parseByte(s, 0, s.length) }
                 else -> throw UnsupportedOperationException("Unsupported number type: ${clazz.name}")
             }
 
@@ -178,7 +536,160 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
         }
     }
 
-    fun removeProperty(name: String) = properties.remove(name)
+    /**
+     * Parses a bracket-enclosed list property string (e.g., `[1, 2, 3]`) into an [IntArray].
+     * Elements are parsed in place, without intermediate substrings or boxing.
+     *
+     * @param separator The character separating the elements. Defaults to `,`.
+     * @param cache If `true`, the parsed array is kept and returned by later calls until the property
+     * changes. Cached arrays are shared, and must not be modified.
+     * @throws IllegalArgumentException If the requested property key name is not found.
+     * @throws UnsupportedOperationException If the formatted string layout is not wrapped inside brackets.
+     * @throws NumberFormatException If an element is not a valid `int`.
+     */
+    @JvmOverloads
+    fun getIntArray(name: String, separator: Char = ',', cache: Boolean = false): IntArray =
+        parseArray(name, separator, cache, ::IntArray) { array, i, s, start, end ->
+            array[i] = NumberParser.parseInt(s, start, end)
+        }
+
+    /**
+     * Parses a bracket-enclosed list property string (e.g., `[1, 2, 3]`) into a [LongArray].
+     * Elements are parsed in place, without intermediate substrings or boxing.
+     *
+     * @param separator The character separating the elements. Defaults to `,`.
+     * @param cache If `true`, the parsed array is kept and returned by later calls until the property
+     * changes. Cached arrays are shared, and must not be modified.
+     * @throws IllegalArgumentException If the requested property key name is not found.
+     * @throws UnsupportedOperationException If the formatted string layout is not wrapped inside brackets.
+     * @throws NumberFormatException If an element is not a valid `long`.
+     */
+    @JvmOverloads
+    fun getLongArray(name: String, separator: Char = ',', cache: Boolean = false): LongArray =
+        parseArray(name, separator, cache, ::LongArray) { array, i, s, start, end ->
+            array[i] = NumberParser.parseLong(s, start, end, longSuffix = true)
+        }
+
+    /**
+     * Parses a bracket-enclosed list property string (e.g., `[0.5, 1e-3]`) into a [DoubleArray].
+     * Elements are parsed in place, without intermediate substrings or boxing.
+     *
+     * @param separator The character separating the elements. Defaults to `,`.
+     * @param cache If `true`, the parsed array is kept and returned by later calls until the property
+     * changes. Cached arrays are shared, and must not be modified.
+     * @throws IllegalArgumentException If the requested property key name is not found.
+     * @throws UnsupportedOperationException If the formatted string layout is not wrapped inside brackets.
+     * @throws NumberFormatException If an element is not a valid `double`.
+     */
+    @JvmOverloads
+    fun getDoubleArray(name: String, separator: Char = ',', cache: Boolean = false): DoubleArray =
+        parseArray(name, separator, cache, ::DoubleArray) { array, i, s, start, end ->
+            array[i] = NumberParser.parseDouble(s, start, end)
+        }
+
+    /**
+     * Scans a bracket-enclosed list in a single pass over the property characters, handing the bounds of
+     * each trimmed element to [parse]. Both lambdas are inlined, so no object is allocated besides the
+     * resulting array.
+     */
+    private inline fun <reified A : Any> parseArray(
+        name: String,
+        separator: Char,
+        cache: Boolean,
+        newArray: (Int) -> A,
+        parse: (array: A, index: Int, value: String, start: Int, end: Int) -> Unit
+    ): A {
+        val key = if (isCaseInsensitive) canonicalKey(name) ?: name else name
+        if (cache) {
+            val cached = parsedCache?.get(key)
+            if (cached is A) return cached
+        }
+
+        val value = get(name) ?: throw IllegalArgumentException("No property $name found")
+
+        var start = 0
+        var end = value.length
+        while (start < end && value[start].isWhitespace()) start++
+        while (end > start && value[end - 1].isWhitespace()) end--
+
+        if (end - start < 2 || value[start] != '[' || value[end - 1] != ']') {
+            throw UnsupportedOperationException("Property '$name' is not formatted as an array [x, y, z]")
+        }
+        start++
+        end--
+
+        var count = 0
+        var blank = true
+        for (i in start until end) {
+            val c = value[i]
+            if (c == separator) count++ else if (!c.isWhitespace()) blank = false
+        }
+
+        val array = newArray(if (blank && count == 0) 0 else count + 1)
+        if (!blank || count > 0) {
+            var index = 0
+            var elementStart = start
+            for (i in start..end) {
+                if (i == end || value[i] == separator) {
+                    var a = elementStart
+                    var b = i
+                    while (a < b && value[a].isWhitespace()) a++
+                    while (b > a && value[b - 1].isWhitespace()) b--
+                    parse(array, index++, value, a, b)
+                    elementStart = i + 1
+                }
+            }
+        }
+
+        if (cache) {
+            val map = parsedCache ?: java.util.concurrent.ConcurrentHashMap<String, Any>().also { parsedCache = it }
+            map[key] = array
+        }
+        return array
+    }
+
+    /**
+     * Binds the properties of this section to a new instance of [type], typically a Kotlin data class or
+     * a Java record, matching constructor parameters with property keys.
+     *
+     * Parameters of scalar type are parsed from the property with the same name; parameters of any other
+     * class are bound recursively from the dotted keys sharing the parameter name as prefix (see
+     * [getGroup]). The binding plan of each type is computed once and cached.
+     *
+     * Example:
+     * ```
+     * data class Pool(val size: Int, val timeout: Long = 30)
+     * data class Database(val host: String, val port: Int, val pool: Pool)
+     *
+     * // host = localhost, port = 5432, pool.size = 10
+     * val db = ini.section("db").bind<Database>()
+     * ```
+     *
+     * @param type The class to instantiate.
+     * @return A new instance of [type].
+     * @throws IniBindingException If the type cannot be bound, reporting all the missing or invalid properties.
+     */
+    fun <T : Any> bind(type: Class<T>): T = IniBinder.of(type).bind(::lookup)
+
+    /**
+     * Binds the properties of this section to a new instance of [T]. See [bind].
+     */
+    inline fun <reified T : Any> bind(): T = bind(T::class.java)
+
+    /**
+     * Resolves a (possibly dotted) key for [bind].
+     */
+    internal open fun lookup(key: String): String? = get(key)
+
+    fun removeProperty(name: String): String? {
+        checkNotFrozen()
+        val key = if (isCaseInsensitive) canonicalKey(name) ?: name else name
+        multiValues?.remove(key)
+        val removed = properties.remove(name)
+        if (removed != null) sortedKeys = null
+        changed(key)
+        return removed
+    }
 
     /**
      * Extracts the distinct next-level tokens (nodes) that follow a given [prefix].
@@ -243,7 +754,7 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
     override fun toString(): String {
         val builder = StringBuilder()
         builder.append("[").append(sectionName).append("]")
-        properties.forEach { (name, value) ->
+        forEachValue { name, value ->
             builder.append("\n\t").append(name).append("=").append(value)
         }
         return builder.toString().trim()
@@ -251,6 +762,23 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
 
     override fun hashCode(): Int = sectionName.hashCode()
 
+    companion object {
+        /**
+         * Splits a bracket-enclosed list (e.g., `[val1, val2, val3]`) into its trimmed elements.
+         *
+         * @return The elements of the list, or `null` if [value] is not enclosed in brackets.
+         */
+        internal fun splitArray(value: String, separator: String): Array<String>? {
+            val trimmed = value.trim()
+            if (!trimmed.startsWith("[") || !trimmed.endsWith("]")) return null
+
+            return trimmed.substring(1, trimmed.length - 1)
+                .split(separator)
+                .map { it.trim() }
+                .toTypedArray()
+        }
+    }
+
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (javaClass != other?.javaClass) return false
@@ -259,7 +787,7 @@ open class IniSection(var sectionName: String) : Iterable<Map.Entry<String, Stri
     }
 
     override fun iterator(): Iterator<Map.Entry<String, String>> {
-        return properties.iterator()
+        return properties().entries.iterator()
     }
 
     /**
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Compact binary serialization of a parsed [Ini], designed to be memory-mapped and loaded without lexing.
+ *
+ * Layout (big-endian):
+ * ```
+ * header   magic:int  version:short  flags:short  sourceSize:long  sourceModified:long  sourceHash:long
+ * strings  count:int  offsets:int[count + 1]  utf8:byte[offsets[count]]
+ * globals  count:int  (key:int value:int)[count]
+ * sections count:int  (name:int pairs:int (key:int value:int)[pairs])[count]
+ * ```
+ * Every key, value and section name is stored once in the string table and referenced by index, so
+ * repeated keys across sections are deduplicated both on disk and on the heap after loading. A
+ * multi-valued property is stored as one pair per value, in order, and the flags record whether the
+ * INI [ignores the case][Ini.isCaseInsensitive] of names. Snapshots are limited to 2 GiB.
+ *
+ * The header optionally records the size, modification time and CRC32C hash of the `.ini` source the
+ * snapshot was built from, allowing it to be used as a cache for the source file.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+internal object IniSnapshot {
+
+    private const val MAGIC = 0x4B494E49 // "KINI"
+
+    private const val VERSION: Short = 2
+
+    /**
+     * Version 1 snapshots have the same layout, with the flags always zero.
+     */
+    private const val FIRST_VERSION: Short = 1
+
+    private const val FLAG_CASE_INSENSITIVE = 1
+
+    private const val HEADER_SIZE = 32
+
+    private const val NO_SOURCE = -1L
+
+    /**
+     * The file name suffix of snapshots automatically placed next to their source file.
+     */
+    const val SUFFIX = ".snapshot"
+
+    /**
+     * Returns the default snapshot location for the given `.ini` [source]: a sibling file with the
+     * [SUFFIX] appended to its name.
+     */
+    fun siblingOf(source: Path): Path = source.resolveSibling("${source.fileName}$SUFFIX")
+
+    /**
+     * The state of a source file a snapshot is built from.
+     */
+    class SourceStamp(val size: Long, val lastModified: Long, val hash: Long) {
+        companion object {
+            fun of(source: Path) = SourceStamp(
+                Files.size(source),
+                Files.getLastModifiedTime(source).toMillis(),
+                contentHash(source)
+            )
+        }
+    }
+
+    /**
+     * Serializes [ini] into [path]. If a [source] stamp is given, it is recorded so that [readIfFresh]
+     * can later validate the snapshot against the source file. The stamp should be taken *before* the
+     * source is parsed, so that concurrent modifications invalidate the snapshot.
+     */
+    fun write(ini: Ini, path: Path, source: SourceStamp? = null) {
+        val strings = LinkedHashMap<String, Int>()
+        fun index(s: String): Int = strings.getOrPut(s) { strings.size }
+
+        fun pairs(section: IniSection): List<Int> {
+            val pairs = ArrayList<Int>()
+            section.forEachValue { key, value ->
+                pairs += index(key)
+                pairs += index(value)
+            }
+            return pairs
+        }
+
+        val globals = pairs(ini)
+        val sections = ini.sections.filter { !it.isEmpty() }.map { index(it.sectionName) to pairs(it) }
+
+        val encoded = strings.keys.map { it.toByteArray(Charsets.UTF_8) }
+        val size = HEADER_SIZE +
+                4L + 4L * (encoded.size + 1) + encoded.sumOf { it.size.toLong() } +
+                4L + 4L * globals.size +
+                4L + sections.sumOf { 8L + 4L * it.second.size }
+        if (size > Int.MAX_VALUE) throw IOException("INI too large for a snapshot ($size bytes): $path")
+
+        val buffer = ByteBuffer.allocate(size.toInt())
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((if (ini.isCaseInsensitive) FLAG_CASE_INSENSITIVE else 0).toShort())
+
+        if (source == null) {
+            buffer.putLong(NO_SOURCE).putLong(NO_SOURCE).putLong(NO_SOURCE)
+        } else {
+            buffer.putLong(source.size).putLong(source.lastModified).putLong(source.hash)
+        }
+
+        buffer.putInt(encoded.size)
+        var offset = 0
+        buffer.putInt(offset)
+        encoded.forEach {
+            offset += it.size
+            buffer.putInt(offset)
+        }
+        encoded.forEach { buffer.put(it) }
+
+        buffer.putInt(globals.size / 2)
+        globals.forEach { buffer.putInt(it) }
+
+        buffer.putInt(sections.size)
+        sections.forEach { (name, pairs) ->
+            buffer.putInt(name).putInt(pairs.size / 2)
+            pairs.forEach { buffer.putInt(it) }
+        }
+
+        buffer.flip()
+        Ini.writeAtomically(path, buffer)
+    }
+
+    /**
+     * Loads a snapshot, regardless of the source it was built from.
+     *
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    fun read(path: Path): Ini = map(path) { buffer ->
+        checkHeader(buffer, path)
+        buffer.position(HEADER_SIZE)
+        decode(buffer, buffer.getShort(6).toInt())
+    }
+
+    /**
+     * Loads a snapshot only if it was built from [source] in its current state, i.e. if the recorded
+     * size, modification time and content hash all match. The (comparatively expensive) hash is only
+     * computed when size and modification time already match.
+     *
+     * @return The loaded [Ini], or `null` if the snapshot is stale or was not built from a source file.
+     * @throws IOException If the snapshot cannot be read or is not a valid snapshot.
+     */
+    fun readIfFresh(path: Path, source: Path): Ini? = map(path) { buffer ->
+        checkHeader(buffer, path)
+        val size = buffer.getLong(8)
+        val modified = buffer.getLong(16)
+        val hash = buffer.getLong(24)
+
+        if (size == NO_SOURCE
+            || size != Files.size(source)
+            || modified != Files.getLastModifiedTime(source).toMillis()
+            || hash != contentHash(source)
+        ) {
+            null
+        } else {
+            buffer.position(HEADER_SIZE)
+            decode(buffer, buffer.getShort(6).toInt())
+        }
+    }
+
+    private inline fun <T> map(path: Path, block: (ByteBuffer) -> T): T =
+        FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+            val size = channel.size()
+            if (size < HEADER_SIZE) throw IOException("Not a K-Ini snapshot: $path")
+            if (size > Int.MAX_VALUE) throw IOException("Snapshot too large ($size bytes): $path")
+            block(channel.map(FileChannel.MapMode.READ_ONLY, 0, size))
+        }
+
+    private fun checkHeader(buffer: ByteBuffer, path: Path) {
+        if (buffer.getInt(0) != MAGIC) throw IOException("Not a K-Ini snapshot: $path")
+        val version = buffer.getShort(4)
+        if (version != VERSION && version != FIRST_VERSION) throw IOException("Unsupported snapshot version $version: $path")
+    }
+
+    private fun decode(buffer: ByteBuffer, flags: Int): Ini {
+        try {
+            val count = buffer.int
+            val offsets = IntArray(count + 1) { buffer.int }
+            val utf8 = ByteArray(offsets[count])
+            buffer.get(utf8)
+            val strings = Array(count) { String(utf8, offsets[it], offsets[it + 1] - offsets[it], Charsets.UTF_8) }
+
+            // pairs of a section only repeat a key for the values of a multi-valued property
+            val ini = Ini(flags and FLAG_CASE_INSENSITIVE != 0)
+            repeat(buffer.int) { ini.load(strings[buffer.int], strings[buffer.int], true) }
+            ini.trimValues()
+            repeat(buffer.int) {
+                val section = ini.section(strings[buffer.int])
+                repeat(buffer.int) { section.load(strings[buffer.int], strings[buffer.int], true) }
+                section.trimValues()
+            }
+            return ini
+        } catch (e: RuntimeException) {
+            // truncated buffers and out of range indices
+            throw IOException("Corrupted K-Ini snapshot", e)
+        }
+    }
+}
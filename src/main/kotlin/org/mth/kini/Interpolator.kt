@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Resolves `${...}` references in the property values of an [Ini], see [Ini.interpolation].
+ *
+ * Values are compiled once into templates of literal and reference segments. Resolved values are
+ * memoized in their section, so that reading an already resolved property costs a single map lookup.
+ * While resolving, every location probed by a reference (hit or miss) is recorded as a dependency: a
+ * change to any of them drops the memoized values depending on it, transitively, and nothing else.
+ *
+ * Memoized values are read without locking; resolutions and invalidations are serialized on this object.
+ */
+internal class Interpolator(private val ini: Ini) {
+
+    private data class Location(val section: String, val key: String) {
+        override fun toString() = if (section == Ini.ROOT) key else "[$section] $key"
+    }
+
+    /**
+     * Creates the [Location] of a property. In case-insensitive INIs names are folded to lowercase, so
+     * that references spelled differently from the definition share the same dependencies.
+     */
+    private fun location(section: String, key: String): Location =
+        if (ini.isCaseInsensitive) Location(fold(section), fold(key)) else Location(section, key)
+
+    private fun fold(name: String): String {
+        var i = 0
+        while (i < name.length && name[i] !in 'A'..'Z') i++
+        if (i == name.length) return name
+
+        val chars = name.toCharArray()
+        for (j in i until chars.size) if (chars[j] in 'A'..'Z') chars[j] = chars[j] + 32
+        return String(chars)
+    }
+
+    private class Reference(val name: String, val text: String)
+
+    /**
+     * A compiled value: [segments] holds literal [String]s and [Reference]s.
+     */
+    private class Template(val source: String, val segments: List<Any>)
+
+    private val templates = HashMap<Location, Template>()
+
+    /**
+     * For each location, the locations whose resolved value depends on it.
+     */
+    private val dependents = HashMap<Location, MutableSet<Location>>()
+
+    /**
+     * The locations currently being resolved, in order, to detect circular references.
+     */
+    private val resolving = LinkedHashSet<Location>()
+
+    init {
+        reset()
+    }
+
+    /**
+     * Returns the interpolated value of the property [name] of [section], or `null` if it is not defined.
+     */
+    fun resolve(section: IniSection, name: String): String? {
+        section.resolvedValues?.get(name)?.let { return it }
+        if (!section.hasProperty(name)) return null
+        return synchronized(this) { resolveLocked(section, name) }
+    }
+
+    /**
+     * Drops the memoized value of a property and of all the values depending on it.
+     */
+    @Synchronized
+    fun invalidate(section: String, key: String) {
+        invalidate(location(section, key))
+    }
+
+    /**
+     * Drops every memoized value and dependency.
+     */
+    @Synchronized
+    fun reset() {
+        templates.clear()
+        dependents.clear()
+        ini.forgetAllSections()
+    }
+
+    private fun invalidate(location: Location) {
+        ini.sectionOrNull(location.section)?.forget(location.key)
+        dependents.remove(location)?.forEach { invalidate(it) }
+    }
+
+    private fun resolveLocked(section: IniSection, name: String): String? {
+        section.resolvedValues?.get(name)?.let { return it }
+        val raw = section.getRaw(name) ?: return null
+
+        if (!raw.contains("\${")) return memoize(section, name, raw)
+
+        val location = location(section.sectionName, name)
+        if (!resolving.add(location)) {
+            val cycle = resolving.dropWhile { it != location } + location
+            throw IllegalStateException("Circular reference: ${cycle.joinToString(" -> ")}")
+        }
+
+        try {
+            val template = templates[location]?.takeIf { it.source === raw }
+                ?: compile(raw).also { templates[location] = it }
+
+            val builder = StringBuilder(raw.length)
+            template.segments.forEach { segment ->
+                if (segment is Reference) builder.append(resolveReference(segment, section, location))
+                else builder.append(segment as String)
+            }
+            return memoize(section, name, builder.toString())
+        } finally {
+            resolving.remove(location)
+        }
+    }
+
+    private fun resolveReference(reference: Reference, section: IniSection, dependent: Location): String {
+        val name = reference.name
+
+        if (name.startsWith("env:")) return System.getenv(name.substring(4)) ?: reference.text
+
+        probe(section.sectionName, name, dependent)?.let { return it }
+
+        var dot = name.lastIndexOf('.')
+        while (dot > 0) {
+            probe(name.substring(0, dot), name.substring(dot + 1), dependent)?.let { return it }
+            dot = name.lastIndexOf('.', dot - 1)
+        }
+
+        if (section.sectionName != Ini.ROOT) probe(Ini.ROOT, name, dependent)?.let { return it }
+
+        return reference.text
+    }
+
+    /**
+     * Resolves a candidate location of a reference, recording it as a dependency even if it does not
+     * exist, as defining it later would change the resolution.
+     */
+    private fun probe(section: String, key: String, dependent: Location): String? {
+        val location = location(section, key)
+        dependents.getOrPut(location) { HashSet() }.add(dependent)
+        val target = ini.sectionOrNull(section) ?: return null
+        return resolveLocked(target, target.canonicalKey(key) ?: return null)
+    }
+
+    private fun memoize(section: IniSection, name: String, value: String): String {
+        val memo = section.resolvedValues ?: ConcurrentHashMap<String, String>().also { section.resolvedValues = it }
+        memo[name] = value
+        return value
+    }
+
+    private fun compile(raw: String): Template {
+        val segments = ArrayList<Any>()
+        val literal = StringBuilder()
+        var i = 0
+
+        while (i < raw.length) {
+            if (raw.startsWith("\$\${", i)) {
+                literal.append("\${")
+                i += 3
+                continue
+            }
+
+            val end = if (raw.startsWith("\${", i)) raw.indexOf('}', i + 2) else -1
+            if (end < 0) {
+                literal.append(raw[i++])
+                continue
+            }
+
+            if (literal.isNotEmpty()) {
+                segments.add(literal.toString())
+                literal.setLength(0)
+            }
+            segments.add(Reference(raw.substring(i + 2, end).trim(), raw.substring(i, end + 1)))
+            i = end + 1
+        }
+
+        if (literal.isNotEmpty()) segments.add(literal.toString())
+        return Template(raw, segments)
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.lang.reflect.Constructor
+
+/**
+ * Reads the constructor parameters declared in the `@kotlin.Metadata` annotation of a Kotlin class,
+ * without `kotlin-reflect`.
+ *
+ * The annotation stores the Kotlin signatures of the class as a protocol buffer message, encoded in
+ * the `d1` strings and referring to the names in the `d2` strings. Only the fields needed by
+ * [IniBinder] are decoded: for every constructor, its JVM descriptor and, for every parameter, whether
+ * it declares a default value and whether its type is nullable. Every other field is skipped.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+internal object KotlinMetadata {
+
+    /**
+     * A constructor parameter as declared in Kotlin.
+     */
+    class Parameter(val declaresDefault: Boolean, val isNullable: Boolean)
+
+    private const val CLASS_KIND = 1
+    private const val DECLARES_DEFAULT_VALUE = 1 shl 1
+
+    private const val UTF8_MODE_MARKER = '\u0000'
+    private const val LEGACY_MODE_MARKER = '\uFFFF'
+
+    /**
+     * Returns the parameters of [constructor] as declared in Kotlin; `null` if its class has no Kotlin
+     * metadata, or if the constructor cannot be told apart from the others declared in the metadata.
+     */
+    fun parametersOf(constructor: Constructor<*>): List<Parameter>? {
+        val metadata = constructor.declaringClass.getAnnotation(Metadata::class.java) ?: return null
+        if (metadata.kind != CLASS_KIND) return null
+
+        val constructors = try {
+            read(decode(metadata.data1), metadata.data2)
+        } catch (e: IndexOutOfBoundsException) {
+            return null
+        } catch (e: IllegalArgumentException) {
+            return null
+        }
+
+        // the descriptor is only recorded when it cannot be derived from the Kotlin parameter types
+        val candidates = constructors.filter { it.parameters.size == constructor.parameterCount }
+        val descriptor = descriptorOf(constructor)
+        val match = candidates.singleOrNull { it.descriptor == descriptor }
+            ?: candidates.singleOrNull()?.takeIf { it.descriptor == null }
+
+        return match?.parameters
+    }
+
+    private class KotlinConstructor(val descriptor: String?, val parameters: List<Parameter>)
+
+    /**
+     * Decodes the bytes of the `d1` strings: each character is a byte in UTF-8 mode (the default of every
+     * recent compiler), or 7 bits of the bytes in the legacy mode.
+     */
+    private fun decode(data: Array<String>): ByteArray {
+        var strings = data
+        if (strings.isNotEmpty() && strings[0].isNotEmpty()) {
+            val marker = strings[0][0]
+            if (marker == UTF8_MODE_MARKER || marker == LEGACY_MODE_MARKER) {
+                strings = strings.clone()
+                strings[0] = strings[0].substring(1)
+            }
+            if (marker == UTF8_MODE_MARKER) return bytesOf(strings)
+        }
+
+        val bytes = bytesOf(strings)
+        for (i in bytes.indices) bytes[i] = ((bytes[i] + 0x7F) and 0x7F).toByte()
+
+        val result = ByteArray(7 * bytes.size / 8)
+        var index = 0
+        var bit = 0
+        for (i in result.indices) {
+            val low = (bytes[index++].toInt() and 0xFF) ushr bit
+            val high = (bytes[index].toInt() and ((1 shl (bit + 1)) - 1)) shl (7 - bit)
+            result[i] = (low + high).toByte()
+            if (bit == 6) {
+                index++
+                bit = 0
+            } else {
+                bit++
+            }
+        }
+        return result
+    }
+
+    private fun bytesOf(strings: Array<String>): ByteArray {
+        val bytes = ByteArray(strings.sumOf { it.length })
+        var i = 0
+        for (s in strings) for (c in s) bytes[i++] = c.code.toByte()
+        return bytes
+    }
+
+    /**
+     * Reads the string table (a length-delimited `StringTableTypes` message) and the `Class` message that
+     * takes the rest of the bytes.
+     */
+    private fun read(bytes: ByteArray, strings: Array<String>): List<KotlinConstructor> {
+        val input = ProtoInput(bytes, 0, bytes.size)
+        val table = StringTable(input.message(), strings)
+
+        val constructors = ArrayList<Pair<Int, List<Pair<Int, Type>>>>()
+        var types = emptyList<Type>()
+        var firstNullable = -1
+
+        val clazz = input.rest()
+        while (clazz.hasMore()) {
+            when (clazz.tag() ushr 3) {
+                // Class.constructor
+                8 -> {
+                    val message = clazz.message()
+                    val parameters = ArrayList<Pair<Int, Type>>()
+                    var descriptor = -1
+                    while (message.hasMore()) {
+                        when (message.tag() ushr 3) {
+                            2 -> parameters.add(parameterOf(message.message()))
+                            // JvmProtoBuf.constructorSignature
+                            100 -> descriptor = signatureOf(message.message())
+                            else -> message.skip()
+                        }
+                    }
+                    constructors.add(descriptor to parameters)
+                }
+                // Class.type_table
+                30 -> {
+                    val message = clazz.message()
+                    val list = ArrayList<Type>()
+                    while (message.hasMore()) {
+                        when (message.tag() ushr 3) {
+                            1 -> list.add(typeOf(message.message()))
+                            2 -> firstNullable = message.varint().toInt()
+                            else -> message.skip()
+                        }
+                    }
+                    types = list
+                }
+                else -> clazz.skip()
+            }
+        }
+
+        return constructors.map { (descriptor, parameters) ->
+            KotlinConstructor(
+                if (descriptor >= 0) table[descriptor] else null,
+                parameters.map { (flags, type) ->
+                    val resolved = if (type.id >= 0) types[type.id] else type
+                    val nullable = resolved.nullable || (type.id >= 0 && firstNullable in 0..type.id)
+                    Parameter(flags and DECLARES_DEFAULT_VALUE != 0, nullable)
+                }
+            )
+        }
+    }
+
+    /**
+     * A `Type` message, or a reference to the type table when [id] is not negative.
+     */
+    private class Type(val nullable: Boolean, val id: Int)
+
+    private fun parameterOf(message: ProtoInput): Pair<Int, Type> {
+        var flags = 0
+        var type = Type(false, -1)
+        while (message.hasMore()) {
+            when (message.tag() ushr 3) {
+                1 -> flags = message.varint().toInt()
+                3 -> type = typeOf(message.message())
+                5 -> type = Type(false, message.varint().toInt())
+                else -> message.skip()
+            }
+        }
+        return flags to type
+    }
+
+    private fun typeOf(message: ProtoInput): Type {
+        var nullable = false
+        while (message.hasMore()) {
+            if (message.tag() ushr 3 == 3) nullable = message.varint() != 0L else message.skip()
+        }
+        return Type(nullable, -1)
+    }
+
+    private fun signatureOf(message: ProtoInput): Int {
+        var descriptor = -1
+        while (message.hasMore()) {
+            if (message.tag() ushr 3 == 2) descriptor = message.varint().toInt() else message.skip()
+        }
+        return descriptor
+    }
+
+    private fun descriptorOf(constructor: Constructor<*>): String =
+        constructor.parameterTypes.joinToString("", "(", ")V") { descriptorOf(it) }
+
+    private fun descriptorOf(type: Class<*>): String = when {
+        type.isArray -> type.name.replace('.', '/')
+        type == Boolean::class.javaPrimitiveType -> "Z"
+        type == Char::class.javaPrimitiveType -> "C"
+        type == Byte::class.javaPrimitiveType -> "B"
+        type == Short::class.javaPrimitiveType -> "S"
+        type == Int::class.javaPrimitiveType -> "I"
+        type == Long::class.javaPrimitiveType -> "J"
+        type == Float::class.javaPrimitiveType -> "F"
+        type == Double::class.javaPrimitiveType -> "D"
+        else -> "L" + type.name.replace('.', '/') + ";"
+    }
+
+    /**
+     * The `d2` strings, transformed by the records of the `StringTableTypes` message. Strings that refer
+     * to the predefined table of the compiler are not needed here, and resolve to `null`.
+     */
+    private class StringTable(message: ProtoInput, private val strings: Array<String>) {
+
+        private class Record(
+            val string: String?,
+            val predefined: Boolean,
+            val operation: Int,
+            val substring: IntArray,
+            val replace: IntArray
+        )
+
+        private val records = ArrayList<Record>()
+
+        init {
+            while (message.hasMore()) {
+                if (message.tag() ushr 3 != 1) {
+                    message.skip()
+                    continue
+                }
+
+                val record = message.message()
+                var range = 1
+                var string: String? = null
+                var predefined = false
+                var operation = 0
+                var substring = IntArray(0)
+                var replace = IntArray(0)
+
+                while (record.hasMore()) {
+                    val tag = record.tag()
+                    when (tag ushr 3) {
+                        1 -> range = record.varint().toInt()
+                        2 -> predefined = record.varint() >= 0
+                        3 -> operation = record.varint().toInt()
+                        4 -> substring = record.ints(tag)
+                        5 -> replace = record.ints(tag)
+                        6 -> string = record.string()
+                        else -> record.skip()
+                    }
+                }
+
+                val entry = Record(string, predefined, operation, substring, replace)
+                repeat(range) { records.add(entry) }
+            }
+        }
+
+        operator fun get(index: Int): String? {
+            val record = records.getOrNull(index) ?: return strings[index]
+            var string = record.string ?: if (record.predefined) return null else strings[index]
+
+            if (record.substring.size >= 2) string = string.substring(record.substring[0], record.substring[1])
+            if (record.replace.size >= 2) string = string.replace(record.replace[0].toChar(), record.replace[1].toChar())
+
+            return when (record.operation) {
+                // INTERNAL_TO_CLASS_ID
+                1 -> string.replace('$', '.')
+                // DESC_TO_CLASS_ID
+                2 -> (if (string.length >= 2) string.substring(1, string.length - 1) else string).replace('$', '.')
+                else -> string
+            }
+        }
+    }
+
+    /**
+     * A minimal protocol buffer reader over `bytes[position until limit]`.
+     */
+    private class ProtoInput(private val bytes: ByteArray, private var position: Int, private val limit: Int) {
+
+        private var wireType = 0
+
+        fun hasMore() = position < limit
+
+        fun tag(): Int {
+            val tag = varint().toInt()
+            wireType = tag and 7
+            return tag
+        }
+
+        fun varint(): Long {
+            var result = 0L
+            var shift = 0
+            while (true) {
+                require(position < limit && shift < 64) { "Malformed varint" }
+                val b = bytes[position++].toInt()
+                result = result or ((b and 0x7F).toLong() shl shift)
+                if (b and 0x80 == 0) return result
+                shift += 7
+            }
+        }
+
+        fun message(): ProtoInput {
+            val length = varint().toInt()
+            require(length >= 0 && position + length <= limit) { "Malformed message" }
+            return ProtoInput(bytes, position, position + length).also { position += length }
+        }
+
+        fun rest(): ProtoInput = ProtoInput(bytes, position, limit).also { position = limit }
+
+        fun string(): String {
+            val message = message()
+            return String(bytes, message.position, message.limit - message.position, Charsets.UTF_8)
+        }
+
+        /**
+         * Reads a repeated `int32` field, either packed or not, given its [tag].
+         */
+        fun ints(tag: Int): IntArray {
+            if (tag and 7 != 2) return intArrayOf(varint().toInt())
+            val message = message()
+            val values = ArrayList<Int>()
+            while (message.hasMore()) values.add(message.varint().toInt())
+            return values.toIntArray()
+        }
+
+        fun skip() {
+            when (wireType) {
+                0 -> varint()
+                1 -> position += 8
+                2 -> message()
+                5 -> position += 4
+                else -> throw IllegalArgumentException("Unsupported wire type $wireType")
+            }
+            require(position <= limit) { "Malformed message" }
+        }
+    }
+}
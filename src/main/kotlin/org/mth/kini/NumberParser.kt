@@ -0,0 +1,354 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+/**
+ * Number parsing routines working directly over a range of a [CharSequence], without extracting
+ * substrings or boxing the results. This is the parsing layer behind every typed accessor of [IniSection].
+ *
+ * Integers accept an optional sign, the radix prefixes `0x` (hexadecimal), `0o` (octal) and `0b` (binary),
+ * and underscores between digits (`1_000_000`). Floating point numbers follow the syntax of
+ * [java.lang.Double.parseDouble]: the common decimal forms are parsed by an exact fast path, and only
+ * long mantissas or large exponents fall back to the JDK, so that results are always correctly rounded.
+ *
+ * All the functions throw a [NumberFormatException] if the range does not contain a valid number.
+ */
+internal object NumberParser {
+
+    private const val NOT_HANDLED = -1L
+
+    private const val MANTISSA_MASK = (1L shl 50) - 1
+
+    private const val EXPONENT_SHIFT = 50
+
+    private const val EXPONENT_BIAS = 32
+
+    private const val NEGATIVE_BIT = 1L shl 56
+
+    private val POWERS_OF_TEN = DoubleArray(23) { Math.pow(10.0, it.toDouble()) }
+
+    private val FLOAT_POWERS_OF_TEN = FloatArray(11) { Math.pow(10.0, it.toDouble()).toFloat() }
+
+    private const val NANOS_PER_MICRO = 1_000L
+    private const val NANOS_PER_MILLI = 1_000_000L
+    private const val NANOS_PER_SECOND = 1_000_000_000L
+    private const val NANOS_PER_MINUTE = 60 * NANOS_PER_SECOND
+    private const val NANOS_PER_HOUR = 60 * NANOS_PER_MINUTE
+    private const val NANOS_PER_DAY = 24 * NANOS_PER_HOUR
+
+    /**
+     * Parses the `int` in `[start, end)` of [s].
+     */
+    fun parseInt(s: CharSequence, start: Int, end: Int): Int {
+        val value = parseLong(s, start, end)
+        if (value < Int.MIN_VALUE || value > Int.MAX_VALUE) throw invalid(s, start, end)
+        return value.toInt()
+    }
+
+    /**
+     * Parses the `short` in `[start, end)` of [s].
+     */
+    fun parseShort(s: CharSequence, start: Int, end: Int): Short {
+        val value = parseLong(s, start, end)
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) throw invalid(s, start, end)
+        return value.toShort()
+    }
+
+    /**
+     * Parses the `byte` in `[start, end)` of [s].
+     */
+    fun parseByte(s: CharSequence, start: Int, end: Int): Byte {
+        val value = parseLong(s, start, end)
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) throw invalid(s, start, end)
+        return value.toByte()
+    }
+
+    /**
+     * Parses the `long` in `[start, end)` of [s]. If [longSuffix] is `true`, a trailing `L` or `l`
+     * (as in `100L`) is accepted and ignored.
+     */
+    @JvmOverloads
+    fun parseLong(s: CharSequence, start: Int, end: Int, longSuffix: Boolean = false): Long =
+        parseLong(s, start, end, longSuffix, 0L, true)
+
+    /**
+     * Parses the `long` in `[start, end)` of [s] like [parseLong], but returns [defaultValue] instead of
+     * throwing (and allocating) an exception if the range is not a valid number.
+     */
+    fun parseLongOrDefault(s: CharSequence, start: Int, end: Int, longSuffix: Boolean, defaultValue: Long): Long =
+        parseLong(s, start, end, longSuffix, defaultValue, false)
+
+    /**
+     * Parses the `short` in `[start, end)` of [s], or returns [defaultValue] if it is not a valid `short`.
+     */
+    fun parseShortOrDefault(s: CharSequence, start: Int, end: Int, defaultValue: Short): Short {
+        // Long.MIN_VALUE is out of the short range, so it cannot be mistaken for a parsed value
+        val value = parseLong(s, start, end, false, Long.MIN_VALUE, false)
+        return if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) defaultValue else value.toShort()
+    }
+
+    private fun parseLong(
+        s: CharSequence, start: Int, end: Int, longSuffix: Boolean, defaultValue: Long, strict: Boolean
+    ): Long {
+        var last = end
+        if (longSuffix && last > start && (s[last - 1] == 'L' || s[last - 1] == 'l')) last--
+
+        var i = start
+        if (i >= last) return invalid(s, start, end, defaultValue, strict)
+
+        val negative = s[i] == '-'
+        if (negative || s[i] == '+') i++
+
+        var radix = 10
+        if (last - i > 2 && s[i] == '0') {
+            radix = when (s[i + 1]) {
+                'x', 'X' -> 16
+                'o', 'O' -> 8
+                'b', 'B' -> 2
+                else -> 10
+            }
+            if (radix != 10) i += 2
+        }
+        if (i == last) return invalid(s, start, end, defaultValue, strict)
+
+        // accumulate negatively, as Long.MIN_VALUE has no positive counterpart
+        val limit = if (negative) Long.MIN_VALUE else -Long.MAX_VALUE
+        val multiplyLimit = limit / radix
+        var result = 0L
+        var previousDigit = false
+
+        while (i < last) {
+            val c = s[i++]
+            if (c == '_') {
+                // only between two digits
+                if (!previousDigit || i == last || s[i] == '_') return invalid(s, start, end, defaultValue, strict)
+                previousDigit = false
+                continue
+            }
+
+            val digit = Character.digit(c, radix)
+            if (digit < 0 || result < multiplyLimit) return invalid(s, start, end, defaultValue, strict)
+            result *= radix
+            if (result < limit + digit) return invalid(s, start, end, defaultValue, strict)
+            result -= digit
+            previousDigit = true
+        }
+        return if (negative) result else -result
+    }
+
+    /**
+     * Parses the `double` in `[start, end)` of [s], with the syntax of [java.lang.Double.parseDouble].
+     */
+    fun parseDouble(s: CharSequence, start: Int, end: Int): Double {
+        // Clinger's fast path: with at most 15 significant digits and |exponent| <= 22, both the mantissa
+        // and the power of ten are exact doubles, so a single (correctly rounded) operation gives the
+        // correctly rounded result
+        val decimal = parseDecimal(s, start, end, 15, 22)
+        if (decimal != NOT_HANDLED) {
+            val mantissa = (decimal and MANTISSA_MASK).toDouble()
+            val exponent = exponentOf(decimal)
+            val value = if (exponent >= 0) mantissa * POWERS_OF_TEN[exponent]
+            else mantissa / POWERS_OF_TEN[-exponent]
+            return if (decimal and NEGATIVE_BIT != 0L) -value else value
+        }
+        return java.lang.Double.parseDouble(s.subSequence(start, end).toString())
+    }
+
+    /**
+     * Parses the `float` in `[start, end)` of [s], with the syntax of [java.lang.Float.parseFloat].
+     */
+    fun parseFloat(s: CharSequence, start: Int, end: Int): Float {
+        val decimal = parseDecimal(s, start, end, 7, 10)
+        if (decimal != NOT_HANDLED) {
+            val mantissa = (decimal and MANTISSA_MASK).toFloat()
+            val exponent = exponentOf(decimal)
+            val value = if (exponent >= 0) mantissa * FLOAT_POWERS_OF_TEN[exponent]
+            else mantissa / FLOAT_POWERS_OF_TEN[-exponent]
+            return if (decimal and NEGATIVE_BIT != 0L) -value else value
+        }
+        return java.lang.Float.parseFloat(s.subSequence(start, end).toString())
+    }
+
+    /**
+     * Parses a size in bytes in `[start, end)` of [s]: an integer optionally followed by a binary unit
+     * (`b`, `k`, `m`, `g`, `t`, case-insensitive, optionally followed by `b` or `ib`), e.g. `64k` or `2 GiB`.
+     * The integer may have a radix prefix, as in [parseLong]. Since `b` is also a hexadecimal digit, a
+     * hexadecimal size takes the `b` unit only after a blank: `0x1b` is 27 bytes, `0x1 b` is one byte.
+     */
+    fun parseSize(s: CharSequence, start: Int, end: Int): Long {
+        val numberEnd = integerEnd(s, start, end)
+        val value = parseLong(s, start, numberEnd)
+        val unitStart = skipWhitespace(s, numberEnd, end)
+
+        val multiplier = when {
+            unitStart == end || matches(s, unitStart, end, "b") -> 1L
+            matches(s, unitStart, end, "k") || matches(s, unitStart, end, "kb") || matches(s, unitStart, end, "kib") -> 1L shl 10
+            matches(s, unitStart, end, "m") || matches(s, unitStart, end, "mb") || matches(s, unitStart, end, "mib") -> 1L shl 20
+            matches(s, unitStart, end, "g") || matches(s, unitStart, end, "gb") || matches(s, unitStart, end, "gib") -> 1L shl 30
+            matches(s, unitStart, end, "t") || matches(s, unitStart, end, "tb") || matches(s, unitStart, end, "tib") -> 1L shl 40
+            else -> throw invalid(s, start, end)
+        }
+        return multiply(value, multiplier, s, start, end)
+    }
+
+    /**
+     * Parses a duration in `[start, end)` of [s], returning it in nanoseconds: an integer optionally
+     * followed by a unit among `ns`, `us`, `ms`, `s`, `m`, `h` and `d`, e.g. `30s` or `250 ms`.
+     * Values without a unit are in milliseconds. The integer may have a radix prefix, as in [parseLong].
+     */
+    fun parseDurationNanos(s: CharSequence, start: Int, end: Int): Long {
+        val numberEnd = integerEnd(s, start, end)
+        val value = parseLong(s, start, numberEnd)
+        val unitStart = skipWhitespace(s, numberEnd, end)
+
+        val multiplier = when {
+            unitStart == end || matches(s, unitStart, end, "ms") -> NANOS_PER_MILLI
+            matches(s, unitStart, end, "ns") -> 1L
+            matches(s, unitStart, end, "us") || matches(s, unitStart, end, "µs") -> NANOS_PER_MICRO
+            matches(s, unitStart, end, "s") -> NANOS_PER_SECOND
+            matches(s, unitStart, end, "m") -> NANOS_PER_MINUTE
+            matches(s, unitStart, end, "h") -> NANOS_PER_HOUR
+            matches(s, unitStart, end, "d") -> NANOS_PER_DAY
+            else -> throw invalid(s, start, end)
+        }
+        return multiply(value, multiplier, s, start, end)
+    }
+
+    private fun exponentOf(decimal: Long): Int = ((decimal ushr EXPONENT_SHIFT) and 0x3F).toInt() - EXPONENT_BIAS
+
+    /**
+     * Splits a plain decimal (`[sign] digits [. digits] [e [sign] digits] [d|f]`) into its mantissa and
+     * base-10 exponent, packed in a single `long`: the mantissa in the low 50 bits, the biased exponent
+     * in the next 6 bits and the sign in [NEGATIVE_BIT].
+     *
+     * @return The packed decimal, or [NOT_HANDLED] if the input is not a plain decimal or exceeds the limits.
+     */
+    private fun parseDecimal(s: CharSequence, start: Int, end: Int, maxDigits: Int, maxExponent: Int): Long {
+        var i = start
+        if (i >= end) return NOT_HANDLED
+
+        val negative = s[i] == '-'
+        if (negative || s[i] == '+') i++
+
+        var mantissa = 0L
+        var digits = 0
+        var exponent = 0
+        var anyDigit = false
+
+        while (i < end && s[i] in '0'..'9') {
+            mantissa = mantissa * 10 + (s[i++] - '0')
+            anyDigit = true
+            if (mantissa != 0L && ++digits > maxDigits) return NOT_HANDLED
+        }
+
+        if (i < end && s[i] == '.') {
+            i++
+            while (i < end && s[i] in '0'..'9') {
+                mantissa = mantissa * 10 + (s[i++] - '0')
+                anyDigit = true
+                exponent--
+                if (mantissa != 0L && ++digits > maxDigits) return NOT_HANDLED
+            }
+        }
+        if (!anyDigit) return NOT_HANDLED
+
+        if (i < end && (s[i] == 'e' || s[i] == 'E')) {
+            i++
+            val negativeExponent = i < end && s[i] == '-'
+            if (i < end && (s[i] == '-' || s[i] == '+')) i++
+            if (i == end) return NOT_HANDLED
+
+            var e = 0
+            while (i < end && s[i] in '0'..'9') {
+                e = e * 10 + (s[i++] - '0')
+                if (e > 1000) return NOT_HANDLED
+            }
+            exponent += if (negativeExponent) -e else e
+        }
+
+        if (i < end && (s[i] == 'd' || s[i] == 'D' || s[i] == 'f' || s[i] == 'F')) i++
+        if (i != end) return NOT_HANDLED
+
+        if (mantissa == 0L) exponent = 0
+        if (exponent < -maxExponent || exponent > maxExponent) return NOT_HANDLED
+
+        val packed = mantissa or ((exponent + EXPONENT_BIAS).toLong() shl EXPONENT_SHIFT)
+        return if (negative) packed or NEGATIVE_BIT else packed
+    }
+
+    /**
+     * Returns the end of the leading integer (sign, radix prefix, digits and underscores) of a range. The
+     * prefixes are those accepted by [parseLong], and only count when followed by a digit of their radix,
+     * so that `0b` is still zero bytes.
+     */
+    private fun integerEnd(s: CharSequence, start: Int, end: Int): Int {
+        var i = start
+        if (i < end && (s[i] == '-' || s[i] == '+')) i++
+        if (end - i > 2 && s[i] == '0') {
+            val radix = when (s[i + 1]) {
+                'x', 'X' -> 16
+                'o', 'O' -> 8
+                'b', 'B' -> 2
+                else -> 10
+            }
+            if (radix != 10 && Character.digit(s[i + 2], radix) >= 0) {
+                i += 2
+                while (i < end && (Character.digit(s[i], radix) >= 0 || s[i] == '_')) i++
+                return i
+            }
+        }
+        while (i < end && (s[i] in '0'..'9' || s[i] == '_')) i++
+        return i
+    }
+
+    private fun skipWhitespace(s: CharSequence, start: Int, end: Int): Int {
+        var i = start
+        while (i < end && s[i].isWhitespace()) i++
+        return i
+    }
+
+    /**
+     * Whether `[start, end)` of [s] equals [unit], ignoring case.
+     */
+    private fun matches(s: CharSequence, start: Int, end: Int, unit: String): Boolean {
+        if (end - start != unit.length) return false
+        for (i in unit.indices) {
+            if (s[start + i].lowercaseChar() != unit[i]) return false
+        }
+        return true
+    }
+
+    private fun multiply(value: Long, multiplier: Long, s: CharSequence, start: Int, end: Int): Long = try {
+        Math.multiplyExact(value, multiplier)
+    } catch (e: ArithmeticException) {
+        throw invalid(s, start, end)
+    }
+
+    private fun invalid(s: CharSequence, start: Int, end: Int) =
+        NumberFormatException("For input string: \"${s.subSequence(start, end)}\"")
+
+    private fun invalid(s: CharSequence, start: Int, end: Int, defaultValue: Long, strict: Boolean): Long =
+        if (strict) throw invalid(s, start, end) else defaultValue
+}
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * Append-only storage outside the Java heap, made of direct [ByteBuffer] chunks. Regions are addressed by
+ * a `long` holding the chunk index in the high 32 bits and the offset in the low ones; they are never
+ * freed individually, the whole arena being released when it becomes unreachable.
+ *
+ * Strings are stored as their UTF-8 byte count followed by the bytes, and can be compared with a [String]
+ * without decoding them.
+ *
+ * The arena is shared by all the sections of an [Ini], which can be written from different threads like
+ * heap sections: allocation is synchronized, and reads and writes only use absolute positions, so they
+ * are thread-safe as long as a region is not written concurrently.
+ */
+internal class OffHeapArena {
+
+    @Volatile
+    private var chunks = arrayOfNulls<ByteBuffer>(8)
+
+    private var chunkCount = 0
+
+    /**
+     * The offset of the first free byte of the last chunk.
+     */
+    private var top = 0
+
+    private var nextChunkSize = MIN_CHUNK_SIZE
+
+    /**
+     * The number of bytes allocated outside the heap.
+     */
+    @Volatile
+    var reservedBytes = 0L
+        private set
+
+    /**
+     * Allocates a zero-filled region of [size] bytes, aligned to 8 bytes.
+     */
+    @Synchronized
+    fun allocate(size: Int): Long {
+        val aligned = (size + 7) and 7.inv()
+        if (chunkCount == 0 || chunks[chunkCount - 1]!!.capacity() - top < aligned) newChunk(aligned)
+        val address = (chunkCount - 1).toLong() shl 32 or top.toLong()
+        top += aligned
+        return address
+    }
+
+    private fun newChunk(size: Int) {
+        val capacity = maxOf(nextChunkSize, size)
+        nextChunkSize = minOf(nextChunkSize * 2, MAX_CHUNK_SIZE)
+        // the chunk is stored before the array is published, for the readers outside the lock
+        val grown = if (chunkCount == chunks.size) chunks.copyOf(chunkCount * 2) else chunks
+        grown[chunkCount++] = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder())
+        chunks = grown
+        reservedBytes += capacity
+        top = 0
+    }
+
+    private fun chunk(address: Long): ByteBuffer = chunks[(address ushr 32).toInt()]!!
+
+    fun getInt(address: Long): Int = chunk(address).getInt(address.toInt())
+
+    fun putInt(address: Long, value: Int) {
+        chunk(address).putInt(address.toInt(), value)
+    }
+
+    fun getLong(address: Long): Long = chunk(address).getLong(address.toInt())
+
+    fun putLong(address: Long, value: Long) {
+        chunk(address).putLong(address.toInt(), value)
+    }
+
+    /**
+     * Stores [s] and returns its address.
+     */
+    fun putString(s: String): Long {
+        var length = 0
+        encode(s) { length++ }
+
+        val address = allocate(4 + length)
+        val buffer = chunk(address)
+        var offset = address.toInt()
+        buffer.putInt(offset, length)
+        offset += 4
+        encode(s) { buffer.put(offset++, it) }
+        return address
+    }
+
+    /**
+     * Decodes the string stored at [address].
+     */
+    fun getString(address: Long): String {
+        val buffer = chunk(address)
+        val offset = address.toInt() + 4
+        val bytes = ByteArray(buffer.getInt(offset - 4))
+        for (i in bytes.indices) bytes[i] = buffer.get(offset + i)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    /**
+     * Whether the string stored at [address] is equal to [s], ignoring the case of ASCII letters if
+     * [ignoreCase]. Nothing is allocated.
+     */
+    fun matches(address: Long, s: String, ignoreCase: Boolean): Boolean {
+        val buffer = chunk(address)
+        var offset = address.toInt() + 4
+        val end = offset + buffer.getInt(offset - 4)
+        encode(s) {
+            if (offset == end) return false
+            val stored = buffer.get(offset++)
+            if (stored != it && (!ignoreCase || fold(stored) != fold(it))) return false
+        }
+        return offset == end
+    }
+
+    private fun fold(b: Byte): Int = if (b in 'A'.code..'Z'.code) b + 32 else b.toInt()
+
+    private companion object {
+        const val MIN_CHUNK_SIZE = 64 * 1024
+
+        const val MAX_CHUNK_SIZE = 64 * 1024 * 1024
+
+        /**
+         * Calls [emit] with the UTF-8 bytes of [s], unpaired surrogates being encoded as `?` like
+         * [String.toByteArray] does.
+         */
+        inline fun encode(s: String, emit: (Byte) -> Unit) {
+            var i = 0
+            while (i < s.length) {
+                val c = s[i++]
+                when {
+                    c.code < 0x80 -> emit(c.code.toByte())
+                    c.code < 0x800 -> {
+                        emit((0xC0 or (c.code shr 6)).toByte())
+                        emit((0x80 or (c.code and 0x3F)).toByte())
+                    }
+                    c.isHighSurrogate() && i < s.length && s[i].isLowSurrogate() -> {
+                        val code = Character.toCodePoint(c, s[i++])
+                        emit((0xF0 or (code shr 18)).toByte())
+                        emit((0x80 or ((code shr 12) and 0x3F)).toByte())
+                        emit((0x80 or ((code shr 6) and 0x3F)).toByte())
+                        emit((0x80 or (code and 0x3F)).toByte())
+                    }
+                    c.isSurrogate() -> emit('?'.code.toByte())
+                    else -> {
+                        emit((0xE0 or (c.code shr 12)).toByte())
+                        emit((0x80 or ((c.code shr 6) and 0x3F)).toByte())
+                        emit((0x80 or (c.code and 0x3F)).toByte())
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+/**
+ * An insertion-ordered map of strings kept in an [OffHeapArena]: keys, values and the hash index live
+ * outside the Java heap, and strings are materialized only when read. Lookups compare the stored UTF-8
+ * bytes with the requested key, without decoding nor allocating.
+ *
+ * The layout mirrors [CaseInsensitiveMap]: entries (key address, value address, hash) in insertion order,
+ * indexed by an open-addressing table of entry positions plus one. Removed entries leave a hole,
+ * compacted when the table is rebuilt. As the arena is append-only, replaced values and outgrown tables
+ * are not reclaimed until the whole arena is.
+ *
+ * Like [LinkedHashMap], this class is not thread-safe for concurrent writes.
+ *
+ * @param ignoreCase Whether keys are compared ignoring the case of ASCII letters, like [CaseInsensitiveMap].
+ */
+internal class OffHeapMap(
+    private val arena: OffHeapArena,
+    private val ignoreCase: Boolean = false
+) : AbstractMutableMap<String, String>() {
+
+    /**
+     * The address of the entry array, allocated by the first insertion.
+     */
+    private var entryArray = NONE
+
+    private var capacity = 0
+
+    private var table = NONE
+
+    /**
+     * Number of used entry positions, removed ones included.
+     */
+    private var used = 0
+
+    private var live = 0
+
+    override val size: Int get() = live
+
+    /**
+     * Returns the spelling under which [key] is stored, or `null` if it is not present.
+     */
+    fun storedKey(key: String): String? {
+        val index = indexOf(key)
+        return if (index < 0) null else arena.getString(keyAt(index))
+    }
+
+    override fun containsKey(key: String): Boolean = indexOf(key) >= 0
+
+    override fun get(key: String): String? {
+        val index = indexOf(key)
+        return if (index < 0) null else arena.getString(valueAt(index))
+    }
+
+    override fun put(key: String, value: String): String? {
+        val hash = hash(key)
+        val index = indexOf(key, hash)
+        if (index >= 0) {
+            val previous = arena.getString(valueAt(index))
+            arena.putLong(entry(index) + VALUE, arena.putString(value))
+            return previous
+        }
+
+        if (used == capacity) grow()
+        val position = used++
+        val entry = entry(position)
+        arena.putLong(entry + KEY, arena.putString(key))
+        arena.putLong(entry + VALUE, arena.putString(value))
+        arena.putInt(entry + HASH, hash)
+        insert(position, hash)
+        live++
+        return null
+    }
+
+    override fun remove(key: String): String? {
+        val index = indexOf(key)
+        if (index < 0) return null
+        val previous = arena.getString(valueAt(index))
+        removeAt(index)
+        return previous
+    }
+
+    override fun clear() {
+        entryArray = NONE
+        table = NONE
+        capacity = 0
+        used = 0
+        live = 0
+    }
+
+    override val entries: MutableSet<MutableMap.MutableEntry<String, String>> = object : AbstractMutableSet<MutableMap.MutableEntry<String, String>>() {
+        override val size: Int get() = live
+
+        override fun add(element: MutableMap.MutableEntry<String, String>): Boolean {
+            val had = containsKey(element.key)
+            put(element.key, element.value)
+            return !had
+        }
+
+        override fun iterator(): MutableIterator<MutableMap.MutableEntry<String, String>> =
+            object : MutableIterator<MutableMap.MutableEntry<String, String>> {
+                private var next = advance(0)
+                private var current = -1
+
+                private fun advance(from: Int): Int {
+                    var i = from
+                    while (i < used && keyAt(i) == REMOVED) i++
+                    return i
+                }
+
+                override fun hasNext(): Boolean = next < used
+
+                override fun next(): MutableMap.MutableEntry<String, String> {
+                    if (next >= used) throw NoSuchElementException()
+                    current = next
+                    next = advance(next + 1)
+                    return Entry(current)
+                }
+
+                override fun remove() {
+                    check(current >= 0 && keyAt(current) != REMOVED) { "No current entry" }
+                    removeAt(current)
+                }
+            }
+    }
+
+    private inner class Entry(private val index: Int) : MutableMap.MutableEntry<String, String> {
+        override val key: String = arena.getString(keyAt(index))
+
+        override val value: String get() = arena.getString(valueAt(index))
+
+        override fun setValue(newValue: String): String {
+            val previous = value
+            arena.putLong(entry(index) + VALUE, arena.putString(newValue))
+            return previous
+        }
+
+        override fun equals(other: Any?): Boolean =
+            other is Map.Entry<*, *> && other.key == key && other.value == value
+
+        override fun hashCode(): Int = key.hashCode() xor value.hashCode()
+
+        override fun toString(): String = "$key=$value"
+    }
+
+    private fun hash(key: String): Int {
+        if (ignoreCase) return CaseInsensitiveMap.hash(key)
+        val h = key.hashCode()
+        return h xor (h ushr 16)
+    }
+
+    private fun entry(position: Int): Long = entryArray + position.toLong() * ENTRY_SIZE
+
+    private fun keyAt(position: Int): Long = arena.getLong(entry(position) + KEY)
+
+    private fun valueAt(position: Int): Long = arena.getLong(entry(position) + VALUE)
+
+    private fun slot(slot: Int): Long = table + slot.toLong() * 4
+
+    private fun indexOf(key: String, hash: Int = hash(key)): Int {
+        if (capacity == 0) return -1
+        val mask = capacity * 2 - 1
+        var slot = hash and mask
+        while (true) {
+            val position = arena.getInt(slot(slot)) - 1
+            if (position < 0) return -1
+            val entry = entry(position)
+            val stored = arena.getLong(entry + KEY)
+            if (stored != REMOVED && arena.getInt(entry + HASH) == hash && arena.matches(stored, key, ignoreCase)) {
+                return position
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun insert(position: Int, hash: Int) {
+        val mask = capacity * 2 - 1
+        var slot = hash and mask
+        while (arena.getInt(slot(slot)) != 0) slot = (slot + 1) and mask
+        arena.putInt(slot(slot), position + 1)
+    }
+
+    /**
+     * Removes the entry at [index], leaving a hole: its table slot keeps pointing at it so that probe
+     * sequences are not broken, and is reclaimed by the next rebuild.
+     */
+    private fun removeAt(index: Int) {
+        arena.putLong(entry(index) + KEY, REMOVED)
+        live--
+    }
+
+    /**
+     * Makes room for a new entry, compacting the holes left by removals and doubling the capacity
+     * if more than half of the entries are live. The new entry array and table are fresh, hence
+     * zero-filled, regions of the arena.
+     */
+    private fun grow() {
+        val newCapacity = when {
+            capacity == 0 -> INITIAL_CAPACITY
+            live * 2 > capacity -> capacity * 2
+            else -> capacity
+        }
+        val newEntries = arena.allocate(newCapacity * ENTRY_SIZE)
+
+        var j = 0
+        for (i in 0 until used) {
+            val from = entry(i)
+            val key = arena.getLong(from + KEY)
+            if (key == REMOVED) continue
+            val to = newEntries + j.toLong() * ENTRY_SIZE
+            arena.putLong(to + KEY, key)
+            arena.putLong(to + VALUE, arena.getLong(from + VALUE))
+            arena.putInt(to + HASH, arena.getInt(from + HASH))
+            j++
+        }
+
+        entryArray = newEntries
+        capacity = newCapacity
+        used = j
+        table = arena.allocate(newCapacity * 2 * 4)
+        for (i in 0 until used) insert(i, arena.getInt(entry(i) + HASH))
+    }
+
+    private companion object {
+        const val INITIAL_CAPACITY = 8
+
+        const val NONE = -1L
+
+        /**
+         * The key address of removed entries.
+         */
+        const val REMOVED = -1L
+
+        const val KEY = 0
+
+        const val VALUE = 8
+
+        const val HASH = 16
+
+        const val ENTRY_SIZE = 20
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Operations with a faster implementation on recent JVMs. This is the Java 11 version; the multi-release
+ * jar replaces it on Java 21 and later with the one in {@code src/main/java21}, which must keep the same
+ * methods and results.
+ *
+ * <p>The search methods return the index of the first char of {@code chars[from, to)} matching, or
+ * {@code to} if none does.
+ *
+ * @author Mattia Marelli
+ * @since 2026
+ */
+final class Platform {
+
+    private Platform() {
+    }
+
+    /**
+     * Executor of the files parsed in parallel, when {@link IniLoadOptions#getExecutor()} is not set.
+     */
+    static Executor parallelExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Searches for {@code c}.
+     */
+    static int indexOf(char[] chars, int from, int to, char c) {
+        int i = from;
+        while (i < to && chars[i] != c) i++;
+        return i;
+    }
+
+    /**
+     * Searches for {@code c1} or {@code c2}.
+     */
+    static int indexOf(char[] chars, int from, int to, char c1, char c2) {
+        int i = from;
+        while (i < to && chars[i] != c1 && chars[i] != c2) i++;
+        return i;
+    }
+
+    /**
+     * Searches for the end of a run of unquoted value chars: a line break, a comment marker, a blank or
+     * a high surrogate.
+     */
+    static int valueEnd(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = chars[i];
+            if (c == '\n' || c == '\r' || c == '#' || c == ';' || c == ' ' || c == '\t' || Character.isHighSurrogate(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Searches for the end of a run of quoted value chars: the closing {@code quote}, a backslash, a line
+     * break or a high surrogate.
+     */
+    static int stringEnd(char[] chars, int from, int to, char quote) {
+        int i = from;
+        while (i < to) {
+            char c = chars[i];
+            if (c == quote || c == '\\' || c == '\n' || c == '\r' || Character.isHighSurrogate(c)) break;
+            i++;
+        }
+        return i;
+    }
+}
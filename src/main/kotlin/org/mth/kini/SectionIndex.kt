@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2026 Mattia Marelli
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.mth.kini
+
+import java.io.CharArrayReader
+import java.io.Reader
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * The bodies of the sections of a text, for [IniLoadOptions.lazySections].
+ *
+ * A first pass of [FastIniScanner] only locates the section headers: it runs the same state machine as a
+ * full parse, so that headers are recognized exactly as the scanners do (e.g. not inside a property name
+ * spanning lines), and fails on the same malformed input, but builds no property. The body of a section,
+ * the text between its header and the next one, is then parsed by the engine of the options the first
+ * time the section is reached, see [IniSection.ensureParsed]. A section declared more than once has
+ * one body per declaration, parsed in file order.
+ */
+internal class SectionIndex private constructor(private val options: IniLoadOptions) {
+
+    /**
+     * The text the ranges refer to, released once every section is parsed.
+     */
+    private var text = CharArray(0)
+
+    /**
+     * The number of [Body] instances not parsed yet.
+     */
+    private val unparsed = AtomicInteger()
+
+    private val names = ArrayList<String>()
+
+    /**
+     * Start and end of each body, by pairs, parallel to [names].
+     */
+    private var ranges = IntArray(16)
+
+    /**
+     * Whether each body has at least a property other than an include, parallel to [names].
+     */
+    private val nonEmpty = ArrayList<Boolean>()
+
+    init {
+        open(IniScanner.DEFAULT_SECTION, 0)
+    }
+
+    /**
+     * The header of section [name] spans `[headerStart, bodyStart)`.
+     */
+    fun section(name: String, headerStart: Int, bodyStart: Int) {
+        ranges[2 * names.size - 1] = headerStart
+        open(name, bodyStart)
+    }
+
+    /**
+     * A property was found in the current body.
+     */
+    fun property() {
+        nonEmpty[nonEmpty.size - 1] = true
+    }
+
+    private fun open(name: String, start: Int) {
+        if (2 * names.size + 2 > ranges.size) ranges = ranges.copyOf(ranges.size * 2)
+        ranges[2 * names.size] = start
+        names.add(name)
+        nonEmpty.add(false)
+    }
+
+    /**
+     * The unparsed declarations of a section.
+     */
+    inner class Body {
+        init {
+            unparsed.incrementAndGet()
+        }
+
+        private var bounds = IntArray(2)
+        private var size = 0
+
+        fun add(start: Int, end: Int) {
+            if (size == bounds.size) bounds = bounds.copyOf(size * 2)
+            bounds[size++] = start
+            bounds[size++] = end
+        }
+
+        /**
+         * Parses the declarations into [section], which is not reachable by other threads meanwhile.
+         */
+        fun parseInto(section: IniSection) {
+            for (i in 0 until size step 2) parse(section, bounds[i], bounds[i + 1])
+            if (options.multiValue) section.trimValues()
+            if (unparsed.decrementAndGet() == 0) text = CharArray(0)
+        }
+    }
+
+    private fun parse(section: IniSection, start: Int, end: Int) {
+        val sink = IniScanner.PropertySink { _, name, value, _ -> section.load(name, value, options.multiValue) }
+        val reader = CharArrayReader(text, start, end - start)
+        if (options.engine == IniParserEngine.FAST) {
+            val scanner = FastIniScanner(reader)
+            scanner.sink = sink
+            scanner.decodeEscapes = options.decodeEscapes
+            scanner.scan()
+        } else {
+            val lexer = IniScanner(reader)
+            lexer.sink = sink
+            lexer.decodeEscapes = options.decodeEscapes
+            lexer.yylex()
+        }
+    }
+
+    companion object {
+        /**
+         * Indexes the sections read from [reader] into the empty [ini]: the global properties are parsed
+         * at once, the other sections are created with their [IniSection.pendingBody].
+         *
+         * @return The number of chars read.
+         */
+        fun load(reader: Reader, ini: Ini, options: IniLoadOptions): Long {
+            val index = SectionIndex(options)
+            val scanner = FastIniScanner(reader)
+            scanner.index = index
+            scanner.scan()
+            index.text = scanner.text
+            val end = scanner.charsRead.toInt()
+            index.ranges[2 * index.names.size - 1] = end
+
+            for (i in index.names.indices) {
+                if (!index.nonEmpty[i]) continue
+                val name = index.names[i]
+                val start = index.ranges[2 * i]
+                val bodyEnd = index.ranges[2 * i + 1]
+                if (name == IniScanner.DEFAULT_SECTION) {
+                    index.parse(ini, start, bodyEnd)
+                    if (options.multiValue) ini.trimValues()
+                } else {
+                    val section = ini.unparsedSection(name)
+                    val body = section.pendingBody ?: index.Body().also { section.pendingBody = it }
+                    body.add(start, bodyEnd)
+                    ini.lazy = true
+                }
+            }
+            ini.includeDirectives += scanner.includes
+            return scanner.charsRead
+        }
+    }
+}
@@ -24,6 +24,53 @@
 
 package org.mth.kini
 
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.zip.CRC32C
+
 inline fun ini(block: Ini.() -> Unit) = Ini().apply {
     block.invoke(this)
-}
\ No newline at end of file
+}
+
+/**
+ * Builds an [Ini] through an [IniBuilder] sized with the given hints, frozen if requested.
+ */
+inline fun buildIni(
+    expectedSections: Int = 0,
+    expectedKeys: Int = 0,
+    frozen: Boolean = false,
+    block: IniBuilder.() -> Unit
+): Ini = IniBuilder(expectedSections, expectedKeys).apply(block).build(frozen)
+
+/**
+ * Creates a map of names, compared ignoring the case of ASCII letters if [caseInsensitive], holding
+ * [expectedSize] entries without growing.
+ */
+internal fun <V> nameMap(caseInsensitive: Boolean, expectedSize: Int = 0): MutableMap<String, V> = when {
+    caseInsensitive -> CaseInsensitiveMap(expectedSize)
+    expectedSize == 0 -> LinkedHashMap()
+    else -> LinkedHashMap((expectedSize / 0.75f).toInt() + 1)
+}
+
+/**
+ * The size of the memory mappings [contentHash] reads a file through.
+ */
+private const val HASH_WINDOW = 1L shl 30
+
+/**
+ * Computes the CRC32C checksum of the content of a file, reading it through memory mappings of at most
+ * [HASH_WINDOW] bytes.
+ */
+internal fun contentHash(path: Path): Long = FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+    val crc = CRC32C()
+    val size = channel.size()
+    var position = 0L
+    // a single mapping cannot exceed 2 GiB
+    while (position < size) {
+        val length = minOf(size - position, HASH_WINDOW)
+        crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length))
+        position += length
+    }
+    crc.value
+}
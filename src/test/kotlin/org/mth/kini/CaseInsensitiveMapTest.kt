@@ -0,0 +1,139 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.InputStreamReader
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+class CaseInsensitiveMapTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun testLookupIgnoresCase() {
+        val map = CaseInsensitiveMap<Int>()
+        assertNull(map.put("Server.Port", 1))
+        assertEquals(1, map.put("SERVER.PORT", 2))
+
+        assertEquals(1, map.size)
+        assertEquals(2, map["server.port"])
+        assertTrue(map.containsKey("sErVeR.pOrT"))
+        // the first spelling is kept
+        assertEquals("Server.Port", map.storedKey("server.PORT"))
+        assertEquals(listOf("Server.Port"), map.keys.toList())
+        assertNull(map["server.ports"])
+    }
+
+    @Test
+    fun testPresized() {
+        listOf(0, 1, 8, 9, 100, 1000).forEach { expected ->
+            val map = CaseInsensitiveMap<Int>(expected)
+            repeat(expected + 20) { map["Key$it"] = it }
+            assertEquals(expected + 20, map.size)
+            repeat(expected + 20) { assertEquals(it, map["KEY$it"]) }
+        }
+    }
+
+    @Test
+    fun testOnlyAsciiIsFolded() {
+        val map = CaseInsensitiveMap<String>()
+        map["straße"] = "a"
+        map["ÉTÉ"] = "b"
+
+        assertNull(map["STRASSE"])
+        assertNull(map["été"])
+        assertEquals("b", map["ÉTÉ"])
+        assertTrue(CaseInsensitiveMap.equalsIgnoreCase("Key-1", "kEY-1"))
+        assertFalse(CaseInsensitiveMap.equalsIgnoreCase("@", "`"))
+    }
+
+    @Test
+    fun testRemoveGrowAndOrder() {
+        val map = CaseInsensitiveMap<Int>()
+        for (i in 0 until 1000) map["Key$i"] = i
+        for (i in 0 until 1000 step 2) assertEquals(i, map.remove("KEY$i"))
+        for (i in 1000 until 1500) map["key$i"] = i
+
+        assertEquals(1000, map.size)
+        assertNull(map["key0"])
+        assertEquals(999, map["KEY999"])
+        assertEquals((1 until 1000 step 2).map { "Key$it" } + (1000 until 1500).map { "key$it" }, map.keys.toList())
+
+        val iterator = map.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.value % 3 == 0) iterator.remove() else entry.setValue(-entry.value)
+        }
+        assertNull(map["key3"])
+        assertEquals(-1, map["KEY1"])
+        assertEquals(map.size, map.keys.size)
+
+        map.clear()
+        assertTrue(map.isEmpty())
+        map["a"] = 1
+        assertEquals(1, map["A"])
+    }
+
+    @Test
+    fun testOrder() {
+        val names = arrayOf("b", "A", "a.b", "B.a", "_")
+        names.sortWith(CaseInsensitiveMap.ORDER)
+        assertEquals(listOf("_", "A", "a.b", "b", "B.a"), names.toList())
+        assertTrue(CaseInsensitiveMap.startsWithIgnoreCase("DB.Pool", "db.p"))
+        assertFalse(CaseInsensitiveMap.startsWithIgnoreCase("DB", "db.p"))
+    }
+
+    @Test
+    fun testCaseInsensitiveIni() {
+        val file = tempDir.resolve("app.ini")
+        file.writeText(
+            """
+            Name = kini
+            [Server]
+            Port = 8080
+            Hosts = a,b
+            """.trimIndent()
+        )
+        val ini = Ini.load(file, IniLoadOptions(caseInsensitive = true))
+
+        assertTrue(ini.isCaseInsensitive)
+        assertEquals("kini", ini["NAME"])
+        assertEquals(8080, ini.section("server").getInt("PORT"))
+        assertTrue(ini.hasSection("SERVER"))
+        assertSame(ini.section("Server"), ini.section("sErVeR"))
+        // the original spelling is stored
+        assertEquals(listOf("Server"), ini.sections.map { it.sectionName })
+        assertTrue(ini.toString().contains("[Server]"))
+        assertTrue(ini.toString().contains("Port"))
+
+        // writes with another spelling update the same property
+        val server = ini.section("SERVER")
+        assertArrayEquals(intArrayOf(1, 2), server.run { set("hosts", "[1, 2]"); getIntArray("HOSTS", cache = true) })
+        server["HOSTS"] = "[3]"
+        assertArrayEquals(intArrayOf(3), server.getIntArray("hosts", cache = true))
+        assertEquals(2, server.propertyCount)
+        server.removeProperty("hOsTs")
+        assertNull(server["Hosts"])
+
+        assertFalse(Ini.load(file).hasSection("server"))
+    }
+
+    @Test
+    fun testCaseInsensitiveInterpolationAndQuery() {
+        val ini = Ini.load(
+            InputStreamReader("Home = /opt\n[Paths]\nLogs = \${HOME}/logs\nArchive = \${paths.LOGS}/old\n".byteInputStream())
+        ).let { Ini(true).apply { merge(it) } }
+        ini.interpolation = true
+
+        assertEquals("/opt/logs/old", ini.section("PATHS")["archive"])
+        ini["home"] = "/srv"
+        assertEquals("/srv/logs/old", ini.section("paths")["ARCHIVE"])
+
+        assertEquals(listOf("Paths.Archive", "Paths.Logs"), ini.query("paths/*").map { it.path }.toList())
+        assertEquals(listOf("Paths.Logs"), ini.query("PATHS/logs").map { it.path }.toList())
+        assertEquals(listOf("Home"), ini.query("/HO*").map { it.path }.toList())
+    }
+}
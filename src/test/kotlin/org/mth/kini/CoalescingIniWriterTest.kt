@@ -0,0 +1,128 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.IOException
+import java.nio.charset.Charset
+import java.nio.charset.CharsetDecoder
+import java.nio.charset.CharsetEncoder
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+class CoalescingIniWriterTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    /**
+     * Waits up to 10 seconds for [condition], which depends on the scheduler thread.
+     */
+    private fun await(condition: () -> Boolean) {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10)
+        while (!condition()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out")
+            Thread.sleep(10)
+        }
+    }
+
+    @Test
+    fun testBurstIsCoalescedIntoOneWrite() {
+        val ini = Ini()
+        val target = tempDir.resolve("runtime.ini")
+
+        // no write can happen within the interval: the burst and the flush give exactly one
+        CoalescingIniWriter(ini, target, Duration.ofHours(1)).use { writer ->
+            for (i in 1..100) {
+                synchronized(ini) { ini["counter"] = i.toString() }
+                writer.requestStore()
+            }
+            assertEquals(0, writer.writeCount)
+
+            writer.flush()
+            assertEquals(1, writer.writeCount)
+            assertEquals("100", Ini.load(target)["counter"])
+        }
+    }
+
+    @Test
+    fun testScheduledWrite() {
+        val ini = Ini()
+        val target = tempDir.resolve("scheduled.ini")
+
+        CoalescingIniWriter(ini, target, Duration.ofMillis(20)).use { writer ->
+            synchronized(ini) { ini["key"] = "value" }
+            writer.requestStore()
+            await { writer.writeCount == 1L }
+            assertEquals("value", Ini.load(target)["key"])
+        }
+    }
+
+    @Test
+    fun testFailedWriteIsRetried() {
+        val ini = Ini()
+        val directory = tempDir.resolve("missing")
+        val target = directory.resolve("retried.ini")
+
+        CoalescingIniWriter(ini, target, Duration.ofMillis(20)).use { writer ->
+            synchronized(ini) { ini["key"] = "value" }
+            writer.requestStore()
+            assertThrows(IOException::class.java) { writer.flush() }
+            assertEquals(0, writer.writeCount)
+
+            // the failed write is retried without another request
+            Files.createDirectory(directory)
+            await { writer.writeCount == 1L }
+            assertEquals("value", Ini.load(target)["key"])
+            writer.requestStore()
+        }
+    }
+
+    @Test
+    fun testChangeIsKeptAfterUnexpectedFailure() {
+        val failing = object : Charset("x-kini-failing", null) {
+            override fun contains(cs: Charset) = false
+            override fun newDecoder(): CharsetDecoder = throw UnsupportedOperationException()
+            override fun newEncoder(): CharsetEncoder = throw IllegalStateException("encoder failure")
+        }
+        val ini = Ini()
+        val writer = CoalescingIniWriter(ini, tempDir.resolve("failing.ini"), Duration.ofHours(1), failing)
+        synchronized(ini) { ini["key"] = "value" }
+        writer.requestStore()
+
+        // the change is still pending after each failure
+        assertThrows(IllegalStateException::class.java) { writer.flush() }
+        assertThrows(IllegalStateException::class.java) { writer.flush() }
+        assertThrows(IllegalStateException::class.java) { writer.close() }
+        assertEquals(0, writer.writeCount)
+    }
+
+    @Test
+    fun testCloseFlushesPendingChanges() {
+        val ini = Ini()
+        val target = tempDir.resolve("pending.ini")
+
+        val writer = CoalescingIniWriter(ini, target, Duration.ofHours(1))
+        ini["key"] = "value"
+        writer.requestStore()
+        writer.close()
+
+        assertEquals(1, writer.writeCount)
+        assertEquals("value", Ini.load(target)["key"])
+        assertThrows(IllegalStateException::class.java) { writer.requestStore() }
+    }
+
+    @Test
+    fun testFlushWithoutChangesDoesNotWrite() {
+        val ini = Ini()
+        val target = tempDir.resolve("untouched.ini")
+
+        CoalescingIniWriter(ini, target, Duration.ofMillis(10)).use { writer ->
+            writer.flush()
+            assertEquals(0, writer.writeCount)
+        }
+        assertFalse(target.toFile().exists())
+    }
+}
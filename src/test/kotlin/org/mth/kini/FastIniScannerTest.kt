@@ -0,0 +1,144 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.fail
+import java.io.StringReader
+import java.nio.charset.MalformedInputException
+import java.util.SplittableRandom
+import kotlin.test.Test
+
+/**
+ * Runs the [IniScannerTest] cases against [IniParserEngine.FAST], and compares both engines on random
+ * inputs.
+ */
+class FastIniScannerTest : IniScannerTest() {
+
+    override val engine = IniParserEngine.FAST
+
+    /**
+     * The outcome of a scan: the properties by section, the includes and the chars read, or the error.
+     */
+    private fun jflex(text: String): String = outcome {
+        val scanner = IniScanner(StringReader(text))
+        scanner.yylex()
+        describe(scanner.ini, scanner.includes, scanner.charsRead)
+    }
+
+    private fun fast(text: String): String = outcome {
+        val scanner = FastIniScanner(StringReader(text))
+        scanner.scan()
+        describe(scanner.ini, scanner.includes, scanner.charsRead)
+    }
+
+    private fun outcome(block: () -> String): String = try {
+        block()
+    } catch (e: MalformedInputException) {
+        "MalformedInputException(${e.inputLength})"
+    } catch (e: RuntimeException) {
+        e.javaClass.name
+    }
+
+    private fun describe(ini: Map<String, List<Array<out String?>>>, includes: List<String>, chars: Long): String =
+        ini.entries.joinToString("\n") { (section, properties) ->
+            "[$section] " + properties.joinToString { "${it[0]}=${it[1]}" }
+        } + "\nincludes=$includes\nchars=$chars"
+
+    private fun assertSameOutcome(text: String) {
+        val expected = jflex(text)
+        val actual = fast(text)
+        if (expected != actual) {
+            fail<Unit>("Engines disagree on ${escape(text)}\nJFLEX: $expected\nFAST:  $actual")
+        }
+    }
+
+    private fun escape(text: String) = text.map {
+        when {
+            it == '\n' -> "\\n"
+            it == '\r' -> "\\r"
+            it == '\t' -> "\\t"
+            it.code < 0x20 || it.code > 0x7e -> "\\u%04x".format(it.code)
+            else -> it.toString()
+        }
+    }.joinToString("", "\"", "\"")
+
+    @Test
+    fun testQuirks() {
+        listOf(
+            "",
+            "a=1",
+            "a = \"quoted\" ; comment\nb = 'single'",
+            "a =\"no blank before the quote\"",
+            "a = x \"mid value",
+            "a = \"unterminated\nb = 'unterminated",
+            "a = \"\\\" is not an escape\"",
+            "a = 'it\\'s escaped'\nb = 'x\\\\'\nc = 'x\\'\nd = '\\",
+            "  indented = 1\n\t\n  \nb = 2",
+            "multi\nline\nname = 1",
+            "[section] trailing\nk = v",
+            "[]\nk = v",
+            "[unterminated",
+            "name without delimiter",
+            "a = 1\n   ",
+            "=leading",
+            "a = 1\n= 2",
+            "a = \"\"\nb = \"\n",
+            "!include first.ini\n@include = second.ini\n!include = third.ini\n!include: fourth.ini\n!include last.ini",
+            "!includes = not a directive\n!include",
+            "k = \uD83D\uDE00 pair \uD800 lone\n\uD83D\uDE00key = 1",
+            "a = b\r\nc = d\re = f\r",
+            "x = 1\u2028\u2029\u000B\u000C\u0085[y",
+        ).forEach { assertSameOutcome(it) }
+    }
+
+    @Test
+    fun testPlatformVersion() {
+        // set by the java21 profile on its runs against the multi-release jar, see pom.xml
+        val expected = System.getProperty("kini.platform") ?: return
+        val vectors = Platform::class.java.declaredFields.firstOrNull { it.name == "VECTORS" }
+            ?.apply { isAccessible = true }
+            ?.getBoolean(null)
+
+        assertEquals(expected, if (vectors == null) "11" else if (vectors) "21-vectors" else "21")
+    }
+
+    @Test
+    fun testDifferentialFuzz() {
+        val tokens = arrayOf(
+            " ", " ", "\t", "\n", "\n", "\r\n", "\r", "=", " = ", ":", "\"", "'", "#", ";", "[", "]", "\\",
+            "a", "key", "value", "0", "n", "t", "\\n", "\\\"", "é", "\uD83D\uDE00", "\uD800", "\u2028",
+            "!include ", "!include", "@include", "[sec]\n", "[a.b]", "x = \"quoted text\"\n", "y = 'single'\n"
+        )
+        val random = SplittableRandom(20260101)
+        repeat(20_000) {
+            val text = buildString {
+                repeat(random.nextInt(1, 40)) { append(tokens[random.nextInt(tokens.size)]) }
+                // see the FastIniScanner docs: decoded text never ends with an unpaired high surrogate
+                if (last().isHighSurrogate()) append('x')
+            }
+            assertSameOutcome(text)
+        }
+    }
+
+    @Test
+    fun testGeneratedDocuments() {
+        val random = SplittableRandom(7)
+        repeat(200) {
+            val text = buildString {
+                repeat(random.nextInt(1, 30)) { line ->
+                    when (random.nextInt(6)) {
+                        0 -> append("[section").append(line).append("]\n")
+                        1 -> append("; comment ").append(line).append('\n')
+                        2 -> append("key").append(line).append(" = \"quoted ").append(line).append(" \\t\" ; c\n")
+                        3 -> append("key").append(line).append(": 'single'\n")
+                        else -> append("key").append(line).append(" = plain value ").append(line).append('\n')
+                    }
+                }
+            }
+            assertSameOutcome(text)
+
+            val jflex = Ini.load(java.io.InputStreamReader(text.byteInputStream()))
+            val fast = Ini.load(java.io.InputStreamReader(text.byteInputStream()), IniLoadOptions(engine = IniParserEngine.FAST))
+            assertEquals(jflex.toString(), fast.toString())
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.Executors
+import kotlin.io.path.createDirectories
+import kotlin.io.path.writeText
+
+class IncludeResolverTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun file(name: String, content: String): Path =
+        tempDir.resolve(name).apply { parent.createDirectories(); writeText(content) }
+
+    private val resolving = IniLoadOptions(resolveIncludes = true)
+
+    private fun parse(text: String): Ini =
+        Ini.load(java.io.InputStreamReader(text.byteInputStream()))
+
+    @Test
+    fun testDirectivesAreRecognized() {
+        val ini = parse(
+            """
+            @include = base.ini
+            !include conf.d/*.ini
+              !include   last.ini ; trailing comment is part of the path
+            key = value
+            !include = tail.ini
+            [section]
+            !include end.ini
+            """.trimIndent()
+        )
+
+        assertEquals(
+            listOf("base.ini", "conf.d/*.ini", "last.ini ; trailing comment is part of the path", "tail.ini", "end.ini"),
+            ini.includes
+        )
+        assertEquals(mapOf("key" to "value"), ini.globalProperties())
+        assertTrue(ini.section("section").isEmpty())
+    }
+
+    @Test
+    fun testDirectiveAtEndOfFile() {
+        assertEquals(listOf("other.ini"), parse("a = 1\n!include other.ini").includes)
+        assertEquals(mapOf("a" to "1"), parse("a = 1\n!include other.ini").globalProperties())
+    }
+
+    @Test
+    fun testNotADirective() {
+        val ini = parse("!included = 1\n!important = 2\n")
+        assertTrue(ini.includes.isEmpty())
+        assertEquals("1", ini["!included"])
+        assertEquals("2", ini["!important"])
+    }
+
+    @Test
+    fun testIncludesAreMergedInDeclaredOrder() {
+        file("conf.d/10-db.ini", "[db]\nhost = db1\nport = 5432\n")
+        file("conf.d/20-db.ini", "[db]\nhost = db2\n")
+        file("base.ini", "name = base\nlevel = base\n")
+        val main = file("app.ini", "@include = base.ini\n!include conf.d/*.ini\nlevel = app\n")
+
+        val ini = Ini.load(main, resolving)
+
+        assertEquals("base", ini["name"])
+        assertEquals("app", ini["level"])
+        assertEquals("db2", ini.section("db")["host"])
+        assertEquals("5432", ini.section("db")["port"])
+        assertEquals(listOf("base.ini", "conf.d/*.ini"), ini.includes)
+    }
+
+    @Test
+    fun testSharedIncludeIsMergedOnce() {
+        file("common.ini", "a = common\nb = common\n")
+        file("left.ini", "!include common.ini\na = left\n")
+        file("right.ini", "!include common.ini\nc = right\n")
+        val main = file("main.ini", "!include left.ini\n!include right.ini\n")
+
+        Executors.newFixedThreadPool(2).let { executor ->
+            try {
+                val ini = Ini.load(main, IniLoadOptions(resolveIncludes = true, executor = executor))
+                // re-merging common.ini after left.ini would have restored a = common
+                assertEquals("left", ini["a"])
+                assertEquals("common", ini["b"])
+                assertEquals("right", ini["c"])
+            } finally {
+                executor.shutdown()
+            }
+        }
+    }
+
+    @Test
+    fun testCycleIsDetected() {
+        file("a.ini", "!include b.ini\n")
+        file("b.ini", "!include a.ini\n")
+
+        val e = assertThrows<IllegalStateException> { Ini.load(tempDir.resolve("a.ini"), resolving) }
+        assertEquals("Include cycle: a.ini -> b.ini -> a.ini", e.message)
+    }
+
+    @Test
+    fun testMissingIncludeAndUnresolvedOption() {
+        val main = file("main.ini", "!include missing.ini\nkey = 1\n")
+
+        assertThrows<java.nio.file.NoSuchFileException> { Ini.load(main, resolving) }
+
+        // not resolved by default
+        val ini = Ini.load(main)
+        assertEquals("1", ini["key"])
+        assertNull(ini["!include"])
+        assertEquals(listOf("missing.ini"), ini.includes)
+        assertEquals(ini.toString(), Ini.loadOrNull(main).toString())
+    }
+
+    @Test
+    fun testCachedIncludesAreParsedOnce() {
+        val shared = file("shared.ini", "[db]\nhost = one\n")
+        val main = file("main.ini", "!include shared.ini\nname = main\n")
+        val cache = IniCache()
+
+        assertNull(IniCache().load(main).section("db")["host"])
+
+        val first = Ini.load(main, IniLoadOptions(resolveIncludes = true, cache = cache))
+        assertTrue(first.isFrozen)
+        assertEquals("one", first.section("db")["host"])
+        assertEquals(IniCache.Stats(0, 2, 0), cache.stats())
+
+        val time = Files.getLastModifiedTime(shared)
+        shared.writeText("[db]\nhost = two\n")
+        Files.setLastModifiedTime(shared, java.nio.file.attribute.FileTime.fromMillis(time.toMillis() + 2000))
+
+        val second = Ini.load(main, IniLoadOptions(resolveIncludes = true, cache = cache))
+        assertEquals("two", second.section("db")["host"])
+        assertEquals("main", second["name"])
+        // main.ini is served from the cache, only shared.ini is parsed again
+        assertEquals(IniCache.Stats(1, 3, 0), cache.stats())
+    }
+}
@@ -0,0 +1,137 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class IniBinderTest {
+
+    enum class Mode { FAST, SAFE }
+
+    data class Pool(val size: Int, val timeout: Long = 30)
+
+    data class Database(
+        val host: String,
+        val port: Int,
+        val pool: Pool,
+        val mode: Mode = Mode.SAFE,
+        val replicas: List<String> = emptyList(),
+        val user: String? = null
+    )
+
+    data class Server(@IniKey("listen-port") val port: Int, val secure: Boolean)
+
+    data class Application(val name: String, val db: Database, val server: Server)
+
+    data class Strict(val a: Int, val b: Double, val c: Boolean)
+
+    data class Cluster(val name: String, val pool: Pool? = null, val backup: Pool?)
+
+    data class Limits(val max: Int, val enabled: Boolean, val ratio: Double = 0.5, val burst: Long = 100, val label: String = "l")
+
+    @Test
+    fun testBindSectionWithNestedKeys() {
+        val section = IniSection("db").apply {
+            this["host"] = "localhost"
+            this["port"] = "5432"
+            this["pool.size"] = "10"
+            this["mode"] = "fast"
+            this["replicas"] = "[r1, r2]"
+        }
+
+        val db = section.bind<Database>()
+
+        assertEquals(Database("localhost", 5432, Pool(10, 30), Mode.FAST, listOf("r1", "r2")), db)
+    }
+
+    @Test
+    fun testBindIniSections() {
+        val ini = ini {
+            this["name"] = "demo"
+            section("db") {
+                this["host"] = "127.0.0.1"
+                this["port"] = "3306"
+            }
+            section("db.pool") {
+                this["size"] = "4"
+                this["timeout"] = "5L"
+            }
+            section("server") {
+                this["listen-port"] = "8080"
+                this["secure"] = "TRUE"
+            }
+        }
+
+        val app = ini.bind(Application::class.java)
+
+        assertEquals("demo", app.name)
+        assertEquals(Pool(4, 5), app.db.pool)
+        assertEquals(Server(8080, true), app.server)
+    }
+
+    @Test
+    fun testAllErrorsAreReported() {
+        val section = IniSection("strict").apply {
+            this["a"] = "not a number"
+            this["c"] = "maybe"
+        }
+
+        val e = assertThrows<IniBindingException> { section.bind<Strict>() }
+
+        assertEquals(3, e.errors.size)
+        assertTrue(e.errors.any { it.startsWith("a:") })
+        assertTrue(e.errors.any { it.startsWith("b:") })
+        assertTrue(e.errors.any { it.startsWith("c:") })
+    }
+
+    @Test
+    fun testMissingNonNullProperty() {
+        val section = IniSection("db").apply {
+            this["port"] = "5432"
+            this["pool.size"] = "1"
+        }
+
+        val e = assertThrows<IniBindingException> { section.bind<Database>() }
+        assertEquals(listOf("host: missing property"), e.errors)
+
+        // every missing property is reported, nested objects included, before the constructor is invoked
+        val all = assertThrows<IniBindingException> { IniSection("db").apply { this["mode"] = "fast" }.bind<Database>() }
+        assertEquals(listOf("host: missing property", "port: missing property", "pool: missing property"), all.errors)
+    }
+
+    @Test
+    fun testMissingPrimitiveWithoutDefault() {
+        val e = assertThrows<IniBindingException> { IniSection("limits").apply { this["label"] = "x" }.bind<Limits>() }
+        assertEquals(listOf("max: missing property", "enabled: missing property"), e.errors)
+
+        val limits = IniSection("limits").apply {
+            this["max"] = "5"
+            this["enabled"] = "false"
+            this["burst"] = "7"
+        }.bind<Limits>()
+        assertEquals(Limits(5, false, 0.5, 7, "l"), limits)
+
+        // a default on the nested object only, and on its primitive properties
+        assertEquals(Pool(3, 30), IniSection("pool").apply { this["size"] = "3" }.bind<Pool>())
+        assertTrue(assertThrows<IniBindingException> { IniSection("pool").apply { this["timeout"] = "1" }.bind<Pool>() }
+            .errors.single().startsWith("size:"))
+    }
+
+    @Test
+    fun testOptionalNestedObject() {
+        assertEquals(Cluster("c", null, null), IniSection("cluster").apply { this["name"] = "c" }.bind<Cluster>())
+
+        val e = assertThrows<IniBindingException> {
+            IniSection("cluster").apply {
+                this["name"] = "c"
+                this["backup.timeout"] = "1"
+            }.bind<Cluster>()
+        }
+        assertEquals(listOf("backup.size: missing property"), e.errors)
+    }
+
+    @Test
+    fun testUnsupportedType() {
+        assertThrows<IniBindingException> { IniSection("x").bind<Thread>() }
+    }
+}
@@ -0,0 +1,95 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class IniBuilderTest {
+
+    @Test
+    fun testSameContentAsDsl() {
+        val expected = ini {
+            this["name"] = "app"
+            "database" {
+                "host" to "localhost"
+                "port" to 5432
+                "pool" {
+                    "size" to 8
+                    "idle" {
+                        "timeout" to 30L
+                    }
+                }
+                "ssl" to true
+            }
+            "server" {
+                "ratio" to 0.5
+            }
+        }
+
+        val built = buildIni(expectedSections = 2, expectedKeys = 8) {
+            "name" to "app"
+            "database" {
+                "host" to "localhost"
+                "port" to 5432
+                "pool" {
+                    "size" to 8
+                    "idle" {
+                        "timeout" to 30L
+                    }
+                }
+                "ssl" to true
+            }
+            "server" {
+                "ratio" to 0.5
+            }
+        }
+        assertEquals(expected.toString(), built.toString())
+        assertEquals(8, built.section("database").getInt("pool.size"))
+        assertFalse(built.isFrozen)
+    }
+
+    @Test
+    fun testFluentApi() {
+        val builder = IniBuilder(expectedSections = 1, expectedKeys = 20)
+        val ini = builder
+            .put("version", 2)
+            .section("db")
+            .put("host", "localhost")
+            .beginPrefix("pool").beginPrefix("idle").put("timeout", 30L).endPrefix().put("size", 8).endPrefix()
+            .put("enabled", true)
+            .global()
+            .put("ratio", 0.25)
+            .build(frozen = true)
+
+        assertEquals(mapOf("version" to "2", "ratio" to "0.25"), ini.globalProperties())
+        assertEquals(
+            mapOf("host" to "localhost", "pool.idle.timeout" to "30", "pool.size" to "8", "enabled" to "true"),
+            ini.section("db").properties()
+        )
+        assertTrue(ini.isFrozen)
+        assertTrue(ini.section("db").isFrozen)
+        assertThrows<UnsupportedOperationException> { ini.section("db")["host"] = "remote" }
+        assertThrows<IllegalStateException> { builder.endPrefix() }
+    }
+
+    @Test
+    fun testReuse() {
+        val builder = IniBuilder(expectedSections = 100, expectedKeys = 100, caseInsensitive = true)
+        val documents = (0 until 3).map { n ->
+            repeat(100) { s ->
+                builder.section("Section$s")
+                repeat(100) { k -> builder.put("Key$k", n * k) }
+            }
+            builder.build()
+        }
+
+        documents.forEachIndexed { n, ini ->
+            assertTrue(ini.isCaseInsensitive)
+            assertEquals(100, ini.sectionCount())
+            assertEquals(100, ini.section("SECTION99").propertyCount)
+            assertEquals(n * 99, ini.section("section42").getInt("KEY99"))
+        }
+        assertNotSame(documents[0], documents[1])
+        assertEquals(0, builder.build().sectionCount())
+    }
+}
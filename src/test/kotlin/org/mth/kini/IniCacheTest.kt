@@ -0,0 +1,98 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+class IniCacheTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun file(name: String, content: String): Path = tempDir.resolve(name).apply { writeText(content) }
+
+    @Test
+    fun testSharedFrozenInstance() {
+        val path = file("app.ini", "[app]\nname = kini\n")
+        val cache = IniCache()
+
+        val first = cache.load(path)
+        val second = cache.load(tempDir.resolve(".").resolve("app.ini"))
+
+        assertSame(first, second)
+        assertTrue(first.isFrozen)
+        assertEquals("kini", first.section("app")["name"])
+        assertThrows<UnsupportedOperationException> { first.section("app")["name"] = "other" }
+        assertEquals(IniCache.Stats(1, 1, 0), cache.stats())
+    }
+
+    @Test
+    fun testModifiedFileIsReloaded() {
+        val path = file("app.ini", "key = 1\n")
+        val cache = IniCache(verifyContentHash = true)
+
+        val time = Files.getLastModifiedTime(path)
+        assertEquals("1", cache.load(path)["key"])
+
+        path.writeText("key = 2\n")
+        Files.setLastModifiedTime(path, time)
+        assertEquals("2", cache.load(path)["key"])
+        assertEquals(2, cache.stats().missCount)
+        assertEquals(1, cache.size)
+    }
+
+    @Test
+    fun testCopyOnLoad() {
+        val path = file("app.ini", "key = 1\n")
+        val cache = IniCache(copyOnLoad = true)
+
+        val copy = cache.load(path)
+        copy["key"] = "changed"
+
+        assertFalse(copy.isFrozen)
+        assertEquals("1", cache.load(path)["key"])
+    }
+
+    @Test
+    fun testLruEvictionByCountAndWeight() {
+        val a = file("a.ini", "a = 1\n")
+        val b = file("b.ini", "b = 1\n")
+        val c = file("c.ini", "c = 1\n")
+
+        val cache = IniCache(maxEntries = 2)
+        cache.load(a)
+        cache.load(b)
+        cache.load(a)
+        cache.load(c) // evicts b, the least recently used
+
+        assertEquals(2, cache.size)
+        assertEquals(1, cache.stats().evictionCount)
+        cache.load(a)
+        assertEquals(2, cache.stats().hitCount)
+
+        val weighted = IniCache(maxWeight = Files.size(a) + Files.size(b))
+        weighted.load(a)
+        weighted.load(b)
+        weighted.load(c)
+        assertEquals(2, weighted.size)
+        assertTrue(weighted.totalWeight <= weighted.maxWeight)
+    }
+
+    @Test
+    fun testInvalidate() {
+        val path = file("app.ini", "key = 1\n")
+        val cache = IniCache(softValues = true)
+
+        val first = cache.load(path)
+        cache.invalidate(path)
+        assertNotSame(first, cache.load(path))
+
+        cache.invalidateAll()
+        assertEquals(0, cache.size)
+        assertEquals(0, cache.totalWeight)
+    }
+}
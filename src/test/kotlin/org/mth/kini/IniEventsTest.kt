@@ -0,0 +1,87 @@
+package org.mth.kini
+
+import jdk.jfr.EventType
+import jdk.jfr.FlightRecorder
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import kotlin.io.path.writeText
+
+class IniEventsTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun record(block: () -> Unit): List<RecordedEvent> {
+        val output = tempDir.resolve("recording.jfr")
+        Recording(IniEvents.configuration()).use { recording ->
+            recording.start()
+            block()
+            recording.stop()
+            recording.dump(output)
+        }
+        return RecordingFile.readAllEvents(output).filter { it.eventType.name.startsWith("org.mth.kini.") }
+    }
+
+    @Test
+    fun testEventsDisabledByDefault() {
+        FlightRecorder.register(IniLoadEvent::class.java)
+        assertFalse(EventType.getEventType(IniLoadEvent::class.java).isEnabled)
+        assertFalse(IniLoadEvent().isEnabled)
+    }
+
+    @Test
+    fun testEventsAreRecorded() {
+        val path = tempDir.resolve("app.ini").apply { writeText("a = 1\n[s]\nb = 2\n") }
+        val out = tempDir.resolve("out.ini")
+
+        val events = record {
+            val ini = Ini.load(path)
+            Ini().merge(ini)
+            ini.store(out, atomic = true)
+        }
+
+        val byName = events.associateBy { it.eventType.name }
+        assertEquals(setOf("org.mth.kini.Load", "org.mth.kini.Merge", "org.mth.kini.Store"), byName.keys)
+
+        val load = byName.getValue("org.mth.kini.Load")
+        assertEquals(path.toString(), load.getString("path"))
+        assertEquals(Files.size(path), load.getLong("bytes"))
+        assertEquals(1, load.getInt("sections"))
+        assertEquals(2, load.getInt("properties"))
+
+        val merge = byName.getValue("org.mth.kini.Merge")
+        assertEquals(1, merge.getInt("sections"))
+        assertEquals(2, merge.getInt("properties"))
+
+        val store = byName.getValue("org.mth.kini.Store")
+        assertEquals(out.toString(), store.getString("path"))
+        assertEquals(Files.size(out), store.getLong("bytes"))
+        assertTrue(store.getBoolean("atomic"))
+    }
+
+    @Test
+    fun testReloadEvent() {
+        val path = tempDir.resolve("app.ini").apply { writeText("a = 1\n") }
+        val cache = IniCache()
+        cache.load(path)
+
+        val events = record {
+            cache.load(path)
+            path.writeText("a = 2\nb = 3\n")
+            Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 2000))
+            cache.load(path)
+        }
+
+        val reloads = events.filter { it.eventType.name == "org.mth.kini.Reload" }
+        assertEquals(1, reloads.size)
+        assertEquals(2, reloads[0].getInt("properties"))
+        assertEquals(1, events.count { it.eventType.name == "org.mth.kini.Load" })
+    }
+}
@@ -0,0 +1,230 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.io.path.readText
+import kotlin.io.path.writeText
+
+class IniJournalTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private val file: Path get() = tempDir.resolve("runtime.ini")
+
+    @Test
+    fun testChangesAreReplayed() {
+        file.writeText("name = app\n[db]\nhost = localhost\nport = 5432\n[cache]\nsize = 10\n")
+        val base = file.readText()
+
+        IniJournal(file).use { journal ->
+            journal.set("db", "port", "6543")
+            journal.set("version", "2")
+            journal.set("new", "key", "multi\nline value")
+            assertEquals("localhost", journal.removeProperty("db", "host"))
+            assertNull(journal.removeProperty("db", "missing"))
+            assertTrue(journal.removeSection("cache"))
+            assertFalse(journal.removeSection("cache"))
+            assertEquals("6543", journal.ini.section("db")["port"])
+        }
+        assertEquals(base, file.readText())
+
+        IniJournal(file).use { journal ->
+            val ini = journal.ini
+            assertEquals("2", ini["version"])
+            assertEquals(mapOf("port" to "6543"), ini.section("db").properties())
+            assertEquals("multi\nline value", ini.section("new")["key"])
+            assertFalse(ini.hasSection("cache"))
+        }
+    }
+
+    @Test
+    fun testCompaction() {
+        IniJournal(file).use { journal ->
+            journal.set("db", "host", "localhost")
+            journal.set("db", "port", "5432")
+            journal.compact()
+            assertEquals(1, journal.compactionCount)
+            assertEquals(8, journal.logBytes)
+            journal.set("db", "port", "6543")
+        }
+        assertEquals("[db]\nhost = localhost\nport = 5432", file.readText())
+
+        IniJournal(file).use { journal ->
+            assertEquals("6543", journal.ini.section("db")["port"])
+            journal.compact()
+        }
+        assertEquals("[db]\nhost = localhost\nport = 6543", file.readText())
+        assertEquals(8, Files.size(tempDir.resolve("runtime.ini.journal")))
+    }
+
+    @Test
+    fun testCompactionRoundTrip() {
+        val values = listOf(
+            "multi\nline value", "http://x/#frag;y", "trail ;", "it's", "a \"b\" c", "'q'", "\"dq\"", " lead",
+            "x\\y", "", "tab\tin", "both ' and \"", "line\rsep", "[not a section]", "key = value"
+        )
+        listOf(IniLoadOptions(), IniLoadOptions(decodeEscapes = true), IniLoadOptions(engine = IniParserEngine.FAST)).forEach { options ->
+            Files.deleteIfExists(file)
+            IniJournal(file, options).use { journal ->
+                values.forEachIndexed { i, value -> journal.set("s", "k$i", value) }
+                journal.set("s", "after", "1")
+                journal.compact()
+                if (options.decodeEscapes) assertEquals(8, journal.logBytes)
+            }
+
+            // what the file holds is read back unchanged, the rest is still in the log
+            val stored = Ini.load(file, options).section("s")
+            values.indices.forEach { i -> stored.getRaw("k$i")?.let { assertEquals(values[i], it) } }
+            assertEquals("http://x/#frag;y", stored.getRaw("k1"))
+            assertEquals("1", stored.getRaw("after"))
+
+            IniJournal(file, options).use { journal ->
+                values.forEachIndexed { i, value -> assertEquals(value, journal.ini.section("s").getRaw("k$i"), options.toString()) }
+                journal.set("s", "k0", "replaced")
+                journal.compact()
+            }
+            IniJournal(file, options).use { assertEquals("replaced", it.ini.section("s").getRaw("k0")) }
+        }
+    }
+
+    @Test
+    fun testRetainedRecordsKeepTheirOrder() {
+        IniJournal(file).use { journal ->
+            journal.set("a", "x", "first\nvalue")
+            journal.compact()
+            assertTrue(journal.logBytes > 8)
+            journal.set("a", "x", "plain")
+            journal.compact()
+            assertEquals(8, journal.logBytes)
+        }
+        IniJournal(file).use { assertEquals("plain", it.ini.section("a")["x"]) }
+    }
+
+    @Test
+    fun testUnwritableNamesAndIncludes() {
+        IniJournal(file).use { journal ->
+            listOf("a=b", "a:b", "a\nb", "", " padded", "[x", ";x", "@include", "!include").forEach { key ->
+                assertThrows<IllegalArgumentException> { journal.set("s", key, "v") }
+            }
+            listOf("a]b", "a\nb", "", "padded ").forEach { section ->
+                assertThrows<IllegalArgumentException> { journal.set(section, "k", "v") }
+            }
+            journal.set("a b", "k;#\"'", "v")
+            journal.compact()
+        }
+        assertEquals("v", Ini.load(file).section("a b")["k;#\"'"])
+
+        tempDir.resolve("base.ini").writeText("[db]\nhost = base\n")
+        file.writeText("@include = base.ini\n[db]\nport = 1\n")
+        assertThrows<IOException> { IniJournal(file, IniLoadOptions(resolveIncludes = true)) }
+    }
+
+    @Test
+    fun testCachedAndFrozenConfiguration() {
+        file.writeText("[db]\nhost = localhost\n")
+        val cache = IniCache()
+        val shared = cache.load(file)
+
+        // the journal does not get the frozen instance shared through the cache
+        IniJournal(file, IniLoadOptions(cache = cache)).use { journal ->
+            assertNotSame(shared, journal.ini)
+            journal.set("db", "host", "remote")
+            assertEquals("localhost", shared.section("db")["host"])
+
+            // a change that cannot be applied is not logged
+            val size = journal.logBytes
+            journal.ini.freeze()
+            assertThrows<UnsupportedOperationException> { journal.set("db", "port", "5432") }
+            assertThrows<UnsupportedOperationException> { journal.removeSection("db") }
+            assertEquals(size, journal.logBytes)
+        }
+
+        IniJournal(file).use { journal ->
+            assertEquals(mapOf("host" to "remote"), journal.ini.section("db").properties())
+        }
+    }
+
+    @Test
+    fun testBackgroundCompaction() {
+        val executor = Executors.newSingleThreadExecutor()
+        val journal = IniJournal(file, compactionThreshold = 256, executor = executor)
+        repeat(100) { journal.set("counters", "c${it % 10}", it.toString()) }
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS))
+
+        assertTrue(journal.compactionCount > 0)
+        assertTrue(file.readText().startsWith("[counters]"))
+        journal.close()
+
+        val reopened = IniJournal(file)
+        (0 until 10).forEach { assertEquals((90 + it).toString(), reopened.ini.section("counters")["c$it"]) }
+        reopened.close()
+    }
+
+    @Test
+    fun testReplayAfterCompactionIsHarmless() {
+        val log = tempDir.resolve("runtime.ini.journal")
+        IniJournal(file).use { journal ->
+            journal.set("a", "x", "1")
+            journal.removeSection("a")
+            journal.set("a", "y", "2")
+            journal.set("b", "z", "3")
+            journal.removeProperty("b", "z")
+            Files.copy(log, tempDir.resolve("saved"))
+            journal.compact()
+        }
+        // a crash after writing the file, before dropping the records from the log
+        Files.copy(tempDir.resolve("saved"), log, StandardCopyOption.REPLACE_EXISTING)
+
+        IniJournal(file).use { journal ->
+            assertEquals(mapOf("y" to "2"), journal.ini.section("a").properties())
+            assertTrue(journal.ini.section("b").isEmpty())
+        }
+    }
+
+    @Test
+    fun testTornRecordIsTruncated() {
+        val log = tempDir.resolve("runtime.ini.journal")
+        IniJournal(file).use { journal ->
+            journal.set("a", "x", "1")
+            journal.set("a", "y", "2")
+        }
+        val complete = Files.size(log)
+        Files.write(log, byteArrayOf(0, 0, 0, 40, 1, 2, 3), StandardOpenOption.APPEND)
+
+        IniJournal(file).use { journal ->
+            assertEquals(mapOf("x" to "1", "y" to "2"), journal.ini.section("a").properties())
+            assertEquals(complete, journal.logBytes)
+            journal.set("a", "z", "3")
+        }
+        IniJournal(file).use { assertEquals("3", it.ini.section("a")["z"]) }
+
+        // a corrupt record ends the replay too
+        val bytes = Files.readAllBytes(log)
+        bytes[bytes.size - 1] = (bytes[bytes.size - 1] + 1).toByte()
+        Files.write(log, bytes)
+        IniJournal(file).use { assertNull(it.ini.section("a")["z"]) }
+    }
+
+    @Test
+    fun testInvalidLogAndClosedJournal() {
+        tempDir.resolve("runtime.ini.journal").writeText("not a journal")
+        assertThrows<IOException> { IniJournal(file) }
+
+        Files.delete(tempDir.resolve("runtime.ini.journal"))
+        val journal = IniJournal(file)
+        journal.close()
+        assertThrows<IllegalStateException> { journal.set("a", "1") }
+        assertThrows<IllegalStateException> { journal.compact() }
+    }
+}
@@ -0,0 +1,112 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+class IniMetricsTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private class Recorder : IniMetrics {
+        val events = mutableListOf<String>()
+
+        override fun loaded(path: Path?, bytes: Long, chars: Long, sections: Int, properties: Int, nanos: Long) {
+            events += "load ${path?.fileName} $bytes $chars $sections $properties"
+        }
+
+        override fun stored(path: Path, bytes: Long, nanos: Long) {
+            events += "store ${path.fileName} $bytes"
+        }
+
+        override fun merged(sections: Int, properties: Int, nanos: Long) {
+            events += "merge $sections $properties"
+        }
+
+        override fun lookedUp(section: String, name: String, found: Boolean, nanos: Long) {
+            events += "get $section $name $found"
+        }
+    }
+
+    @AfterEach
+    fun uninstall() {
+        IniMetrics.install(IniMetrics.NOOP)
+    }
+
+    @Test
+    fun testNotifications() {
+        val recorder = Recorder()
+        IniMetrics.install(recorder, lookupSampleRate = 1)
+        assertSame(recorder, IniMetrics.installed())
+
+        val path = tempDir.resolve("app.ini").apply { writeText("a = 1\n[s]\nb = 2\nc = 3\n") }
+        val ini = Ini.load(path)
+        assertEquals("load app.ini 22 22 1 3", recorder.events.removeAt(0))
+
+        ini.section("s")["b"]
+        ini["missing"]
+        assertEquals(listOf("get s b true", "get ${Ini.ROOT} missing false"), recorder.events)
+        recorder.events.clear()
+
+        Ini().merge(ini)
+        assertEquals(listOf("merge 1 3"), recorder.events)
+        recorder.events.clear()
+
+        val out = tempDir.resolve("out.ini")
+        ini.store(out)
+        assertEquals(listOf("store out.ini ${Files.size(out)}"), recorder.events)
+    }
+
+    @Test
+    fun testLookupsNotSampledByDefault() {
+        val recorder = Recorder()
+        IniMetrics.install(recorder)
+
+        val ini = Ini().apply { this["a"] = "1" }
+        repeat(100) { ini["a"] }
+        assertTrue(recorder.events.isEmpty())
+
+        IniMetrics.install(IniMetrics.NOOP, lookupSampleRate = 1)
+        ini["a"]
+        assertTrue(recorder.events.isEmpty())
+    }
+
+    @Test
+    fun testHistogram() {
+        val histogram = HistogramIniMetrics.Histogram()
+        assertEquals(0, histogram.percentile(0.5))
+
+        (1L..1000L).forEach { histogram.record(it) }
+
+        assertEquals(1000, histogram.count)
+        assertEquals(1, histogram.min)
+        assertEquals(1000, histogram.max)
+        assertEquals(500.5, histogram.mean, 1e-9)
+        // buckets are accurate within 1/8
+        assertEquals(500.0, histogram.percentile(0.5).toDouble(), 500 / 8.0)
+        assertEquals(990.0, histogram.percentile(0.99).toDouble(), 990 / 8.0)
+        assertEquals(1000, histogram.percentile(1.0))
+        assertEquals(7, HistogramIniMetrics.Histogram().apply { record(7) }.percentile(0.5))
+
+        histogram.reset()
+        assertEquals(0, histogram.count)
+    }
+
+    @Test
+    fun testHistogramMetrics() {
+        val metrics = HistogramIniMetrics()
+        IniMetrics.install(metrics)
+
+        val path = tempDir.resolve("app.ini").apply { writeText("[s]\nb = 2\n") }
+        repeat(3) { Ini.load(path) }
+
+        assertEquals(3, metrics.loadNanos.count)
+        assertEquals(Files.size(path), metrics.loadBytes.max)
+        assertEquals(1, metrics.loadProperties.max)
+    }
+}
@@ -0,0 +1,99 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class IniQueryTest {
+
+    private val ini = ini {
+        "timeout" to "30"
+        "threads" to "4"
+        "db.mysql" {
+            "host" to "m1"
+            "pool.size" to "10"
+            "pool.timeout" to "5"
+            "pool.idle.max" to "2"
+        }
+        "db.postgres" {
+            "host" to "p1"
+            "pool.size" to "20"
+        }
+        "db.postgres.replica" {
+            "host" to "p2"
+        }
+        "dbx" {
+            "host" to "x"
+        }
+        "server" {
+            "port" to "8080"
+        }
+    }
+
+    private fun paths(pattern: String) = ini.query(pattern).map { it.path }.toList()
+
+    @Test
+    fun testGlobs() {
+        assertEquals(
+            listOf("db.mysql.pool.size", "db.mysql.pool.timeout", "db.postgres.pool.size"),
+            paths("db.*/pool.*")
+        )
+        assertEquals(listOf("db.mysql.pool.idle.max", "db.mysql.pool.size", "db.mysql.pool.timeout"), paths("db.mysql/pool.**"))
+        assertEquals(listOf("db.mysql.host", "db.postgres.host", "db.postgres.replica.host"), paths("db.**/host"))
+        assertEquals(listOf("dbx.host"), paths("db?/host"))
+        assertEquals(listOf("server.port"), paths("server"))
+        assertEquals(listOf("server.port"), paths("server/port"))
+        assertTrue(paths("server/missing").isEmpty())
+        assertTrue(paths("missing/*").isEmpty())
+    }
+
+    @Test
+    fun testGlobalProperties() {
+        assertEquals(listOf("threads", "timeout"), paths("/t*"))
+        assertEquals(listOf("30"), ini.query("/timeout").map { it.value }.toList())
+    }
+
+    @Test
+    fun testRegex() {
+        val query = IniQuery.regex(Regex("db\\.(mysql|postgres)"), Regex("pool\\.size"))
+        assertEquals(listOf("10", "20"), ini.query(query).map { it.value }.toList())
+        assertEquals(listOf("threads", "timeout"), ini.query(IniQuery.regex(null)).map { it.key }.toList())
+    }
+
+    @Test
+    fun testCompiledQueriesAreCached() {
+        assertSame(IniQuery.compile("db.*/pool.*"), IniQuery.compile("db.*/pool.*"))
+        assertThrows<IllegalArgumentException> { IniQuery.compile("a/b/c") }
+    }
+
+    @Test
+    fun testSpecialCharactersAreLiteral() {
+        val ini = ini {
+            "a(b)" {
+                "x+y" to "1"
+                "x.y" to "2"
+            }
+        }
+        assertEquals(listOf("a(b).x+y"), ini.query("a(b)/x+*").map { it.path }.toList())
+    }
+
+    @Test
+    fun testIndexesFollowChanges() {
+        assertEquals(listOf("server.port"), paths("s*/*"))
+
+        ini.section("security")["enabled"] = "true"
+        ini.section("server")["name"] = "api"
+        assertEquals(listOf("security.enabled", "server.name", "server.port"), paths("s*/*"))
+
+        ini.section("server").removeProperty("port")
+        ini.removeSection("security")
+        assertEquals(listOf("server.name"), paths("s*/*"))
+    }
+
+    @Test
+    fun testLazyValues() {
+        val matches = ini.query("server/port").toList()
+        ini.section("server")["port"] = "9090"
+        assertEquals("9090", matches.single().value)
+    }
+}
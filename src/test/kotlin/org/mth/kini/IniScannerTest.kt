@@ -31,14 +31,19 @@ import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertTrue
 
-class IniScannerTest {
+open class IniScannerTest {
     /**
-     * Helper function to load an INI file from resources using the automated JFlex lexer.
+     * The engine under test; subclasses run the same cases against the other engines.
+     */
+    protected open val engine = IniParserEngine.JFLEX
+
+    /**
+     * Helper function to load an INI file from resources using the [engine] under test.
      */
     private fun readIni(name: String): Ini {
         val stream = IniScannerTest::class.java.getResourceAsStream(name)
             ?: throw IllegalArgumentException("Resource file '$name' not found")
-        return Ini.load(InputStreamReader(stream))
+        return Ini.load(InputStreamReader(stream), IniLoadOptions(engine = engine))
     }
 
     @Test
@@ -121,7 +126,7 @@ class IniScannerTest {
             
         """.trimIndent()
 
-        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()))
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
 
         assertTrue(ini.hasSection("Sezione Spaziata"))
         // Il parser o la sezione dovrebbero applicare il trim automatico
@@ -140,7 +145,7 @@ class IniScannerTest {
             port = 8080    ; Nuova proprietà aggiunta alla sezione esistente
         """.trimIndent()
 
-        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()))
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
 
         assertEquals(1, ini.sectionCount()) // La sezione deve essere considerata una sola
         val app = ini.section("App")
@@ -176,7 +181,7 @@ class IniScannerTest {
             no_brackets = 1, 2, 3
         """.trimIndent()
 
-        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()))
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
         val s = ini.section("Arrays")
 
         // 1. Array vuoto
@@ -197,7 +202,7 @@ class IniScannerTest {
             scientific = 1e3
         """.trimIndent()
 
-        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()))
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
         val s = ini.section("Numbers")
 
         // 2147483648 è Int.MAX_VALUE + 1. getInt deve fallire per overflow, ma getLong deve leggerlo
@@ -209,4 +214,56 @@ class IniScannerTest {
         assertEquals("0x1A", s["hex_val"])
         assertEquals("1e3", s["scientific"])
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testQuotedValues() {
+        val long = "x".repeat(40_000)
+        val iniContent = """
+            [Paths]
+            home = "/opt/app" ; comment
+            url = 'https://example.com/a?b=c#d'
+            windows = "C:\temp\new"
+            spaced =   "  kept  "
+            long = "$long"
+            after = 'ok'
+        """.trimIndent()
+
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
+        val s = ini.section("Paths")
+
+        assertEquals("/opt/app", s["home"])
+        assertEquals("https://example.com/a?b=c#d", s["url"])
+        assertEquals("C:\\temp\\new", s["windows"])
+        assertEquals("kept  ", s["spaced"])
+        // longer than the scanner buffer
+        assertEquals(long, s["long"])
+        assertEquals("ok", s["after"])
+    }
+
+    @Test
+    fun testDecodeEscapes() {
+        val iniContent = """
+            tab = "a\tb"
+            lines = 'one\ntwo\r\n'
+            quotes = 'it\'s \"quoted\"'
+            unicode = "\u00e8 \u0022 \u12"
+            kept = "C:\\dir \d \"
+            plain = a\tb
+        """.trimIndent()
+
+        val options = IniLoadOptions(engine = engine, decodeEscapes = true)
+        val ini = Ini.load(InputStreamReader(iniContent.byteInputStream()), options)
+
+        assertEquals("a\tb", ini["tab"])
+        assertEquals("one\ntwo\r\n", ini["lines"])
+        assertEquals("it's \"quoted\"", ini["quotes"])
+        assertEquals("\u00e8 \" \\u12", ini["unicode"])
+        assertEquals("C:\\dir \\d \\", ini["kept"])
+        // unquoted values are not decoded
+        assertEquals("a\\tb", ini["plain"])
+
+        val raw = Ini.load(InputStreamReader(iniContent.byteInputStream()), IniLoadOptions(engine = engine))
+        assertEquals("a\\tb", raw["tab"])
+        assertEquals("it\\'s \\\"quoted\\\"", raw["quotes"])
+    }
+}
@@ -0,0 +1,162 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.io.InputStreamReader
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+class IniSchemaTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private val schema = IniSchema(
+        listOf(
+            IniSchema.Section("", keys = listOf(IniSchema.Key("name", required = true))),
+            IniSchema.Section(
+                "server", required = true, allowUnknownKeys = false, keys = listOf(
+                    IniSchema.Key("port", IniSchema.Type.INT, required = true, min = 1.0, max = 65535.0),
+                    IniSchema.Key("timeout", IniSchema.Type.LONG),
+                    IniSchema.Key("ratio", IniSchema.Type.DOUBLE, min = 0.0, max = 1.0),
+                    IniSchema.Key("debug", IniSchema.Type.BOOLEAN),
+                    IniSchema.Key("mode", values = setOf("dev", "prod")),
+                    IniSchema.Key("host", pattern = "[a-z0-9.-]+", max = 10.0)
+                )
+            ),
+            IniSchema.Section("db", keys = listOf(IniSchema.Key("url", required = true)))
+        ),
+        allowUnknownSections = false
+    )
+
+    private fun load(text: String, options: IniLoadOptions = IniLoadOptions(schema = schema)): Ini =
+        Ini.load(InputStreamReader(text.byteInputStream()), options)
+
+    private fun violations(text: String, options: IniLoadOptions = IniLoadOptions(schema = schema)): List<String> =
+        assertThrows<IniValidationException> { load(text, options) }.violations.map { it.toString() }
+
+    @Test
+    fun testValidConfiguration() {
+        val ini = load("name = app\n[server]\nport = 8080\ntimeout = 30L\nratio = 0.5\ndebug = TRUE\nmode = prod\n")
+        assertEquals(8080, ini.section("server").getInt("port"))
+        assertEquals(30L, ini.section("server").getLong("timeout"))
+        assertEquals(0.5, ini.section("server").getDouble("ratio"))
+    }
+
+    @Test
+    fun testViolationsWithLineNumbers() {
+        val text = """
+            ; global
+            name = app
+            [server]
+            port = 70000
+            timeout = soon
+            ratio = 2
+            debug = yes
+            mode = test
+            host = Example.com
+            color = blue
+            [cache]
+            size = 1
+            size = 2
+            [db]
+        """.trimIndent()
+
+        assertEquals(
+            listOf(
+                "4: [server] port: 70000 is above the maximum 65535",
+                "5: [server] timeout: expected a LONG: 'soon'",
+                "6: [server] ratio: 2 is above the maximum 1",
+                "7: [server] debug: expected a BOOLEAN: 'yes'",
+                "8: [server] mode: 'test' is not one of [dev, prod]",
+                "9: [server] host: length 11 is above the maximum 10",
+                "9: [server] host: 'Example.com' does not match [a-z0-9.-]+",
+                "10: [server] color: unknown key",
+                "12: [cache] unknown section"
+            ),
+            violations(text)
+        )
+    }
+
+    @Test
+    fun testMissingSectionsAndKeys() {
+        assertEquals(
+            listOf("name: missing required key", "[server] missing required section"),
+            violations("[db]\nurl = x\n")
+        )
+        assertEquals(
+            listOf("[server] port: missing required key", "[db] url: missing required key"),
+            violations("name = app\n[server]\nmode = dev\n[db]\nuser = x\n")
+        )
+    }
+
+    @Test
+    fun testEnginesAndStorageReportTheSameLines() {
+        val text = "name = app\r\n\r\n[server]\r\nport = 0\n debug = 1\r\n  multi\nline = 2\n"
+        val expected = listOf(
+            "4: [server] port: 0 is below the minimum 1",
+            "5: [server] debug: expected a BOOLEAN: '1'",
+            "7: [server] multi\nline: unknown key"
+        )
+        for (engine in IniParserEngine.values()) {
+            assertEquals(expected, violations(text, IniLoadOptions(schema = schema, engine = engine)), "$engine")
+            assertEquals(
+                expected,
+                violations(text, IniLoadOptions(schema = schema, engine = engine, offHeap = true)),
+                "$engine off-heap"
+            )
+        }
+    }
+
+    @Test
+    fun testParsedValuesAreKept() {
+        val ini = load("name = app\nbase = 8000\n[server]\nport = 0x1F90\nratio = 1e-1\n")
+        ini.interpolation = true
+        val server = ini.section("server")
+        assertEquals(8080, server.getInt("port"))
+        assertEquals(8080L, server.getLong("port"))
+        assertEquals(0.1, server.getDouble("ratio", 0.0))
+
+        server["port"] = "9090"
+        assertEquals(9090, server.getInt("port"))
+        server["port"] = "\${base}"
+        assertEquals(8000, server.getInt("port"))
+
+        val copy = ini.copy()
+        assertEquals(0.1, copy.section("server").getDouble("ratio"))
+    }
+
+    @Test
+    fun testCaseInsensitiveAndMultiValue() {
+        val options = IniLoadOptions(schema = schema, caseInsensitive = true, multiValue = true)
+        val ini = load("NAME = app\n[Server]\nPORT = 1\nport = 2\n", options)
+        assertEquals(listOf("1", "2"), ini.section("server").getAll("port"))
+        assertEquals(2, ini.section("SERVER").getInt("Port"))
+
+        assertEquals(
+            listOf("3: [Server] port: expected an INT: 'x'"),
+            violations("NAME = app\n[Server]\nport = x\nPORT = 3\n", options)
+        )
+    }
+
+    @Test
+    fun testIncludes() {
+        tempDir.resolve("base.ini").writeText("name = base\n[server]\nport = -1\n")
+        val file = tempDir.resolve("app.ini")
+        file.writeText("@include = base.ini\n[db]\nurl = jdbc:x\n[server]\nmode = dev\n")
+
+        val e = assertThrows<IniValidationException> { Ini.load(file, IniLoadOptions(resolveIncludes = true, schema = schema)) }
+        assertEquals(1, e.violations.size)
+        assertEquals(tempDir.resolve("base.ini").toRealPath(), e.violations[0].source)
+        assertEquals(3, e.violations[0].line)
+        assertTrue(e.message!!.contains("base.ini:3: [server] port: -1 is below the minimum 1"))
+
+        tempDir.resolve("base.ini").writeText("name = base\n[server]\nport = 1\n")
+        val cache = IniCache()
+        val ini = Ini.load(file, IniLoadOptions(resolveIncludes = true, schema = schema, cache = cache))
+        assertEquals(1, ini.section("server").getInt("port"))
+        assertEquals("dev", ini.section("server")["mode"])
+    }
+}
@@ -93,6 +93,23 @@ class IniSectionTest {
         assertEquals(1.0f, section.getFloat("missing", 1.0f))
     }
 
+    @Test
+    fun testExtendedNumericFormats() {
+        section["hex"] = "0x1F"
+        section["grouped"] = "1_000_000"
+        section["hexLong"] = "0xFFL"
+        section["size"] = "64k"
+        section["timeout"] = "30s"
+
+        assertEquals(31, section.getInt("hex"))
+        assertEquals(1_000_000, section.getInt("grouped"))
+        assertEquals(255L, section.getLong("hexLong"))
+        assertEquals(65536L, section.getSize("size"))
+        assertEquals(1L, section.getSize("missing", 1L))
+        assertEquals(java.time.Duration.ofSeconds(30), section.getDuration("timeout"))
+        assertThrows<NumberFormatException> { section.getDouble("missing") }
+    }
+
     @Test
     fun testArrayParsing() {
         section["strArray"] = "[val1, val2, val3]"
@@ -115,6 +132,36 @@ class IniSectionTest {
         }
     }
 
+    @Test
+    fun testPrimitiveArrayParsing() {
+        section["ints"] = " [1, -2 ,  3] "
+        section["longs"] = "[9223372036854775807; -1]"
+        section["suffixed"] = "[100L, 0x10L, 7]"
+        section["doubles"] = "[0.5, 1e-3, -2]"
+        section["empty"] = "[ ]"
+        section["invalid"] = "[1, x]"
+        section["overflow"] = "[2147483648]"
+        section["unbracketed"] = "1, 2"
+
+        assertArrayEquals(intArrayOf(1, -2, 3), section.getIntArray("ints"))
+        assertArrayEquals(longArrayOf(Long.MAX_VALUE, -1), section.getLongArray("longs", ';'))
+        assertArrayEquals(longArrayOf(100, 16, 7), section.getLongArray("suffixed"))
+        assertArrayEquals(doubleArrayOf(0.5, 0.001, -2.0), section.getDoubleArray("doubles"))
+        assertEquals(0, section.getIntArray("empty").size)
+
+        assertThrows<NumberFormatException> { section.getIntArray("invalid") }
+        assertThrows<NumberFormatException> { section.getIntArray("overflow") }
+        assertThrows<IllegalArgumentException> { section.getIntArray("missing") }
+        assertThrows<UnsupportedOperationException> { section.getIntArray("unbracketed") }
+
+        // cached arrays are reused until the property changes
+        val cached = section.getIntArray("ints", cache = true)
+        assertSame(cached, section.getIntArray("ints", cache = true))
+        assertNotSame(cached, section.getIntArray("ints"))
+        section["ints"] = "[4]"
+        assertArrayEquals(intArrayOf(4), section.getIntArray("ints", cache = true))
+    }
+
     @Test
     fun testHierarchicalNavigation() {
         section["db.mysql.host"] = "localhost"
@@ -187,4 +234,24 @@ class IniSectionTest {
         }
         assertEquals(1, count)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testMultipleValues() {
+        assertEquals(emptyList<String>(), section.getAll("server"))
+        section["single"] = "1"
+        assertEquals(listOf("1"), section.getAll("single"))
+
+        (0 until 100).forEach { section.add("server", "host$it") }
+        assertEquals(2, section.propertyCount)
+        assertEquals("host99", section["server"])
+        assertEquals((0 until 100).map { "host$it" }, section.getAll("server"))
+        assertEquals(100, section.toString().lines().count { it.contains("server=") })
+
+        section["server"] = "only"
+        assertEquals(listOf("only"), section.getAll("server"))
+        section.add("server", "second")
+        assertEquals(listOf("only", "second"), section.getAll("server"))
+        section.removeProperty("server")
+        assertEquals(emptyList<String>(), section.getAll("server"))
+    }
+}
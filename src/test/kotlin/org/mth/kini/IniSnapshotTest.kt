@@ -0,0 +1,87 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.io.IOException
+import java.io.InputStreamReader
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import kotlin.io.path.writeText
+
+class IniSnapshotTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun testSnapshotRoundTrip() {
+        val ini = ini {
+            this["version"] = "1.0"
+            section("db") {
+                this["host"] = "localhost"
+                this["user"] = "åäö ✓"
+            }
+            section("cache") { this["host"] = "localhost" }
+            section("empty") { }
+        }
+
+        val snapshot = tempDir.resolve("config.snapshot")
+        ini.writeSnapshot(snapshot)
+        val loaded = Ini.loadSnapshot(snapshot)
+
+        assertEquals(ini.toString(), loaded.toString())
+        assertEquals("åäö ✓", loaded.section("db")["user"])
+        assertFalse(loaded.hasSection("empty"))
+    }
+
+    @Test
+    fun testMultiValueAndCaseInsensitiveRoundTrip() {
+        val text = "path = /a\npath = /b\n[Server]\nHost = one\nhost = two\nport = 80\n"
+        val ini = Ini.load(InputStreamReader(text.byteInputStream()), IniLoadOptions(multiValue = true, caseInsensitive = true))
+
+        val snapshot = tempDir.resolve("multi.snapshot")
+        ini.writeSnapshot(snapshot)
+        val loaded = Ini.loadSnapshot(snapshot)
+
+        assertTrue(loaded.isCaseInsensitive)
+        assertEquals(listOf("/a", "/b"), loaded.getAll("PATH"))
+        assertEquals(listOf("one", "two"), loaded.section("server").getAll("HOST"))
+        assertEquals(listOf("80"), loaded.section("SERVER").getAll("port"))
+        assertEquals(ini.toString(), loaded.toString())
+    }
+
+    @Test
+    fun testInvalidSnapshot() {
+        val path = tempDir.resolve("broken.snapshot")
+        path.writeText("[section]\nkey = value with some padding to fill the header")
+        assertThrows<IOException> { Ini.loadSnapshot(path) }
+    }
+
+    @Test
+    fun testLoadCachedCreatesAndInvalidatesSnapshot() {
+        val source = tempDir.resolve("app.ini")
+        source.writeText("[app]\nname = first\n")
+
+        val first = Ini.loadCached(source)
+        val snapshot = tempDir.resolve("app.ini.snapshot")
+        assertTrue(Files.exists(snapshot))
+        assertEquals("first", first.section("app")["name"])
+
+        // same source: served from the snapshot
+        val modified = Files.getLastModifiedTime(snapshot)
+        assertEquals("first", Ini.loadCached(source).section("app")["name"])
+        assertEquals(modified, Files.getLastModifiedTime(snapshot))
+
+        // same size and modification time, different content: the hash detects the change
+        val time = Files.getLastModifiedTime(source)
+        source.writeText("[app]\nname = other\n")
+        Files.setLastModifiedTime(source, time)
+        assertEquals("other", Ini.loadCached(source).section("app")["name"])
+
+        Files.setLastModifiedTime(source, FileTime.fromMillis(time.toMillis() + 10_000))
+        assertEquals("other", Ini.loadCached(source).section("app")["name"])
+    }
+}
@@ -3,7 +3,10 @@ package org.mth.kini
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
 import java.nio.file.Path
+import java.nio.file.attribute.PosixFileAttributeView
+import java.nio.file.attribute.PosixFilePermissions
 import kotlin.io.path.readText
 
 class IniTest {
@@ -210,6 +213,44 @@ class IniTest {
         assertEquals("14", loadedIni.section("ui")["font_size"])
     }
 
+    @Test
+    fun testAtomicStore() {
+        val fileTarget = tempDir.resolve("atomic.ini")
+        fileTarget.toFile().writeText("stale = true")
+
+        val ini = ini {
+            this["app_name"] = "K-Ini-Test"
+            section("ui") { this["theme"] = "dark" }
+        }
+        ini.store(fileTarget, atomic = true)
+
+        val loadedIni = Ini.load(fileTarget)
+        assertNull(loadedIni["stale"])
+        assertEquals("K-Ini-Test", loadedIni["app_name"])
+        assertEquals("dark", loadedIni.section("ui")["theme"])
+
+        // no temporary file must be left behind
+        assertEquals(listOf("atomic.ini"), tempDir.toFile().list()!!.toList())
+    }
+
+    @Test
+    fun testAtomicStoreKeepsPermissions() {
+        val fileTarget = tempDir.resolve("shared.ini")
+        fileTarget.toFile().writeText("stale = true")
+        val posix = Files.getFileAttributeView(fileTarget, PosixFileAttributeView::class.java) ?: return
+
+        val permissions = PosixFilePermissions.fromString("rw-r--r--")
+        posix.setPermissions(permissions)
+        ini { this["key"] = "value" }.store(fileTarget, atomic = true)
+        assertEquals(permissions, Files.getPosixFilePermissions(fileTarget))
+
+        val readOnly = PosixFilePermissions.fromString("r--r-----")
+        posix.setPermissions(readOnly)
+        ini { this["key"] = "other" }.store(fileTarget, atomic = true)
+        assertEquals(readOnly, Files.getPosixFilePermissions(fileTarget))
+        assertEquals("other", Ini.load(fileTarget)["key"])
+    }
+
     @Test
     fun testLoadOrNullWithInvalidFile() {
         val nonExistentPath = tempDir.resolve("ghost_file_404.ini")
@@ -218,6 +259,46 @@ class IniTest {
         assertNull(result)
     }
 
+    @Test
+    fun testFreezeAndCopy() {
+        val ini = ini {
+            this["global"] = "1"
+            section("db") { this["host"] = "localhost" }
+        }.freeze()
+
+        assertTrue(ini.isFrozen)
+        assertThrows(UnsupportedOperationException::class.java) { ini["global"] = "2" }
+        assertThrows(UnsupportedOperationException::class.java) { ini.section("db").removeProperty("host") }
+        assertThrows(UnsupportedOperationException::class.java) { ini.removeSection("db") }
+
+        // the views cannot be modified through casts, as Java callers could
+        @Suppress("UNCHECKED_CAST")
+        val properties = ini.properties() as MutableMap<String, String>
+        assertThrows(UnsupportedOperationException::class.java) { properties["global"] = "2" }
+        assertThrows(UnsupportedOperationException::class.java) { (ini.sections as MutableCollection<IniSection>).clear() }
+        assertThrows(UnsupportedOperationException::class.java) { (ini.section("db").keys as MutableSet<String>).clear() }
+        assertThrows(UnsupportedOperationException::class.java) {
+            val iterator = ini.section("db").iterator() as MutableIterator<Map.Entry<String, String>>
+            iterator.next()
+            iterator.remove()
+        }
+        assertThrows(UnsupportedOperationException::class.java) { ini.section("db").sectionName = "other" }
+        assertThrows(UnsupportedOperationException::class.java) { ini.interpolation = true }
+        assertFalse(ini.interpolation)
+        assertEquals("1", ini["global"])
+        assertEquals("localhost", ini.section("db")["host"])
+
+        // missing sections are not created on a frozen INI
+        assertTrue(ini.section("missing").isEmpty())
+        assertFalse(ini.hasSection("missing"))
+
+        val copy = ini.copy()
+        copy.section("db")["host"] = "remote"
+        assertFalse(copy.isFrozen)
+        assertEquals("remote", copy.section("db")["host"])
+        assertEquals("localhost", ini.section("db")["host"])
+    }
+
     @Test
     fun testRemoveAllSections() {
         val ini = ini {
@@ -230,4 +311,29 @@ class IniTest {
         assertEquals(0, ini.sectionCount())
         assertTrue(ini.sections.isEmpty())
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testMultiValueLoad() {
+        val file = tempDir.resolve("endpoints.ini")
+        file.toFile().writeText("[pool]\nserver = a\nserver = b\nsize = 2\nserver = c\n")
+
+        assertEquals(listOf("c"), Ini.load(file).section("pool").getAll("server"))
+
+        val ini = Ini.load(file, IniLoadOptions(multiValue = true))
+        val pool = ini.section("pool")
+        assertEquals("c", pool["server"])
+        assertEquals(listOf("a", "b", "c"), pool.getAll("server"))
+        assertEquals(listOf("2"), pool.getAll("size"))
+
+        // all the values survive copies, merges and stores
+        assertEquals(listOf("a", "b", "c"), ini.copy().section("pool").getAll("server"))
+        assertEquals(listOf("a", "b", "c"), Ini().apply { merge(ini) }.section("pool").getAll("server"))
+        val stored = tempDir.resolve("stored.ini")
+        ini.store(stored)
+        assertEquals(3, stored.readText().lines().count { it.startsWith("server = ") })
+        assertEquals(listOf("a", "b", "c"), Ini.load(stored, IniLoadOptions(multiValue = true)).section("pool").getAll("server"))
+
+        val ci = Ini.load(file, IniLoadOptions(caseInsensitive = true, multiValue = true))
+        assertEquals(listOf("a", "b", "c"), ci.section("POOL").getAll("Server"))
+    }
+}
@@ -0,0 +1,86 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class InterpolatorTest {
+
+    private fun sample() = ini {
+        this["home"] = "/opt/app"
+        this["port"] = "8080"
+        section("paths") {
+            this["logs"] = "\${home}/logs"
+            this["archive"] = "\${logs}/archive"
+        }
+        section("server") {
+            this["url"] = "http://localhost:\${port}/\${paths.logs}"
+            this["timeout"] = "\${defaults.timeout}"
+            this["missing"] = "\${nowhere} and \$\${literal}"
+        }
+        section("defaults") { this["timeout"] = "30" }
+    }
+
+    @Test
+    fun testDisabledByDefault() {
+        val ini = sample()
+        assertEquals("\${home}/logs", ini.section("paths")["logs"])
+    }
+
+    @Test
+    fun testReferences() {
+        val ini = sample().apply { interpolation = true }
+
+        assertEquals("/opt/app/logs", ini.section("paths")["logs"])
+        assertEquals("/opt/app/logs/archive", ini.section("paths")["archive"])
+        assertEquals("http://localhost:8080//opt/app/logs", ini.section("server")["url"])
+        assertEquals(30, ini.section("server").getInt("timeout"))
+        assertEquals("\${nowhere} and \${literal}", ini.section("server")["missing"])
+
+        // raw values are preserved
+        assertEquals("\${logs}/archive", ini.section("paths").getRaw("archive"))
+        assertTrue(ini.toString().contains("archive = \${logs}/archive"))
+    }
+
+    @Test
+    fun testEnvironmentReference() {
+        val (name, value) = System.getenv().entries.first()
+        val ini = ini { this["env"] = "\${env:$name}" }.apply { interpolation = true }
+        assertEquals(value, ini["env"])
+    }
+
+    @Test
+    fun testChangesInvalidateDependents() {
+        val ini = sample().apply { interpolation = true }
+        val paths = ini.section("paths")
+        assertEquals("/opt/app/logs/archive", paths["archive"])
+
+        ini["home"] = "/srv"
+        assertEquals("/srv/logs/archive", paths["archive"])
+
+        // a new, closer definition takes over the global one
+        paths["home"] = "/data"
+        assertEquals("/data/logs/archive", paths["archive"])
+
+        paths.removeProperty("home")
+        assertEquals("/srv/logs", paths["logs"])
+
+        // an unresolved reference is resolved as soon as its target appears
+        ini["nowhere"] = "here"
+        assertEquals("here and \${literal}", ini.section("server")["missing"])
+    }
+
+    @Test
+    fun testCircularReference() {
+        val ini = ini {
+            this["a"] = "\${b}"
+            this["b"] = "x\${a}"
+        }.apply { interpolation = true }
+
+        val e = assertThrows<IllegalStateException> { ini["a"] }
+        assertTrue(e.message!!.contains("a -> b -> a"))
+
+        ini["b"] = "fixed"
+        assertEquals("fixed", ini["a"])
+    }
+}
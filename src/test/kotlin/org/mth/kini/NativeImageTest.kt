@@ -0,0 +1,106 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+/**
+ * Exercises every path relying on the configuration shipped in `META-INF/native-image`: parsing,
+ * binding, metrics and the bundled resources. Run with `mvn -Pnative test` on a GraalVM JDK, it proves
+ * that they work in a native image.
+ */
+class NativeImageTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private val inNativeImage = System.getProperty("org.graalvm.nativeimage.imagecode") != null
+
+    @Test
+    fun testLoad() {
+        tempDir.resolve("base.ini").writeText("[db]\nhost = base\nport = 5432\n")
+        val file = tempDir.resolve("app.ini")
+        file.writeText("@include = base.ini\nname = \"kini spaced \\t\"\n[db]\nhost = main ; comment\n")
+
+        val ini = Ini.load(file, IniLoadOptions(resolveIncludes = true))
+        assertEquals("kini spaced \\t", ini["name"])
+        assertEquals("main", ini.section("db")["host"])
+        assertEquals(5432, ini.section("db").getInt("port"))
+
+        val offHeap = Ini.load(file, IniLoadOptions(resolveIncludes = true, caseInsensitive = true, offHeap = true))
+        assertEquals("main", offHeap.section("DB")["HOST"])
+    }
+
+    data class Pool(val size: Int, val timeout: Long = 30)
+
+    data class Database(@IniKey("address") val host: String, val pool: Pool, val user: String? = null)
+
+    @Test
+    fun testBind() {
+        val section = IniSection("db").apply {
+            this["address"] = "localhost"
+            this["pool.size"] = "4"
+        }
+        assertEquals(Database("localhost", Pool(4, 30)), section.bind<Database>())
+
+        // the defaults and the nullability come from the Kotlin metadata, read through reflection
+        val e = assertThrows<IniBindingException> { IniSection("db").apply { this["user"] = "u" }.bind<Database>() }
+        assertEquals(listOf("address: missing property", "pool: missing property"), e.errors)
+    }
+
+    @Test
+    fun testMetrics() {
+        // no provider is registered: the ServiceLoader lookup finds none
+        assertSame(IniMetrics.NOOP, IniMetrics.installed())
+
+        var loaded = 0
+        IniMetrics.install(object : IniMetrics {
+            override fun loaded(path: Path?, bytes: Long, chars: Long, sections: Int, properties: Int, nanos: Long) {
+                loaded++
+            }
+        })
+        try {
+            Ini.load(tempDir.resolve("app.ini").apply { writeText("a = 1\n") })
+            assertEquals(1, loaded)
+        } finally {
+            IniMetrics.install(IniMetrics.NOOP)
+        }
+    }
+
+    @Test
+    fun testResourcesAreReachable() {
+        assertNotNull(IniEvents.configuration())
+
+        // the classes registered for reflection are reachable in both modes
+        REFLECTED.forEach { assertDoesNotThrow { Class.forName(it) } }
+        assertNotNull(Class::class.java.getMethod("isRecord"))
+
+        // the configuration itself is only read at image build time, and is not part of the image
+        if (inNativeImage) return
+
+        val loader = Ini::class.java.classLoader
+        val reflect = loader.getResourceAsStream("$CONFIG/reflect-config.json")?.reader()?.readText()
+        assertNotNull(reflect, "reflect-config.json")
+        assertEquals(REFLECTED.toSet(), Regex("\"name\"\\s*:\\s*\"([^\"]+)\"").findAll(reflect!!)
+            .map { it.groupValues[1] }
+            .filter { it.contains('.') } // method names are not qualified
+            .toSet())
+        assertNotNull(loader.getResource("$CONFIG/native-image.properties"))
+        assertNotNull(loader.getResource("$CONFIG/resource-config.json"))
+    }
+
+    private companion object {
+        const val CONFIG = "META-INF/native-image/org.mth/K-Ini"
+
+        val REFLECTED = listOf(
+            "kotlin.jvm.internal.DefaultConstructorMarker",
+            "kotlin.Metadata",
+            "org.mth.kini.IniKey",
+            "java.lang.Class",
+            "java.lang.reflect.RecordComponent"
+        )
+    }
+}
@@ -0,0 +1,128 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.*
+
+class NumberParserTest {
+
+    private fun long(s: String) = NumberParser.parseLong(s, 0, s.length, longSuffix = true)
+
+    private fun double(s: String) = NumberParser.parseDouble(s, 0, s.length)
+
+    @Test
+    fun testIntegers() {
+        assertEquals(0L, long("0"))
+        assertEquals(-42L, long("-42"))
+        assertEquals(42L, long("+42"))
+        assertEquals(Long.MAX_VALUE, long("9223372036854775807"))
+        assertEquals(Long.MIN_VALUE, long("-9223372036854775808"))
+        assertEquals(1_000_000L, long("1_000_000"))
+        assertEquals(26L, long("0x1A"))
+        assertEquals(-255L, long("-0xff"))
+        assertEquals(8L, long("0o10"))
+        assertEquals(5L, long("0b101"))
+        assertEquals(100L, long("100L"))
+        assertEquals(0xFFL, long("0xFFl"))
+        assertEquals(Int.MIN_VALUE, NumberParser.parseInt("-2147483648", 0, 11))
+
+        for (invalid in listOf("", "-", "+", "0x", "1__0", "_1", "1_", "12a", "1.5", "9223372036854775808", "L", "1 0")) {
+            assertThrows<NumberFormatException>(invalid) { long(invalid) }
+        }
+        assertThrows<NumberFormatException> { NumberParser.parseInt("2147483648", 0, 10) }
+        assertThrows<NumberFormatException> { NumberParser.parseShort("32768", 0, 5) }
+        assertThrows<NumberFormatException> { NumberParser.parseLong("10L", 0, 3) }
+    }
+
+    @Test
+    fun testParsesWithinRange() {
+        assertEquals(123, NumberParser.parseInt("[123]", 1, 4))
+        assertEquals(2.5, NumberParser.parseDouble("x=2.5;", 2, 5))
+    }
+
+    @Test
+    fun testDoubles() {
+        for (s in listOf(
+            "0", "-0", "3.14", "-3.14D", "1e3", "1E-3", ".5", "5.", "+1.5e+2", "0.000123", "199.33F",
+            "123456789012345", "1234567890123456789", "1e22", "1e23", "1e-22", "4.9e-324", "1.7976931348623157e308",
+            "NaN", "-Infinity", "0x1p3", "0.1", "0.30000000000000004"
+        )) {
+            assertEquals(java.lang.Double.parseDouble(s), double(s), s)
+        }
+        assertEquals(-0.0, double("-0.0"))
+        assertEquals(1.0 / Double.NEGATIVE_INFINITY, double("-0"))
+
+        for (invalid in listOf("", ".", "e5", "1e", "1.2.3", "abc", "1,5")) {
+            assertThrows<NumberFormatException>(invalid) { double(invalid) }
+        }
+    }
+
+    @Test
+    fun testDoublesAreCorrectlyRounded() {
+        val random = Random(42)
+        repeat(100_000) {
+            val digits = 1 + random.nextInt(17)
+            val mantissa = (random.nextLong() and Long.MAX_VALUE).toString().take(digits)
+            val point = random.nextInt(mantissa.length + 1)
+            val s = mantissa.substring(0, point) + "." + mantissa.substring(point) + "e" + (random.nextInt(60) - 30)
+            assertEquals(java.lang.Double.parseDouble(s), double(s), s)
+            assertEquals(java.lang.Float.parseFloat(s), NumberParser.parseFloat(s, 0, s.length), s)
+        }
+    }
+
+    @Test
+    fun testSizesAndDurations() {
+        fun size(s: String) = NumberParser.parseSize(s, 0, s.length)
+        fun nanos(s: String) = NumberParser.parseDurationNanos(s, 0, s.length)
+
+        assertEquals(512L, size("512"))
+        assertEquals(512L, size("512b"))
+        assertEquals(64L * 1024, size("64k"))
+        assertEquals(16L shl 20, size("16MB"))
+        assertEquals(2L shl 30, size("2 GiB"))
+        assertEquals(1L shl 40, size("1T"))
+        assertThrows<NumberFormatException> { size("1x") }
+        assertThrows<NumberFormatException> { size("9223372036854775807k") }
+
+        // radix prefixes, as accepted by parseLong
+        assertEquals(16L shl 10, size("0x10k"))
+        assertEquals(8L shl 20, size("0o10 MiB"))
+        assertEquals(5L shl 10, size("0b101k"))
+        assertEquals(0L, size("0b"))
+        assertEquals(27L, size("0x1b"))
+        assertEquals(1L, size("0x1 b"))
+        assertThrows<NumberFormatException> { size("0o8k") }
+        assertEquals(3L * 1_000_000_000, nanos("0b11s"))
+        assertEquals(8L * 1_000_000, nanos("0o10"))
+
+        assertEquals(30_000_000_000L, nanos("30s"))
+        assertEquals(250_000_000L, nanos("250ms"))
+        assertEquals(250_000_000L, nanos("250"))
+        assertEquals(5L * 60 * 1_000_000_000, nanos("5 m"))
+        assertEquals(2L * 3600 * 1_000_000_000, nanos("2h"))
+        assertEquals(86_400_000_000_000L, nanos("1d"))
+        assertEquals(10L, nanos("10ns"))
+        assertEquals(1_000L, nanos("1us"))
+        assertThrows<NumberFormatException> { nanos("1 week") }
+    }
+
+    @Test
+    fun testDefaultsInsteadOfExceptions() {
+        fun long(s: String) = NumberParser.parseLongOrDefault(s, 0, s.length, true, -7)
+        fun short(s: String) = NumberParser.parseShortOrDefault(s, 0, s.length, -7)
+
+        assertEquals(100L, long("100L"))
+        assertEquals(Long.MIN_VALUE, long("-9223372036854775808"))
+        assertEquals(-7L, long(""))
+        assertEquals(-7L, long("L"))
+        assertEquals(-7L, long("12a"))
+        assertEquals(-7L, long("9223372036854775808"))
+
+        assertEquals(0x7f.toShort(), short("0x7f"))
+        assertEquals(Short.MIN_VALUE, short("-32768"))
+        assertEquals((-7).toShort(), short("32768"))
+        assertEquals((-7).toShort(), short("-9223372036854775808"))
+        assertEquals((-7).toShort(), short("abc"))
+    }
+}
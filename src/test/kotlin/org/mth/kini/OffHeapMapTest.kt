@@ -0,0 +1,145 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+import kotlin.io.path.writeText
+
+class OffHeapMapTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    @Test
+    fun testPutGetRemove() {
+        val map = OffHeapMap(OffHeapArena())
+        assertNull(map["missing"])
+        assertNull(map.put("host", "localhost"))
+        assertEquals("localhost", map.put("host", "127.0.0.1"))
+        map["port"] = "8080"
+
+        assertEquals(2, map.size)
+        assertEquals("127.0.0.1", map["host"])
+        assertTrue(map.containsKey("port"))
+        assertFalse(map.containsKey("Port"))
+        assertEquals(listOf("host", "port"), map.keys.toList())
+
+        assertEquals("8080", map.remove("port"))
+        assertNull(map.remove("port"))
+        assertEquals(1, map.size)
+
+        map.clear()
+        assertTrue(map.isEmpty())
+        map["a"] = "1"
+        assertEquals("1", map["a"])
+    }
+
+    @Test
+    fun testUnicode() {
+        val map = OffHeapMap(OffHeapArena())
+        val keys = listOf("", "é", "日本語", "emoji 😀", "lone \uD800 surrogate", "x".repeat(100_000))
+        keys.forEachIndexed { i, key -> map[key] = "$key=$i" }
+
+        keys.forEachIndexed { i, key ->
+            val expected = if (key.contains('\uD800')) "lone ? surrogate=$i" else "$key=$i"
+            assertEquals(expected, map[key])
+        }
+        assertNull(map["日本"])
+        assertNull(map["emoji 😁"])
+    }
+
+    @Test
+    fun testGrowRemoveAndIterate() {
+        val arena = OffHeapArena()
+        val map = OffHeapMap(arena)
+        for (i in 0 until 20_000) map["key$i"] = "value$i"
+        for (i in 0 until 20_000 step 2) map.remove("key$i")
+        for (i in 20_000 until 25_000) map["key$i"] = "value$i"
+
+        assertEquals(15_000, map.size)
+        assertNull(map["key0"])
+        assertEquals("value19999", map["key19999"])
+        assertEquals(
+            (1 until 20_000 step 2).map { "key$it" } + (20_000 until 25_000).map { "key$it" },
+            map.keys.toList()
+        )
+
+        val iterator = map.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.key.endsWith("3")) iterator.remove() else entry.setValue(entry.value.uppercase())
+        }
+        assertNull(map["key3"])
+        assertEquals("VALUE1", map["key1"])
+        assertEquals(map.size, map.entries.count())
+        assertTrue(arena.reservedBytes > 0)
+    }
+
+    @Test
+    fun testIgnoreCase() {
+        val map = OffHeapMap(OffHeapArena(), ignoreCase = true)
+        map["Server.Port"] = "1"
+        map["SERVER.PORT"] = "2"
+
+        assertEquals(1, map.size)
+        assertEquals("2", map["server.port"])
+        assertEquals("Server.Port", map.storedKey("sErVeR.pOrT"))
+        assertNull(map["ÉTÉ"])
+    }
+
+    @Test
+    fun testOffHeapIni() {
+        val file = tempDir.resolve("large.ini")
+        file.writeText(
+            buildString {
+                append("global = g\n")
+                for (s in 0 until 50) {
+                    append("[section$s]\n")
+                    for (k in 0 until 200) append("key$k = \"value $s.$k\"\n")
+                }
+                append("[section0]\nkey0 = last\n")
+            }
+        )
+
+        val heap = Ini.load(file)
+        val offHeap = Ini.load(file, IniLoadOptions(offHeap = true))
+        assertTrue(offHeap.isOffHeap)
+        assertFalse(heap.isOffHeap)
+        assertTrue(offHeap.offHeapBytes > 0)
+        assertEquals(0, heap.offHeapBytes)
+
+        assertEquals(heap.sectionCount(), offHeap.sectionCount())
+        assertEquals("g", offHeap["global"])
+        assertEquals("last", offHeap.section("section0")["key0"])
+        heap.sections.forEach { section ->
+            assertEquals(section.properties(), offHeap.section(section.sectionName).properties())
+        }
+        assertEquals(42, offHeap.section("section1").apply { this["port"] = "42" }.getInt("port"))
+
+        val copy = offHeap.copy()
+        assertTrue(copy.isOffHeap)
+        assertEquals("value 3.7", copy.section("section3")["key7"])
+
+        val multi = Ini.load(file, IniLoadOptions(offHeap = true, multiValue = true, caseInsensitive = true))
+        assertEquals(listOf("value 0.0", "last"), multi.section("SECTION0").getAll("KEY0"))
+    }
+
+    @Test
+    fun testConcurrentSections() {
+        val ini = Ini(false, OffHeapArena())
+        val sections = (0 until 8).map { ini.section("s$it") }
+        val threads = sections.map { section ->
+            Thread {
+                for (k in 0 until 20_000) section["key$k"] = "value of ${section.sectionName}.$k"
+            }
+        }
+        threads.forEach { it.start() }
+        threads.forEach { it.join() }
+
+        sections.forEach { section ->
+            assertEquals(20_000, section.propertyCount)
+            for (k in 0 until 20_000 step 997) assertEquals("value of ${section.sectionName}.$k", section["key$k"])
+        }
+    }
+}
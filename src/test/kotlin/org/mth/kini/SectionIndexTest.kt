@@ -0,0 +1,151 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.InputStreamReader
+import java.nio.charset.MalformedInputException
+import java.nio.file.Path
+import java.util.SplittableRandom
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.io.path.writeText
+
+class SectionIndexTest {
+
+    @TempDir
+    lateinit var tempDir: Path
+
+    private fun load(text: String, options: IniLoadOptions): Ini =
+        Ini.load(InputStreamReader(text.byteInputStream()), options)
+
+    private fun assertSameContent(text: String, options: IniLoadOptions = IniLoadOptions()) {
+        val eager = load(text, options)
+        val lazy = load(text, options.copy(lazySections = true))
+        assertEquals(eager.sectionCount(), lazy.sectionCount(), text)
+        assertEquals(eager.includes, lazy.includes, text)
+        assertEquals(eager.globalProperties(), lazy.globalProperties(), text)
+        eager.sections.forEach { section ->
+            assertTrue(lazy.hasSection(section.sectionName), text)
+            val other = lazy.section(section.sectionName)
+            assertEquals(section.properties(), other.properties(), text)
+            section.keys.forEach { assertEquals(section.getAll(it), other.getAll(it), text) }
+        }
+    }
+
+    @Test
+    fun testSameContentAsEagerParsing() {
+        listOf(
+            "",
+            "a = 1\n[s]\nb = 2\n[t]\nc = 3",
+            "[s]\na = 1\n[t]\n[s]\nb = 2\na = 3\n[]\nc = 4",
+            "[empty]\n; comment\n[s] trailing\nk = v",
+            "multi\n[not a header]\nname = 1\n[s]\nk = v",
+            "a = \"x\"[s]\nk = v\nb = 'y' [t]\nl = w",
+            "[s]\n@include = a.ini\n!include b.ini\nk = v\n!include c.ini",
+            "[s]\nk = v\n!include last.ini",
+            "[  spaced  ]\nk = v\n[a\nb]\nl = w",
+            "[s]\nk = \"unterminated\n[t]\nl = 'it\\'s'\n[u]\nm = 1 ; c\r\n[v]\r\nn = 2\r"
+        ).forEach { text ->
+            IniParserEngine.values().forEach { engine ->
+                assertSameContent(text, IniLoadOptions(engine = engine))
+                assertSameContent(text, IniLoadOptions(engine = engine, multiValue = true, caseInsensitive = true))
+            }
+        }
+    }
+
+    @Test
+    fun testGeneratedDocuments() {
+        val random = SplittableRandom(48)
+        repeat(200) {
+            val text = buildString {
+                repeat(random.nextInt(1, 40)) { line ->
+                    when (random.nextInt(8)) {
+                        0 -> append("[section").append(random.nextInt(5)).append("]\n")
+                        1 -> append("; comment [fake]\n")
+                        2 -> append("key").append(line).append(" = \"quoted \\\" ").append(line).append("\" [s9]\n")
+                        3 -> append("KEY").append(random.nextInt(3)).append(": 'single'\n")
+                        4 -> append("name without delimiter\n")
+                        else -> append("key").append(random.nextInt(10)).append(" = value ").append(line).append('\n')
+                    }
+                }
+            }
+            val failure = runCatching { load(text, IniLoadOptions()) }.exceptionOrNull()
+            if (failure != null) {
+                assertThrows(failure.javaClass) { load(text, IniLoadOptions(lazySections = true)) }
+            } else {
+                assertSameContent(text)
+                assertSameContent(text, IniLoadOptions(multiValue = true, caseInsensitive = true, decodeEscapes = true))
+            }
+        }
+    }
+
+    @Test
+    fun testSectionsAreParsedOnFirstUse() {
+        val text = "g = 1\n[a]\nx = 1\n[b]\ny = 2\n[a]\nz = 3\n"
+        val ini = load(text, IniLoadOptions(lazySections = true))
+        assertEquals("1", ini["g"])
+        assertEquals(2, ini.sectionCount())
+        assertTrue(ini.hasSection("b"))
+
+        assertNotNull(ini.unparsedSection("a").pendingBody)
+        assertEquals(2, ini.query("a/*").count())
+        assertNull(ini.unparsedSection("a").pendingBody)
+        assertNotNull(ini.unparsedSection("b").pendingBody)
+        assertEquals(mapOf("x" to "1", "z" to "3"), ini.section("a").properties())
+
+        assertEquals(load(text, IniLoadOptions()).toString(), ini.toString())
+    }
+
+    @Test
+    fun testFrozenAndCopied() {
+        val ini = load("[a]\nx = 1\n[b]\ny = 2\n", IniLoadOptions(lazySections = true)).freeze()
+        assertEquals("1", ini.section("a")["x"])
+        assertThrows(UnsupportedOperationException::class.java) { ini.section("a")["x"] = "2" }
+
+        val copy = ini.copy()
+        copy.section("b")["y"] = "3"
+        assertEquals("2", ini.section("b")["y"])
+        assertEquals("3", copy.section("b")["y"])
+    }
+
+    @Test
+    fun testMalformedInputFailsAtLoad() {
+        assertThrows(MalformedInputException::class.java) {
+            load("[a]\nx = 1\n[b\n", IniLoadOptions(lazySections = true))
+        }
+    }
+
+    @Test
+    fun testConcurrentFirstUse() {
+        val text = buildString {
+            repeat(50) { s ->
+                append("[s").append(s).append("]\n")
+                repeat(200) { k -> append("k").append(k).append(" = ").append(s * k).append('\n') }
+            }
+        }
+        val file = tempDir.resolve("large.ini")
+        file.writeText(text)
+
+        repeat(5) {
+            val ini = Ini.load(file, IniLoadOptions(lazySections = true)).freeze()
+            val pool = Executors.newFixedThreadPool(8)
+            val start = CountDownLatch(1)
+            val results = (0 until 8).map { t ->
+                pool.submit<Boolean> {
+                    start.await()
+                    (0 until 50).all { i ->
+                        val s = (i * (t + 1)) % 50
+                        val section = ini.section("s$s")
+                        section.propertyCount == 200 && section.getInt("k199") == s * 199
+                    }
+                }
+            }
+            start.countDown()
+            results.forEach { assertTrue(it.get()) }
+            pool.shutdown()
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS))
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.mth.kini
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.lang.management.ManagementFactory
+
+/**
+ * Checks that the hot read paths allocate nothing in steady state, by measuring the bytes allocated by
+ * the current thread around repeated calls.
+ */
+class ZeroAllocationTest {
+
+    /**
+     * The measured code; unlike `(Int) -> Unit`, it takes the iteration index without boxing it.
+     */
+    private fun interface Body {
+        fun run(i: Int)
+    }
+
+    private val threads = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+
+    private val names = arrayOf("name", "port", "enabled", "ratio", "missing", "timeout", "hex")
+
+    private lateinit var ini: Ini
+
+    private lateinit var section: IniSection
+
+    private var sink = 0L
+
+    @BeforeEach
+    fun setUp() {
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported)
+        threads!!.isThreadAllocatedMemoryEnabled = true
+
+        ini = Ini()
+        ini["global"] = "1"
+        section = ini.section("server").apply {
+            this["name"] = "kini"
+            this["port"] = "8080"
+            this["enabled"] = "true"
+            this["ratio"] = "0.75"
+            this["timeout"] = "30000"
+            this["hex"] = "0x7f"
+        }
+    }
+
+    /**
+     * Runs [block] until compiled, then asserts that [ITERATIONS] further runs allocate nothing.
+     */
+    private fun assertNoAllocation(block: Body) {
+        val thread = Thread.currentThread().id
+        repeat(WARMUP) { block.run(it) }
+
+        // the measurement itself may allocate, once
+        var allocated = Long.MAX_VALUE
+        repeat(3) {
+            val before = threads!!.getThreadAllocatedBytes(thread)
+            for (i in 0 until ITERATIONS) block.run(i)
+            allocated = minOf(allocated, threads.getThreadAllocatedBytes(thread) - before)
+        }
+        val overhead = run {
+            val before = threads!!.getThreadAllocatedBytes(thread)
+            threads.getThreadAllocatedBytes(thread) - before
+        }
+        assertEquals(0, (allocated - overhead).coerceAtLeast(0), "bytes allocated by $ITERATIONS calls")
+    }
+
+    @Test
+    fun testGet() = assertNoAllocation { i ->
+        sink += section[names[i % names.size]]?.length ?: 0
+    }
+
+    @Test
+    fun testGetWithDefault() = assertNoAllocation { i ->
+        sink += section.get(names[i % names.size], "default").length
+    }
+
+    @Test
+    fun testHasProperty() = assertNoAllocation { i ->
+        if (section.hasProperty(names[i % names.size])) sink++
+    }
+
+    @Test
+    fun testGetInt() = assertNoAllocation { i ->
+        sink += section.getInt("port") + section.getInt("hex") + section.getInt(if (i % 2 == 0) "port" else "missing", -1)
+    }
+
+    @Test
+    fun testGetLong() = assertNoAllocation { i ->
+        // invalid values fall back to the default too
+        sink += section.getLong("timeout") + section.getLong(names[i % names.size], -1)
+    }
+
+    @Test
+    fun testGetShort() = assertNoAllocation { i ->
+        sink += section.getShort("hex") + section.getShort(names[i % names.size], -1)
+    }
+
+    @Test
+    fun testGetBoolean() = assertNoAllocation { i ->
+        if (section.getBoolean("enabled")) sink++
+        if (section.getBoolean(names[i % names.size], false)) sink++
+    }
+
+    @Test
+    fun testGetDouble() = assertNoAllocation { i ->
+        sink += (section.getDouble("ratio") * 100).toLong()
+        sink += section.getDouble(if (i % 2 == 0) "ratio" else "missing", 1.0).toLong()
+    }
+
+    @Test
+    fun testSectionLookup() = assertNoAllocation { i ->
+        sink += ini.section("server").propertyCount
+        if (ini.hasSection(if (i % 2 == 0) "server" else "client")) sink++
+        if ("server" in ini) sink++
+    }
+
+    @Test
+    fun testCaseInsensitiveGet() {
+        val ci = Ini(true).apply { merge(ini) }.section("SERVER")
+        val spellings = arrayOf("name", "PORT", "Enabled", "rAtIo", "Missing")
+        assertNoAllocation { i ->
+            sink += ci[spellings[i % spellings.size]]?.length ?: 0
+        }
+    }
+
+    private companion object {
+        const val WARMUP = 50_000
+        const val ITERATIONS = 100_000
+    }
+}